@@ -24,6 +24,8 @@
 package org.opennars.control;
 
 import org.opennars.entity.*;
+import org.opennars.inference.PremiseCache;
+import org.opennars.inference.RuleStatistics;
 import org.opennars.inference.TruthFunctions;
 import org.opennars.interfaces.Timable;
 import org.opennars.io.events.Events;
@@ -33,6 +35,7 @@ import org.opennars.operator.Operation;
 import org.opennars.storage.Memory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.opennars.entity.Stamp.BaseEntry;
 
@@ -43,7 +46,8 @@ import org.opennars.entity.Stamp.BaseEntry;
  */
 public class DerivationContext {
     public boolean evidentalOverlap = false;
-    public final Memory memory;
+    /** null while the context is in the pool of its thread */
+    public Memory memory;
     protected Term currentTerm;
     protected Concept currentConcept;
     protected Task currentTask;
@@ -56,6 +60,24 @@ public class DerivationContext {
     public Parameters narParameters;
 
     public Timable time;
+
+    /** innermost active inference rule and its invocation, only tracked while RuleStatistics are enabled */
+    public RuleStatistics.Rule currentRule;
+    public RuleStatistics.Probe ruleProbe;
+
+    /** records the conclusions of the current premise pair if it may be cached, see PremiseCache */
+    public PremiseCache.Recording premiseRecording;
+
+    /** pair of terms which a rule unifies, only valid until the next call of unifier */
+    private final Term[] unifier = new Term[2];
+
+    /** contexts which were acquired on this thread, one for each nesting level */
+    private static final ThreadLocal<Pool> pool = ThreadLocal.withInitial(Pool::new);
+
+    private static final class Pool {
+        DerivationContext[] contexts = new DerivationContext[4];
+        int depth = 0;
+    }
     
     public DerivationContext(final Memory mem, final Parameters narParameters, final Timable time) {
         super();
@@ -63,6 +85,76 @@ public class DerivationContext {
         this.narParameters = narParameters;
         this.time = time;
     }
+
+    /**
+     * Reuses the context of the current thread and nesting level instead of allocating one for each firing,
+     * it has to be given back with release() on the same thread.
+     * Observers of the events which carry the context must not keep it, it is cleared when it is released.
+     *
+     * @param mem The memory the inference works on
+     * @param narParameters The parameters of the reasoner
+     * @param time indirection to retrieve time
+     * @return a context without the state of a previous firing
+     */
+    public static DerivationContext acquire(final Memory mem, final Parameters narParameters, final Timable time) {
+        final Pool p = pool.get();
+        if (p.depth == p.contexts.length) {
+            p.contexts = Arrays.copyOf(p.contexts, p.depth * 2);
+        }
+        DerivationContext nal = p.contexts[p.depth];
+        if (nal == null) {
+            nal = new DerivationContext(mem, narParameters, time);
+            p.contexts[p.depth] = nal;
+        } else {
+            nal.memory = mem;
+            nal.narParameters = narParameters;
+            nal.time = time;
+        }
+        p.depth++;
+        return nal;
+    }
+
+    /**
+     * Gives back a context which was acquired on this thread,
+     * the pool doesn't keep the memory of the last reasoner of the thread reachable
+     */
+    public void release() {
+        reset();
+        memory = null;
+        narParameters = null;
+        time = null;
+        pool.get().depth--;
+    }
+
+    /**
+     * Forgets the state of the firing, the memory, parameters and time are kept
+     */
+    public void reset() {
+        evidentalOverlap = false;
+        currentTerm = null;
+        currentConcept = null;
+        currentTask = null;
+        currentBeliefLink = null;
+        currentTaskLink = null;
+        currentBelief = null;
+        newStamp = null;
+        newStampBuilder = null;
+        original_time = 0;
+        currentRule = null;
+        ruleProbe = null;
+        premiseRecording = null;
+        unifier[0] = null;
+        unifier[1] = null;
+    }
+
+    /**
+     * @return the unification pair of the context holding the two terms, Variables.unify replaces them by their substituted versions
+     */
+    public Term[] unifier(final Term first, final Term second) {
+        unifier[0] = first;
+        unifier[1] = second;
+        return unifier;
+    }
    
     public void emit(final Class c, final Object... o) {
         memory.emit(c, o);
@@ -84,28 +176,28 @@ public class DerivationContext {
             return false; //implication and equivalence goals and quests are not supported anymore
         }
         if (!task.budget.aboveThreshold()) {
-            memory.removeTask(task, "Insufficient Budget");
+            rejectTask(task, "Insufficient Budget");
             return false;
         } 
         if (task.sentence != null && task.sentence.truth != null) {
             final float conf = task.sentence.truth.getConfidence();
             if (conf < narParameters.TRUTH_EPSILON) {
                 //no confidence - we can delete the wrongs out that way.
-                memory.removeTask(task, "Ignored (zero confidence)");
+                rejectTask(task, "Ignored (zero confidence)");
                 return false;
             }
         }
         if (task.sentence.term instanceof Operation) {
             final Operation op = (Operation) task.sentence.term;
             if (op.getSubject() instanceof Variable || op.getPredicate() instanceof Variable) {
-                memory.removeTask(task, "Operation with variable as subject or predicate");
+                rejectTask(task, "Operation with variable as subject or predicate");
                 return false;
             }
         }
         if(task.sentence.term.cloneDeep() == null) {
             //sorted subterm version leaded to a invalid term that remained undetected while the term was constructed optimistically
             //example: (&,a,b) --> (&,b,a) which gets normalized to (&,a,b) --> (&,a,b) which is invalid.
-            memory.removeTask(task, "Wrong Format");
+            rejectTask(task, "Wrong Format");
             return false;
         }
 
@@ -119,7 +211,7 @@ public class DerivationContext {
                 for (int j = 0; j < stampLength; j++) {
                     //!single since the derivation shouldn't depend on whether there is a current belief or not!!
                     if ((!single && this.evidentalOverlap) || ((i != j) && (baseI.equals(stamp.evidentialBase[j])))) {
-                        memory.removeTask(task, "Overlapping Evidenctal Base");
+                        rejectTask(task, "Overlapping Evidenctal Base");
                         //"(i=" + i + ",j=" + j +')' /* + " in " + stamp.toString()*/
                         return false;
                     }
@@ -141,6 +233,7 @@ public class DerivationContext {
             task.getBudget().setPriority(task.getBudget().getPriority()*narParameters.DERIVATION_PRIORITY_LEAK);
         }
         memory.event.emit(Events.TaskDerive.class, task, revised, single);
+        RuleStatistics.derived(this);
         //memory.logic.TASK_DERIVED.commit(task.budget.getPriority());
         
         if(addToMemory) {
@@ -149,6 +242,11 @@ public class DerivationContext {
         return true;
     }
 
+    private void rejectTask(final Task task, final String reason) {
+        memory.removeTask(task, reason);
+        RuleStatistics.rejected(this, reason);
+    }
+
     /* --------------- new task building --------------- */
     /**
      * Shared final operations by all double-premise rules, called from the
@@ -159,6 +257,9 @@ public class DerivationContext {
      * @param newBudget The budget value in task
      */
     public boolean doublePremiseTaskRevised(final Term newContent, final TruthValue newTruth, final BudgetValue newBudget) {
+        if (premiseRecording != null) {
+            premiseRecording.revised(newContent, newTruth, newBudget, getTheNewStamp().getOccurrenceTime());
+        }
         final Stamp derived_stamp = getTheNewStamp().clone();
         this.resetOccurrenceTime(); //stamp was already obsorbed
         final Sentence newSentence = new Sentence(
@@ -187,6 +288,9 @@ public class DerivationContext {
     }
     public List<Task> doublePremiseTask(final Term newContent, final TruthValue newTruth, final BudgetValue newBudget, final boolean temporalInduction, final boolean overlapAllowed, final boolean addToMemory) {
         
+        if (premiseRecording != null) {
+            premiseRecording.doublePremise(newContent, newTruth, newBudget, getTheNewStamp().getOccurrenceTime(), temporalInduction, overlapAllowed, addToMemory);
+        }
         final List<Task> ret = new ArrayList<>();
         if(newContent == null || !newBudget.aboveThreshold()) {
             return null;
@@ -263,6 +367,9 @@ public class DerivationContext {
      * @param newBudget The budget value in task
      */
     public boolean singlePremiseTask( Term newContent, final char punctuation, final TruthValue newTruth, final BudgetValue newBudget) {
+        if (premiseRecording != null) {
+            premiseRecording.singlePremise(newContent, punctuation, newTruth, newBudget);
+        }
         if (!newBudget.aboveThreshold())
             return false;
         
@@ -299,6 +406,9 @@ public class DerivationContext {
     }
 
     public boolean singlePremiseTask(final Sentence newSentence, final BudgetValue newBudget) {
+        if (premiseRecording != null) {
+            premiseRecording.notCacheable(); //the stamp was built by the rule
+        }
         if (!newBudget.aboveThreshold()) {
             return false;
         }
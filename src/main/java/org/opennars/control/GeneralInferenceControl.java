@@ -53,11 +53,20 @@ public class GeneralInferenceControl {
             }
         }
 
-        final DerivationContext nal = new DerivationContext(mem, narParameters, time);
+        final DerivationContext nal = DerivationContext.acquire(mem, narParameters, time);
+        try {
+            processSelectedConcept(nal, currentConcept);
+        } finally {
+            nal.release();
+        }
+    }
+
+    private static void processSelectedConcept(final DerivationContext nal, final Concept currentConcept) {
+        final Memory mem = nal.memory;
         boolean putBackConcept = false;
         float forgetCycles = 0.0f;
         synchronized(currentConcept) { //use current concept (current concept is the resource)  
-            ProcessAnticipation.maintainDisappointedAnticipations(currentConcept, time);
+            ProcessAnticipation.maintainDisappointedAnticipations(currentConcept, nal.time);
             if(currentConcept.taskLinks.size() == 0) { //remove concepts without tasklinks and without termlinks
                 mem.concepts.take(currentConcept.getTerm());
                 mem.conceptRemoved(currentConcept);
@@ -25,18 +25,16 @@ package org.opennars.control;
 
 import org.opennars.entity.*;
 import org.opennars.inference.BudgetFunctions;
+import org.opennars.inference.RuleStatistics;
 import org.opennars.inference.TemporalRules;
 import org.opennars.io.Symbols;
 import org.opennars.io.events.Events;
-import org.opennars.language.CompoundTerm;
 import org.opennars.operator.Operation;
 import org.opennars.storage.LevelBag;
 import org.opennars.storage.Memory;
 
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
 /**
  *
@@ -67,7 +65,10 @@ public class TemporalInferenceControl {
         final Sentence currentBelief = newEvent;
 
         //if(newEvent.getPriority()>Parameters.TEMPORAL_INDUCTION_MIN_PRIORITY)
-        return TemporalRules.temporalInduction(currentBelief, previousBelief, nal, SucceedingEventsInduction, addToMemory, allowSequence);
+        RuleStatistics.enter(nal, "TemporalRules.temporalInduction");
+        final List<Task> derived = TemporalRules.temporalInduction(currentBelief, previousBelief, nal, SucceedingEventsInduction, addToMemory, allowSequence);
+        RuleStatistics.exit(nal);
+        return derived;
     }
 
     public static boolean eventInference(final Task newEvent, final DerivationContext nal) {
@@ -82,114 +83,85 @@ public class TemporalInferenceControl {
             return false;
        }
 
-        final Set<Task> already_attempted = new HashSet<>();
-        final Set<Task> already_attempted_ops = new HashSet<>();
+        final float forgetCycles = nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS);
         //Sequence formation:
-        for(int i =0; i<nal.narParameters.SEQUENCE_BAG_ATTEMPTS; i++) {
-            synchronized(nal.memory.seq_current) {
-                final Task takeout = nal.memory.seq_current.takeNext();
-                if(takeout == null) {
-                    break; //there were no elements in the bag to try
-                }
-
-                if(already_attempted.contains(takeout) || 
-                        Stamp.baseOverlap(newEvent.sentence.stamp.evidentialBase,
-                                takeout.sentence.stamp.evidentialBase)) {
-                    nal.memory.seq_current.putBack(takeout, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
-                    continue;
+        synchronized(nal.memory.seq_current) {
+            nal.memory.seq_current.sample(nal.narParameters.SEQUENCE_BAG_ATTEMPTS, forgetCycles, nal.memory, takeout -> {
+                if(!Stamp.baseOverlap(newEvent.sentence.stamp.evidentialBase, takeout.sentence.stamp.evidentialBase)) {
+                    proceedWithTemporalInduction(newEvent.sentence, takeout.sentence, newEvent, nal, true, true, true);
                 }
-                already_attempted.add(takeout);
-                proceedWithTemporalInduction(newEvent.sentence, takeout.sentence, newEvent, nal, true, true, true);
-                nal.memory.seq_current.putBack(takeout, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
-            }
+            });
         }
 
         //Conditioning:
-        if(nal.memory.lastDecision != null && newEvent != nal.memory.lastDecision) {
-            already_attempted_ops.clear();
-            for(int k = 0; k<nal.narParameters.OPERATION_SAMPLES;k++) {
-                already_attempted.clear(); //todo move into k loop
-                final Task Toperation = k == 0 ? nal.memory.lastDecision : nal.memory.recent_operations.takeNext();
-                if(Toperation == null) {
-                    break; //there were no elements in the bag to try
-                }
-                if(already_attempted_ops.contains(Toperation)) {
-                    //put opc back into bag
-                    //(k>0 holds here):
-                    nal.memory.recent_operations.putBack(Toperation, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
-                    continue;
-                }
-                already_attempted_ops.add(Toperation);
-                final Concept opc = nal.memory.concept(Toperation.getTerm());
-                if(opc != null) {
-                    if(opc.seq_before == null) {
-                        opc.seq_before = new LevelBag<>(nal.narParameters.SEQUENCE_BAG_LEVELS, nal.narParameters.SEQUENCE_BAG_SIZE, nal.narParameters);
-                    }
-                    for(int i = 0; i<nal.narParameters.CONDITION_BAG_ATTEMPTS; i++) {
-                        final Task takeout = opc.seq_before.takeNext();
-                        if(takeout == null) {
-                            break; //there were no elements in the bag to try
-                        }
-                        if(already_attempted.contains(takeout)) {
-                            opc.seq_before.putBack(takeout, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
-                            continue;
-                        }
-                        already_attempted.add(takeout);
-                        final long x = Toperation.sentence.getOccurenceTime();
-                        final long y = takeout.sentence.getOccurenceTime();
-                        if(y > x) { //something wrong here?
-                            System.out.println("analyze case in TemporalInferenceControl!");
-                            continue;
-                        }
-                        final List<Task> seq_op = proceedWithTemporalInduction(Toperation.sentence, takeout.sentence, nal.memory.lastDecision, nal, true, false, true);
-                        for(final Task t : seq_op) {
-                            if(!t.sentence.isEternal()) { //TODO do not return the eternal here probably..;
-                                final List<Task> res = proceedWithTemporalInduction(newEvent.sentence, t.sentence, newEvent, nal, true, true, false); //only =/> </> ..
-                                /*DEBUG: for(Task seq_op_cons : res) {
-                                    System.out.println(seq_op_cons.toString());
-                                }*/
-                            }
-                        }
-
-                        opc.seq_before.putBack(takeout, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
-                    }
-                }
-                //put Toperation back into bag if it was taken out
-                if(k > 0) {
-                    nal.memory.recent_operations.putBack(Toperation, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
+        final Task lastDecision = nal.memory.lastDecision;
+        if(lastDecision != null && newEvent != lastDecision) {
+            conditioning(newEvent, lastDecision, nal);
+            nal.memory.recent_operations.sample(nal.narParameters.OPERATION_SAMPLES - 1, forgetCycles, nal.memory, Toperation -> {
+                if(Toperation != lastDecision) {
+                    conditioning(newEvent, Toperation, nal);
                 }
-            }
+            });
         }
         
         addToSequenceTasks(nal, newEvent);
         return true;
     }
     
+    /**
+     * Forms the sequences of an operation and the events before it, and their implications to the new event
+     *
+     * @param newEvent The new input event
+     * @param Toperation An operation which was recently executed
+     * @param nal The derivation context
+     */
+    private static void conditioning(final Task newEvent, final Task Toperation, final DerivationContext nal) {
+        final Concept opc = nal.memory.concept(Toperation.getTerm());
+        if(opc == null) {
+            return;
+        }
+        if(opc.seq_before == null) {
+            opc.seq_before = new LevelBag<>(nal.narParameters.SEQUENCE_BAG_LEVELS, nal.narParameters.SEQUENCE_BAG_SIZE, nal.narParameters);
+        }
+        final Task lastDecision = nal.memory.lastDecision;
+        opc.seq_before.sample(nal.narParameters.CONDITION_BAG_ATTEMPTS, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory, takeout -> {
+            final long x = Toperation.sentence.getOccurenceTime();
+            final long y = takeout.sentence.getOccurenceTime();
+            if(y > x) { //something wrong here?
+                System.out.println("analyze case in TemporalInferenceControl!");
+                return;
+            }
+            final List<Task> seq_op = proceedWithTemporalInduction(Toperation.sentence, takeout.sentence, lastDecision, nal, true, false, true);
+            for(final Task t : seq_op) {
+                if(!t.sentence.isEternal()) { //TODO do not return the eternal here probably..;
+                    final List<Task> res = proceedWithTemporalInduction(newEvent.sentence, t.sentence, newEvent, nal, true, true, false); //only =/> </> ..
+                    /*DEBUG: for(Task seq_op_cons : res) {
+                        System.out.println(seq_op_cons.toString());
+                    }*/
+                }
+            }
+        });
+    }
+
     public static void addToSequenceTasks(final DerivationContext nal, final Task newEvent) {
         //multiple versions are necessary, but we do not allow duplicates
         Task removal = null;
         synchronized(nal.memory.seq_current) {
-            for(final Task s : nal.memory.seq_current) {
-                if(CompoundTerm.replaceIntervals(s.getTerm()).equals(
-                        CompoundTerm.replaceIntervals(newEvent.getTerm()))) {
-                        // && //-- new outcommented
-                        //s.sentence.stamp.equals(newEvent.sentence.stamp,false,true,true,false) ) {
-                    //&& newEvent.sentence.getOccurenceTime()>s.sentence.getOccurenceTime() ) { 
-                    //check term indices
-                    if(s.getTerm().term_indices != null && newEvent.getTerm().term_indices != null) {
-                        boolean differentTermIndices = false;
-                        for(int i=0;i<s.getTerm().term_indices.length;i++) {
-                           if(s.getTerm().term_indices[i] != newEvent.getTerm().term_indices[i]) {
-                               differentTermIndices = true;
-                           }
-                        }
-                        if(differentTermIndices) {
-                            continue;
-                        }
+            for(final Task s : nal.memory.seq_current.events(newEvent.getTerm())) {
+                //check term indices
+                if(s.getTerm().term_indices != null && newEvent.getTerm().term_indices != null) {
+                    boolean differentTermIndices = false;
+                    for(int i=0;i<s.getTerm().term_indices.length;i++) {
+                       if(s.getTerm().term_indices[i] != newEvent.getTerm().term_indices[i]) {
+                           differentTermIndices = true;
+                       }
+                    }
+                    if(differentTermIndices) {
+                        continue;
                     }
-                    removal = s;
-                    break;
                 }
+                removal = s;
+                break;
             }
             if (removal != null) {
                 nal.memory.seq_current.take(removal);
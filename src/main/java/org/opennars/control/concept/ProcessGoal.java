@@ -38,6 +38,7 @@ import org.opennars.entity.TruthValue;
 import static org.opennars.inference.LocalRules.revisible;
 import static org.opennars.inference.LocalRules.revision;
 import static org.opennars.inference.LocalRules.trySolution;
+import org.opennars.inference.RuleStatistics;
 import org.opennars.inference.TemporalRules;
 import org.opennars.inference.TruthFunctions;
 import org.opennars.io.Symbols;
@@ -86,13 +87,17 @@ public class ProcessGoal {
             beliefT = concept.selectCandidate(task, concept.beliefs, nal.time);
 
             for (final Task iQuest : concept.quests ) {
+                RuleStatistics.enter(nal, "LocalRules.trySolution");
                 trySolution(task.sentence, iQuest, nal, true);
+                RuleStatistics.exit(nal);
             }
 
             // check if the Goal is already satisfied
             if (beliefT != null) {
                 // check if the Goal is already satisfied (manipulate budget)
+                RuleStatistics.enter(nal, "LocalRules.trySolution");
                 trySolution(beliefT.sentence, task, nal, true);
+                RuleStatistics.exit(nal);
             }
         }
 
@@ -102,7 +107,9 @@ public class ProcessGoal {
             final Sentence projectedGoal = oldGoal.projection(task.sentence.getOccurenceTime(), newStamp.getOccurrenceTime(), concept.memory);
             if (projectedGoal!=null) {
                 nal.setCurrentBelief(projectedGoal);
+                RuleStatistics.enter(nal, "LocalRules.revision");
                 final boolean wasRevised = revision(task.sentence, projectedGoal, concept, false, nal);
+                RuleStatistics.exit(nal);
                 if (wasRevised) {
                     /* It was revised, so there is a new task for which this method will be called
                      * with higher/lower desire.
@@ -280,20 +287,14 @@ public class ProcessGoal {
             final Operation op = (Operation) prec[prec.length-2];
             final Term precondition = Conjunction.make(newprec,TemporalRules.ORDER_FORWARD);
             final Concept preconc = nal.memory.concept(precondition);
-            long newesttime = -1;
-            Task bestsofar = null;
+            final Task bestsofar;
             if(preconc == null) {
                 continue;
             }
             //ok we can look now how much it is fullfilled
             //check recent events in event bag
             synchronized(concept.memory.seq_current) {
-                for(final Task p : concept.memory.seq_current) {
-                    if(p.sentence.term.equals(preconc.term) && p.sentence.isJudgment() && !p.sentence.isEternal() && p.sentence.getOccurenceTime() > newesttime  && p.sentence.getOccurenceTime() <= nal.time.time()) {
-                        newesttime = p.sentence.getOccurenceTime();
-                        bestsofar = p; //we use the newest for now
-                    }
-                }
+                bestsofar = concept.memory.seq_current.newestEvent(preconc.term, nal.time.time()); //we use the newest for now
             }
             if(bestsofar == null) {
                 continue;
@@ -36,6 +36,7 @@ import static org.opennars.inference.LocalRules.revisible;
 import static org.opennars.inference.LocalRules.revision;
 import static org.opennars.inference.LocalRules.trySolution;
 
+import org.opennars.inference.RuleStatistics;
 import org.opennars.inference.TemporalRules;
 import org.opennars.io.events.Events;
 import org.opennars.language.CompoundTerm;
@@ -82,7 +83,9 @@ public class ProcessJudgment {
                 final Sentence projectedBelief = oldBelief.projection(nal.time.time(), newStamp.getOccurrenceTime(), concept.memory);
                 if (projectedBelief!=null) {
                     nal.setCurrentBelief(projectedBelief);
+                    RuleStatistics.enter(nal, "LocalRules.revision");
                     revision(judg, projectedBelief, concept, false, nal);
+                    RuleStatistics.exit(nal);
                 }
             }
         }
@@ -91,11 +94,15 @@ public class ProcessJudgment {
         }
         final int nnq = concept.questions.size();
         for (int i = 0; i < nnq; i++) {
+            RuleStatistics.enter(nal, "LocalRules.trySolution");
             trySolution(judg, concept.questions.get(i), nal, true);
+            RuleStatistics.exit(nal);
         }
         final int nng = concept.desires.size();
         for (int i = 0; i < nng; i++) {
+            RuleStatistics.enter(nal, "LocalRules.trySolution");
             trySolution(judg, concept.desires.get(i), nal, true);
+            RuleStatistics.exit(nal);
         }
         concept.addToTable(task, false, concept.beliefs, concept.memory.narParameters.CONCEPT_BELIEFS_MAX, Events.ConceptBeliefAdd.class, Events.ConceptBeliefRemove.class);
         if(isExecutableHypothesis(task,nal)) {
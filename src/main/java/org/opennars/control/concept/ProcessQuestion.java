@@ -31,6 +31,7 @@ import org.opennars.entity.Concept;
 import org.opennars.entity.Sentence;
 import org.opennars.entity.Task;
 import org.opennars.entity.TaskLink;
+import org.opennars.inference.RuleStatistics;
 
 import static com.google.common.collect.Iterables.tryFind;
 import static org.opennars.inference.LocalRules.trySolution;
@@ -77,7 +78,9 @@ public class ProcessQuestion {
                 : concept.selectCandidate(quesTask, concept.desires, nal.time);
 
         if (newAnswerT != null) {
+            RuleStatistics.enter(nal, "LocalRules.trySolution");
             trySolution(newAnswerT.sentence, task, nal, true);
+            RuleStatistics.exit(nal);
         }
         else if(task.isInput() && !quesTask.getTerm().hasVarQuery() && quesTask.getBestSolution() != null) { // show previously found solution anyway in case of input
             concept.memory.emit(Events.Answer.class, quesTask, quesTask.getBestSolution());
@@ -107,7 +110,9 @@ public class ProcessQuestion {
                         if(c != null && answers.size() > 0) {
                             final Task taskAnswer = answers.get(0);
                             if(taskAnswer!=null) {
+                                RuleStatistics.enter(nal, "LocalRules.trySolution");
                                 newAnswer |= trySolution(taskAnswer.sentence, ques, nal, false); //order important here
+                                RuleStatistics.exit(nal);
                             }
                         }
                     }
@@ -146,7 +151,9 @@ public class ProcessQuestion {
                             if(c != null && answers.size() > 0) {
                                 final Task taskAnswer = answers.get(0);
                                 if(taskAnswer!=null) {
+                                    RuleStatistics.enter(nal, "LocalRules.trySolution");
                                     newAnswer |= trySolution(taskAnswer.sentence, ques, nal, false); //order important here
+                                    RuleStatistics.exit(nal);
                                 }
                             }
                         }
@@ -90,6 +90,29 @@ public class BudgetValue implements Cloneable, Serializable {
         }
     }
 
+    /**
+     * Overwrites the budget like the constructor initializes a new one
+     *
+     * @param p New priority
+     * @param d New durability
+     * @param q New quality
+     * @return this budget
+     */
+    public BudgetValue set(final float p, final float d, final float q) {
+        priority = p;
+        durability = d;
+        quality = q;
+        lastForgetTime = -1;
+
+        if(d>=1.0) {
+            durability=(float) (1.0-narParameters.TRUTH_EPSILON);
+        }
+        if(p>1.0) {
+            priority=1.0f;
+        }
+        return this;
+    }
+
     /**
      * Cloning constructor
      * @param v Budget value to be cloned
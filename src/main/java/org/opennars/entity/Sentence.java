@@ -488,12 +488,20 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
      * @return textural representation of the sentence for humans
      */
     public CharSequence toString(final Nar nar, final boolean showStamp) {
+        return toString(nar, showStamp, nar.time());
+    }
+
+    /**
+     * @param nar Reasoner instance
+     * @param showStamp must the stamp get appended to the string?
+     * @param time the time the tense is relative to
+     * @return textural representation of the sentence for humans
+     */
+    public CharSequence toString(final Nar nar, final boolean showStamp, final long time) {
     
         final CharSequence contentName = term.name();
-        
-        final long t = nar.time();
 
-        final long diff=stamp.getOccurrenceTime()-nar.time();
+        final long diff=stamp.getOccurrenceTime()-time;
         final long diffabs = Math.abs(diff);
         
         String timediff = "";
@@ -279,4 +279,42 @@ public class TruthValue implements Cloneable, Serializable { // implements Clone
         setConfidence(confidence);
         return this;
     }
+
+    /**
+     * Packs the truth value into a long, for compact storage without a TruthValue object
+     *
+     * @return frequency bits in the high half, confidence bits in the low half with the analytic flag as sign bit
+     */
+    public long pack() {
+        return pack(frequency, confidence, analytic);
+    }
+
+    public static long pack(final float frequency, final float confidence, final boolean analytic) {
+        final long c = Float.floatToRawIntBits(confidence) & 0x7fffffffL;
+        return ((long) Float.floatToRawIntBits(frequency) << 32) | c | (analytic ? 0x80000000L : 0);
+    }
+
+    /**
+     * Sets the values of a packed truth value, exactly as they were packed
+     *
+     * @param packed truth value packed by pack()
+     */
+    public TruthValue unpack(final long packed) {
+        frequency = packedFrequency(packed);
+        confidence = packedConfidence(packed);
+        analytic = packedAnalytic(packed);
+        return this;
+    }
+
+    public static float packedFrequency(final long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+
+    public static float packedConfidence(final long packed) {
+        return Float.intBitsToFloat((int) packed & 0x7fffffff);
+    }
+
+    public static boolean packedAnalytic(final long packed) {
+        return (packed & 0x80000000L) != 0;
+    }
 }
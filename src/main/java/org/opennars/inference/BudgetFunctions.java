@@ -196,6 +196,65 @@ public final class BudgetFunctions extends UtilityFunctions {
         return quality;
     }
 
+    /**
+     * Decrease Priority according to the cycles which passed since the budget was last forgotten.
+     * After forgetCycles cycles the priority above the re-scaled quality becomes d times as large,
+     * so repeated accesses within a cycle don't forget again.
+     * A budget which was never forgotten before is forgotten once like in applyForgetting.
+     *
+     * @param budget The previous budget value, its forget time is set to the current cycle
+     * @param forgetCycles The cycles for the priority to decay by the durability
+     * @param relativeThreshold The relative threshold of the bag
+     * @param currentCycle The current cycle of the memory
+     */
+    public static float applyForgetting(final BudgetValue budget, final float forgetCycles, final float relativeThreshold, final long currentCycle) {
+        if (budget.getLastForgetTime() == -1) {
+            budget.setLastForgetTime(currentCycle);
+            return applyForgetting(budget, forgetCycles, relativeThreshold);
+        }
+        final float priority = forgottenPriority(budget, forgetCycles, relativeThreshold, currentCycle);
+        budget.setPriority(priority);
+        budget.setLastForgetTime(currentCycle);
+        return priority;
+    }
+
+    /**
+     * The priority the budget has after forgetting up to the current cycle, without changing it
+     *
+     * @param budget The budget value
+     * @param forgetCycles The cycles for the priority to decay by the durability
+     * @param relativeThreshold The relative threshold of the bag
+     * @param currentCycle The current cycle of the memory
+     * @return the effective priority
+     */
+    public static float forgottenPriority(final BudgetValue budget, final float forgetCycles, final float relativeThreshold, final long currentCycle) {
+        final long lastForgetTime = budget.getLastForgetTime();
+        if (lastForgetTime == -1 || currentCycle <= lastForgetTime) {
+            return budget.getPriority();
+        }
+        float quality = budget.getQuality() * relativeThreshold;      // re-scaled quality
+        final float p = budget.getPriority() - quality;                     // priority above quality
+        if (p > 0) {
+            quality += p * pow(budget.getDurability(), (currentCycle - lastForgetTime) / forgetCycles);
+        }
+        return quality;
+    }
+
+    /**
+     * Forget a budget of an item which was used, per access or per elapsed cycles depending on LAZY_FORGETTING
+     *
+     * @param budget The previous budget value
+     * @param forgetCycles The forget cycles of the bag
+     * @param m related memory
+     */
+    public static float applyForgetting(final BudgetValue budget, final float forgetCycles, final Memory m) {
+        final float relativeThreshold = m.narParameters.QUALITY_RESCALED;
+        if (m.narParameters.LAZY_FORGETTING) {
+            return applyForgetting(budget, forgetCycles, relativeThreshold, m.cycleCount());
+        }
+        return applyForgetting(budget, forgetCycles, relativeThreshold);
+    }
+
     
     /**
      * Merge an item into another one in a bag, when the two are identical
@@ -221,6 +280,11 @@ public final class BudgetFunctions extends UtilityFunctions {
         return budgetInference(truthToQuality(truth), 1, nal);
     }
 
+    /** {@link #forward(TruthValue, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue forward(final TruthValue truth, final BudgetValue result, final org.opennars.control.DerivationContext nal) {
+        return budgetInference(truthToQuality(truth), 1, result, nal);
+    }
+
     /**
      * Backward inference result and adjustment, stronger case
      *
@@ -232,6 +296,11 @@ public final class BudgetFunctions extends UtilityFunctions {
         return budgetInference(truthToQuality(truth), 1, nal);
     }
 
+    /** {@link #backward(TruthValue, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue backward(final TruthValue truth, final BudgetValue result, final org.opennars.control.DerivationContext nal) {
+        return budgetInference(truthToQuality(truth), 1, result, nal);
+    }
+
     /**
      * Backward inference result and adjustment, weaker case
      *
@@ -243,6 +312,11 @@ public final class BudgetFunctions extends UtilityFunctions {
         return budgetInference(w2c(1, nal.narParameters) * truthToQuality(truth), 1, nal);
     }
 
+    /** {@link #backwardWeak(TruthValue, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue backwardWeak(final TruthValue truth, final BudgetValue result, final org.opennars.control.DerivationContext nal) {
+        return budgetInference(w2c(1, nal.narParameters) * truthToQuality(truth), 1, result, nal);
+    }
+
     /* ----- Task derivation in CompositionalRules and StructuralRules ----- */
     /**
      * Forward inference with CompoundTerm conclusion
@@ -253,8 +327,13 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return The budget of the conclusion
      */
     public static BudgetValue compoundForward(final TruthValue truth, final Term content, final org.opennars.control.DerivationContext nal) {
+        return compoundForward(truth, content, new BudgetValue(0f, 0f, 0f, nal.narParameters), nal);
+    }
+
+    /** {@link #compoundForward(TruthValue, Term, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue compoundForward(final TruthValue truth, final Term content, final BudgetValue result, final org.opennars.control.DerivationContext nal) {
         final float complexity = (content == null) ? nal.narParameters.COMPLEXITY_UNIT : nal.narParameters.COMPLEXITY_UNIT*content.getComplexity();
-        return budgetInference(truthToQuality(truth), complexity, nal);
+        return budgetInference(truthToQuality(truth), complexity, result, nal);
     }
 
     /**
@@ -268,6 +347,11 @@ public final class BudgetFunctions extends UtilityFunctions {
         return budgetInference(1, content.getComplexity()*nal.narParameters.COMPLEXITY_UNIT, nal);
     }
 
+    /** {@link #compoundBackward(Term, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue compoundBackward(final Term content, final BudgetValue result, final org.opennars.control.DerivationContext nal) {
+        return budgetInference(1, content.getComplexity()*nal.narParameters.COMPLEXITY_UNIT, result, nal);
+    }
+
     /**
      * Backward inference with CompoundTerm conclusion, weaker case
      *
@@ -279,6 +363,11 @@ public final class BudgetFunctions extends UtilityFunctions {
         return budgetInference(w2c(1, nal.narParameters), content.getComplexity()*nal.narParameters.COMPLEXITY_UNIT, nal);
     }
 
+    /** {@link #compoundBackwardWeak(Term, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue compoundBackwardWeak(final Term content, final BudgetValue result, final org.opennars.control.DerivationContext nal) {
+        return budgetInference(w2c(1, nal.narParameters), content.getComplexity()*nal.narParameters.COMPLEXITY_UNIT, result, nal);
+    }
+
     /**
      * Get the current activation level of a concept.
      *
@@ -298,7 +387,12 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @param nal Reference to the memory
      * @return Budget of the conclusion task
      */
-    private static BudgetValue budgetInference(final float qual, final float complexity, final org.opennars.control.DerivationContext nal) {
+    static BudgetValue budgetInference(final float qual, final float complexity, final org.opennars.control.DerivationContext nal) {
+        return budgetInference(qual, complexity, new BudgetValue(0f, 0f, 0f, nal.narParameters), nal);
+    }
+
+    /** {@link #budgetInference(float, float, org.opennars.control.DerivationContext)} into result, which must not be the budget of a link */
+    static BudgetValue budgetInference(final float qual, final float complexity, final BudgetValue result, final org.opennars.control.DerivationContext nal) {
         Item t = nal.getCurrentTaskLink();
         if (t == null) {
             t = nal.getCurrentTask();
@@ -314,7 +408,11 @@ public final class BudgetFunctions extends UtilityFunctions {
             bLink.incPriority(or(quality, targetActivation));
             bLink.incDurability(quality);
         }
-        return new BudgetValue(priority, durability, quality, nal.narParameters);
+        final BudgetValue budget = result.set(priority, durability, quality);
+        if (nal.premiseRecording != null) {
+            nal.premiseRecording.budgetInferred(qual, complexity, budget);
+        }
+        return budget;
     }
 
     @Deprecated static BudgetValue solutionEval(final Sentence problem, final Sentence solution, final Task task, final Memory memory) {
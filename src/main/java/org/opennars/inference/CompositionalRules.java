@@ -284,6 +284,9 @@ public final class CompositionalRules {
             nal.doublePremiseTask(content, truth, budget, false, false);
             // special inference to answer conjunctive questions with query variables
             if (taskSentence.term.hasVarQuery()) {
+                if (nal.premiseRecording != null) {
+                    nal.premiseRecording.notCacheable(); //depends on the beliefs of the content concept
+                }
                 final Concept contentConcept = nal.mem().concept(content);
                 if (contentConcept == null) {
                     return;
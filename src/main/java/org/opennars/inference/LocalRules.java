@@ -200,6 +200,9 @@ public class LocalRules {
      * @param task The task to be processed
      */
     public static boolean trySolution(final Sentence belief, final Task task, final DerivationContext nal, final boolean report) {
+        if (nal.premiseRecording != null) {
+            nal.premiseRecording.notCacheable(); //changes the best solution of the task
+        }
         final Sentence problem = task.sentence;
         final Memory memory = nal.mem();
         final Sentence oldBest = task.getBestSolution();
@@ -0,0 +1,355 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.inference;
+
+import org.opennars.control.DerivationContext;
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Sentence;
+import org.opennars.entity.TaskLink;
+import org.opennars.entity.TermLink;
+import org.opennars.entity.TruthValue;
+import org.opennars.language.Term;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of the conclusions of premise pairs which were dispatched by the rule table.
+ * <p>
+ * The same task/belief pairs get fired again and again, the novelty filter of the task links
+ * only covers TERM_LINK_RECORD_LENGTH recent term links.
+ * A cached premise pair skips term construction and unification: its conclusion terms and truth values
+ * are replayed through the DerivationContext, so the budget (including the feedback to the term link)
+ * and the stamp are computed for the current firing.
+ * The budget function is replayed for every budget the rules inferred, also for the ones of discarded conclusions,
+ * since each of them fed back to the term link.
+ * <p>
+ * Only eternal judgments with an eternal belief (if any) are cached,
+ * premise pairs which involved memory lookups, random choices or question answering are never cached.
+ * Unification of commutative compounds is randomized, a cached pair keeps the outcome of its first firing.
+ */
+public final class PremiseCache {
+
+    private final int capacity;
+
+    /** conclusions by premise pair, in access order */
+    private final Map<Key, Conclusion[]> entries;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param capacity maximum number of cached premise pairs
+     */
+    public PremiseCache(final int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, Conclusion[]>(Math.min(capacity, 1024) * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Conclusion[]> eldest) {
+                return size() > PremiseCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @return whether the conclusions of the premise pair may be cached
+     */
+    public static boolean cacheable(final Sentence taskSentence, final Sentence belief) {
+        return taskSentence.isJudgment() && taskSentence.isEternal() && (belief == null || belief.isEternal());
+    }
+
+    /**
+     * @return the cached conclusions of the premise pair, null if not cached
+     */
+    public synchronized Conclusion[] get(final Key key) {
+        final Conclusion[] ret = entries.get(key);
+        if (ret == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return ret;
+    }
+
+    public synchronized void put(final Key key, final Conclusion[] conclusions) {
+        entries.put(key, conclusions);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Derives the cached conclusions again in the order they were derived originally
+     *
+     * @param conclusions the cached conclusions of the current premise pair
+     * @param nal the derivation context with the current task, belief and links
+     */
+    public static void replay(final Conclusion[] conclusions, final DerivationContext nal) {
+        int inferredCount = 0;
+        for (final Conclusion c : conclusions) {
+            if (c.kind == Conclusion.BUDGET) {
+                inferredCount++;
+            }
+        }
+        //conclusions of the same inferred budget share it, as they did when they were derived
+        final BudgetValue[] inferred = inferredCount == 0 ? null : new BudgetValue[inferredCount];
+        int inferredIndex = 0;
+        for (final Conclusion c : conclusions) {
+            if (c.kind == Conclusion.BUDGET) {
+                inferred[inferredIndex++] = BudgetFunctions.budgetInference(c.quality, c.complexity, nal);
+                continue;
+            }
+            final TruthValue truth = c.truth == Conclusion.NO_TRUTH ? null : new TruthValue(nal.narParameters).unpack(c.truth);
+            final BudgetValue budget = c.fixedBudget != null ? c.fixedBudget.clone() : inferred[c.budgetIndex];
+            switch (c.kind) {
+                case Conclusion.DOUBLE_PREMISE:
+                    nal.getTheNewStamp().setOccurrenceTime(c.occurrenceTime);
+                    nal.doublePremiseTask(c.term, truth, budget, c.temporalInduction, c.overlapAllowed, c.addToMemory);
+                    break;
+                case Conclusion.REVISED:
+                    nal.getTheNewStamp().setOccurrenceTime(c.occurrenceTime);
+                    nal.doublePremiseTaskRevised(c.term, truth, budget);
+                    break;
+                default:
+                    nal.singlePremiseTask(c.term, c.punctuation, truth, budget);
+            }
+        }
+    }
+
+    /**
+     * Premise pair: task sentence, belief sentence and the links they were selected by.
+     * The sentences are compared by content, exact truth and evidence since the belief is a projected copy.
+     */
+    public static final class Key {
+        private final Sentence task;
+        private final Sentence belief;
+        private final Term beliefLinkTarget;
+        private final short taskLinkType;
+        private final short beliefLinkType;
+        private final short[] taskLinkIndex;
+        private final short[] beliefLinkIndex;
+        private final int hash;
+
+        public Key(final Sentence task, final Sentence belief, final TaskLink tLink, final TermLink bLink) {
+            this.task = task;
+            this.belief = belief;
+            this.beliefLinkTarget = bLink.target;
+            this.taskLinkType = tLink.type;
+            this.beliefLinkType = bLink.type;
+            this.taskLinkIndex = tLink.index;
+            this.beliefLinkIndex = bLink.index;
+            int h = task.hashCode();
+            h = 31 * h + (belief == null ? 0 : belief.hashCode());
+            h = 31 * h + beliefLinkTarget.hashCode();
+            h = 31 * h + (taskLinkType << 8 | beliefLinkType);
+            h = 31 * h + Arrays.hashCode(taskLinkIndex);
+            h = 31 * h + Arrays.hashCode(beliefLinkIndex);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key k = (Key) obj;
+            return hash == k.hash && taskLinkType == k.taskLinkType && beliefLinkType == k.beliefLinkType &&
+                Arrays.equals(taskLinkIndex, k.taskLinkIndex) && Arrays.equals(beliefLinkIndex, k.beliefLinkIndex) &&
+                beliefLinkTarget.equals(k.beliefLinkTarget) && sameSentence(task, k.task) && sameSentence(belief, k.belief);
+        }
+
+        /* Sentence.equals tolerates truth differences below TRUTH_EPSILON, the conclusions don't */
+        private static boolean sameSentence(final Sentence a, final Sentence b) {
+            if (a == null || b == null) {
+                return a == b;
+            }
+            if (!a.equals(b)) {
+                return false;
+            }
+            if (a.truth == null || b.truth == null) {
+                return a.truth == b.truth;
+            }
+            return a.truth.getFrequency() == b.truth.getFrequency() && a.truth.getConfidence() == b.truth.getConfidence() &&
+                a.truth.getAnalytic() == b.truth.getAnalytic();
+        }
+    }
+
+    /**
+     * Conclusion of a premise pair, with the index of its inferred budget,
+     * or an inferred budget with the parameters of the budget function
+     */
+    public static final class Conclusion {
+        static final int DOUBLE_PREMISE = 0;
+        static final int REVISED = 1;
+        static final int SINGLE_PREMISE = 2;
+        static final int BUDGET = 3;
+        /** truth of questions and quests, no packed truth value has a NaN frequency */
+        static final long NO_TRUTH = -1L;
+
+        final int kind;
+        final Term term;
+        final char punctuation;
+        /** packed truth value, see TruthValue.pack */
+        final long truth;
+        final long occurrenceTime;
+        final boolean temporalInduction;
+        final boolean overlapAllowed;
+        final boolean addToMemory;
+        /** budget to use as it is, null if inferred */
+        final BudgetValue fixedBudget;
+        /** index of the inferred budget among the BUDGET entries */
+        final int budgetIndex;
+        final float quality;
+        final float complexity;
+
+        private Conclusion(final int kind, final Term term, final char punctuation, final TruthValue truth, final long occurrenceTime,
+                           final boolean temporalInduction, final boolean overlapAllowed, final boolean addToMemory,
+                           final BudgetValue fixedBudget, final int budgetIndex, final float quality, final float complexity) {
+            this.kind = kind;
+            this.term = term;
+            this.punctuation = punctuation;
+            this.truth = truth == null ? NO_TRUTH : truth.pack();
+            this.occurrenceTime = occurrenceTime;
+            this.temporalInduction = temporalInduction;
+            this.overlapAllowed = overlapAllowed;
+            this.addToMemory = addToMemory;
+            this.fixedBudget = fixedBudget;
+            this.budgetIndex = budgetIndex;
+            this.quality = quality;
+            this.complexity = complexity;
+        }
+    }
+
+    /**
+     * Records the conclusions of a premise pair while the rules are applied to it
+     */
+    public static final class Recording {
+        private final List<Conclusion> conclusions = new ArrayList<>();
+        private boolean cacheable = true;
+
+        /* budgets returned by budgetInference, with their parameters and values */
+        private final List<InferredBudget> inferred = new ArrayList<>();
+
+        /**
+         * The conclusions depend on more than the premise pair
+         */
+        public void notCacheable() {
+            cacheable = false;
+        }
+
+        public boolean isCacheable() {
+            return cacheable;
+        }
+
+        void budgetInferred(final float quality, final float complexity, final BudgetValue budget) {
+            inferred.add(new InferredBudget(quality, complexity, budget));
+            conclusions.add(new Conclusion(Conclusion.BUDGET, null, (char) 0, null, 0, false, false, false, null, 0, quality, complexity));
+        }
+
+        public void doublePremise(final Term term, final TruthValue truth, final BudgetValue budget, final long occurrenceTime,
+                                  final boolean temporalInduction, final boolean overlapAllowed, final boolean addToMemory) {
+            add(Conclusion.DOUBLE_PREMISE, term, (char) 0, truth, budget, occurrenceTime, temporalInduction, overlapAllowed, addToMemory);
+        }
+
+        public void revised(final Term term, final TruthValue truth, final BudgetValue budget, final long occurrenceTime) {
+            add(Conclusion.REVISED, term, (char) 0, truth, budget, occurrenceTime, false, false, true);
+        }
+
+        public void singlePremise(final Term term, final char punctuation, final TruthValue truth, final BudgetValue budget) {
+            add(Conclusion.SINGLE_PREMISE, term, punctuation, truth, budget, 0, false, false, true);
+        }
+
+        private void add(final int kind, final Term term, final char punctuation, final TruthValue truth, final BudgetValue budget, final long occurrenceTime,
+                         final boolean temporalInduction, final boolean overlapAllowed, final boolean addToMemory) {
+            if (term == null) { //nothing derived
+                return;
+            }
+            //replay the budget function only if the rule used its result unchanged
+            for (int i = inferred.size() - 1; i >= 0; i--) {
+                final InferredBudget b = inferred.get(i);
+                if (b.budget == budget && b.unchanged()) {
+                    conclusions.add(new Conclusion(kind, term, punctuation, truth, occurrenceTime, temporalInduction, overlapAllowed, addToMemory,
+                        null, i, 0, 0));
+                    return;
+                }
+            }
+            conclusions.add(new Conclusion(kind, term, punctuation, truth, occurrenceTime, temporalInduction, overlapAllowed, addToMemory,
+                budget.clone(), -1, 0, 0));
+        }
+
+        public Conclusion[] getConclusions() {
+            return conclusions.toArray(new Conclusion[0]);
+        }
+    }
+
+    private static final class InferredBudget {
+        final float quality;
+        final float complexity;
+        final BudgetValue budget;
+        final float priorityValue, durabilityValue, qualityValue;
+
+        InferredBudget(final float quality, final float complexity, final BudgetValue budget) {
+            this.quality = quality;
+            this.complexity = complexity;
+            this.budget = budget;
+            this.priorityValue = budget.getPriority();
+            this.durabilityValue = budget.getDurability();
+            this.qualityValue = budget.getQuality();
+        }
+
+        boolean unchanged() {
+            return budget.getPriority() == priorityValue && budget.getDurability() == durabilityValue && budget.getQuality() == qualityValue;
+        }
+    }
+}
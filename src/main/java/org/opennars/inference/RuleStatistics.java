@@ -0,0 +1,357 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.inference;
+
+import org.opennars.control.DerivationContext;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional instrumentation of the inference rule entry points:
+ * invocation counts, derived tasks, rejection reasons and latency histograms.
+ * <p>
+ * The calls of the entry points in SyllogisticRules, CompositionalRules, StructuralRules, LocalRules and TemporalRules
+ * are bracketed by enter/exit where RuleTables and the concept processing invoke them, so the rule bodies
+ * stay untouched; rules which a rule calls itself are attributed to the calling one.
+ * Derivations and rejections in DerivationContext are attributed to the innermost entry point which is active on the context.
+ * When disabled (default) enter/exit only check a flag.
+ */
+public final class RuleStatistics implements RuleStatisticsMXBean {
+
+    public static final String OBJECT_NAME = "org.opennars:type=RuleStatistics";
+
+    /** latency buckets, bucket i counts latencies in [2^i, 2^(i+1)) nanoseconds */
+    private static final int LATENCY_BUCKETS = 40;
+
+    private static volatile boolean enabled = false;
+
+    private static final Map<String, Rule> rules = new ConcurrentHashMap<>();
+
+    private static final RuleStatistics instance = new RuleStatistics();
+
+    private static ScheduledExecutorService dumper = null;
+    private static ScheduledFuture<?> dump = null;
+
+    private RuleStatistics() {
+    }
+
+    /**
+     * Recorded values of one rule entry point
+     */
+    public static final class Rule {
+        public final String name;
+        final LongAdder invocations = new LongAdder();
+        final LongAdder derived = new LongAdder();
+        final LongAdder latencySum = new LongAdder();
+        final Map<String, LongAdder> rejections = new ConcurrentHashMap<>();
+        final AtomicLongArray latency = new AtomicLongArray(LATENCY_BUCKETS);
+
+        Rule(final String name) {
+            this.name = name;
+        }
+
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        public long getDerived() {
+            return derived.sum();
+        }
+
+        public Map<String, Long> getRejections() {
+            final Map<String, Long> ret = new TreeMap<>();
+            rejections.forEach((reason, count) -> ret.put(reason, count.sum()));
+            return ret;
+        }
+
+        /**
+         * @param percentile in [0, 1]
+         * @return upper bound of the latency bucket in nanoseconds containing the percentile, 0 if not invoked yet
+         */
+        public long getLatencyPercentile(final double percentile) {
+            long total = 0;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                total += latency.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            final long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                seen += latency.get(i);
+                if (seen >= rank) {
+                    return 1L << (i + 1);
+                }
+            }
+            return 1L << LATENCY_BUCKETS;
+        }
+
+        public long getMeanLatency() {
+            final long n = invocations.sum();
+            return n == 0 ? 0 : latencySum.sum() / n;
+        }
+
+        void record(final long nanos) {
+            invocations.increment();
+            latencySum.add(nanos);
+            final int bucket = nanos <= 1 ? 0 : Math.min(LATENCY_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+            latency.incrementAndGet(bucket);
+        }
+
+        void reset() {
+            invocations.reset();
+            derived.reset();
+            latencySum.reset();
+            rejections.clear();
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                latency.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * Active invocation of a rule entry point, restores the enclosing one on exit
+     */
+    public static final class Probe {
+        final Rule rule;
+        final Probe enclosing;
+        final long start;
+
+        Probe(final Rule rule, final Probe enclosing, final long start) {
+            this.rule = rule;
+            this.enclosing = enclosing;
+            this.start = start;
+        }
+    }
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the recording, registers the MBean on enabling
+     */
+    public static void enable(final boolean enable) {
+        enabled = enable;
+        if (enable) {
+            registerMBean();
+        }
+    }
+
+    /**
+     * Called before a rule entry point is invoked, every enter is followed by an exit on the same context
+     *
+     * @param nal the derivation context the rule works on
+     * @param name name of the entry point
+     */
+    public static void enter(final DerivationContext nal, final String name) {
+        //an active probe is tracked to its exit even if the recording got disabled meanwhile
+        if (nal == null || (!enabled && nal.ruleProbe == null)) {
+            return;
+        }
+        final Rule rule = rule(name);
+        nal.ruleProbe = new Probe(rule, nal.ruleProbe, System.nanoTime());
+        nal.currentRule = rule;
+    }
+
+    /**
+     * Called after a rule entry point returned
+     *
+     * @param nal the derivation context the rule works on
+     */
+    public static void exit(final DerivationContext nal) {
+        final Probe probe = nal == null ? null : nal.ruleProbe;
+        if (probe == null) {
+            return;
+        }
+        probe.rule.record(System.nanoTime() - probe.start);
+        nal.ruleProbe = probe.enclosing;
+        nal.currentRule = probe.enclosing == null ? null : probe.enclosing.rule;
+    }
+
+    /**
+     * A task was derived by the active rule of the context
+     */
+    public static void derived(final DerivationContext nal) {
+        if (!enabled || nal.currentRule == null) {
+            return;
+        }
+        nal.currentRule.derived.increment();
+    }
+
+    /**
+     * A derived task of the active rule of the context was rejected
+     *
+     * @param reason the reason given to Memory.removeTask
+     */
+    public static void rejected(final DerivationContext nal, final String reason) {
+        if (!enabled || nal.currentRule == null) {
+            return;
+        }
+        nal.currentRule.rejections.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return the recorded values of the entry point, created at the first request
+     */
+    public static Rule rule(final String name) {
+        final Rule existing = rules.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        return rules.computeIfAbsent(name, Rule::new);
+    }
+
+    /**
+     * @return the recorded values of all entry points which were invoked since enabling, by name
+     */
+    public static Map<String, Rule> getRules() {
+        return new TreeMap<>(rules);
+    }
+
+    /**
+     * Writes the report periodically to the stream, replacing a previously started dump
+     *
+     * @param out stream to write to
+     * @param periodMilliseconds period of the dump, 0 stops it
+     */
+    public static synchronized void dumpPeriodically(final PrintStream out, final long periodMilliseconds) {
+        if (dump != null) {
+            dump.cancel(false);
+            dump = null;
+        }
+        if (periodMilliseconds <= 0) {
+            return;
+        }
+        if (dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "RuleStatistics dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        dump = dumper.scheduleAtFixedRate(() -> out.println(report()), periodMilliseconds, periodMilliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return table of the recorded values, one line per entry point
+     */
+    public static String report() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-50s %12s %10s %10s %10s %10s  %s%n", "rule", "invocations", "derived", "mean ns", "p50 ns", "p99 ns", "rejections"));
+        for (final Rule rule : getRules().values()) {
+            sb.append(String.format("%-50s %12d %10d %10d %10d %10d  %s%n", rule.name, rule.getInvocations(), rule.getDerived(),
+                rule.getMeanLatency(), rule.getLatencyPercentile(0.5), rule.getLatencyPercentile(0.99), rule.getRejections()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Clears all recorded values
+     */
+    public static void clear() {
+        for (final Rule rule : rules.values()) {
+            rule.reset();
+        }
+    }
+
+    /**
+     * Registers the statistics at the platform MBean server, does nothing if already registered
+     */
+    public static synchronized void registerMBean() {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(instance, name);
+            }
+        } catch (final JMException e) {
+            throw new IllegalStateException("Could not register the rule statistics MBean", e);
+        }
+    }
+
+    /* ----- RuleStatisticsMXBean ----- */
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(final boolean enable) {
+        enable(enable);
+    }
+
+    @Override
+    public Map<String, Long> getInvocations() {
+        final Map<String, Long> ret = new TreeMap<>();
+        rules.forEach((name, rule) -> ret.put(name, rule.getInvocations()));
+        return ret;
+    }
+
+    @Override
+    public Map<String, Long> getDerivations() {
+        final Map<String, Long> ret = new TreeMap<>();
+        rules.forEach((name, rule) -> ret.put(name, rule.getDerived()));
+        return ret;
+    }
+
+    @Override
+    public Map<String, Long> getRejections() {
+        final Map<String, Long> ret = new TreeMap<>();
+        rules.forEach((name, rule) -> rule.getRejections().forEach((reason, count) -> ret.put(name + ":" + reason, count)));
+        return ret;
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP99() {
+        final Map<String, Long> ret = new TreeMap<>();
+        rules.forEach((name, rule) -> ret.put(name, rule.getLatencyPercentile(0.99)));
+        return ret;
+    }
+
+    @Override
+    public String getReport() {
+        return report();
+    }
+
+    @Override
+    public void reset() {
+        clear();
+    }
+}
@@ -0,0 +1,52 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.inference;
+
+import java.util.Map;
+
+/**
+ * Management interface of the inference rule statistics
+ */
+public interface RuleStatisticsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /** invocations by rule entry point */
+    Map<String, Long> getInvocations();
+
+    /** derived tasks by rule entry point */
+    Map<String, Long> getDerivations();
+
+    /** rejected derivations by rule entry point and reason, keyed as rule:reason */
+    Map<String, Long> getRejections();
+
+    /** 99th latency percentile in nanoseconds by rule entry point */
+    Map<String, Long> getLatencyP99();
+
+    /** human readable table of all recorded values */
+    String getReport();
+
+    void reset();
+}
@@ -26,11 +26,18 @@ package org.opennars.inference;
 import org.opennars.control.DerivationContext;
 import org.opennars.entity.*;
 import org.opennars.io.Symbols;
+import org.opennars.io.Symbols.NativeOperator;
 import org.opennars.io.events.Events;
 import org.opennars.language.*;
 import org.opennars.operator.Operation;
 import org.opennars.storage.Memory;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
 import static org.opennars.io.Symbols.*;
 import static org.opennars.language.Statement.retOppositeSide;
 import static org.opennars.language.Terms.equalSubTermsInRespectToImageAndProduct;
@@ -103,7 +110,10 @@ public class RuleTables {
             
             nal.emit(Events.BeliefReason.class, belief, beliefTerm, taskTerm, nal);
             
-            if (LocalRules.match(task, belief, beliefConcept, nal)) { //new tasks resulted from the match, so return
+            RuleStatistics.enter(nal, "LocalRules.match");
+            final boolean matched = LocalRules.match(task, belief, beliefConcept, nal);
+            RuleStatistics.exit(nal);
+            if (matched) { //new tasks resulted from the match, so return
                 return;
             }
         }
@@ -120,139 +130,438 @@ public class RuleTables {
             return;
         }*/
 
-        applyRuleTable(tLink, bLink, nal, task, taskSentence, taskTerm, beliefTerm, belief);
-    }
-
-    private static void applyRuleTable(TaskLink tLink, TermLink bLink, DerivationContext nal, Task task, Sentence taskSentence, Term taskTerm, Term beliefTerm, Sentence belief) {
-        final short tIndex = tLink.getIndex(0);
-        short bIndex = bLink.getIndex(0);
-        switch (tLink.type) {          // dispatch first by TaskLink type
-            case TermLink.SELF:
-                switch (bLink.type) {
-                    case TermLink.COMPONENT:
-                        compoundAndSelf((CompoundTerm) taskTerm, beliefTerm, true, bIndex,  nal);
-                        break;
-                    case TermLink.COMPOUND:
-                        compoundAndSelf((CompoundTerm) beliefTerm, taskTerm, false, bIndex, nal);
-                        break;
-                    case TermLink.COMPONENT_STATEMENT:
-                        if (belief != null) {
-                            if (taskTerm instanceof Statement) {
-                                SyllogisticRules.detachment(taskSentence, belief, bIndex, nal);
-                            }
-                        } //else {
-                        if(taskSentence.term instanceof Inheritance || taskSentence.term instanceof Similarity) {
-                            StructuralRules.transformNegation((CompoundTerm) Negation.make(taskSentence.term), nal);
-                        }
-                        goalFromQuestion(task, taskTerm, nal);
-                        //}
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            SyllogisticRules.detachment(belief, taskSentence, bIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPONENT_CONDITION:
-                        if ((belief != null) && (taskTerm instanceof Implication)) {
-                            bIndex = bLink.getIndex(1);
-                            SyllogisticRules.conditionalDedInd(task.sentence,(Implication) taskTerm, bIndex, beliefTerm, tIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if ((belief != null) && (beliefTerm instanceof Implication)) {
-                            bIndex = bLink.getIndex(1);
-                            SyllogisticRules.conditionalDedInd(belief,(Implication) beliefTerm, bIndex, taskTerm, tIndex, nal);
-                        }
-                        break;
+        applyRuleTable(tLink, bLink, nal, task, taskTerm, beliefTerm, belief);
+    }
+
+    private static void applyRuleTable(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+        if (tLink.type >= LINK_TYPES || bLink.type >= LINK_TYPES) {
+            return;
+        }
+        final PremiseRule rule = dispatch[dispatchIndex(tLink.type, bLink.type,
+            termCategory[taskTerm.operator().ordinal()], termCategory[beliefTerm.operator().ordinal()],
+            figureSlot(tLink.getIndex(0), bLink.getIndex(0)))];
+        if (rule == null) {
+            return;
+        }
+        rule.hits.increment();
+        final PremiseCache cache = nal.memory.premiseCache();
+        if (cache == null || nal.premiseRecording != null || !PremiseCache.cacheable(task.sentence, belief)) {
+            rule.body.apply(tLink, bLink, task, belief, taskTerm, beliefTerm, nal);
+            return;
+        }
+        final PremiseCache.Key key = new PremiseCache.Key(task.sentence, belief, tLink, bLink);
+        final PremiseCache.Conclusion[] cached = cache.get(key);
+        if (cached != null) {
+            PremiseCache.replay(cached, nal);
+            return;
+        }
+        final PremiseCache.Recording recording = new PremiseCache.Recording();
+        nal.premiseRecording = recording;
+        try {
+            rule.body.apply(tLink, bLink, task, belief, taskTerm, beliefTerm, nal);
+        } finally {
+            nal.premiseRecording = null;
+        }
+        if (recording.isCacheable()) {
+            cache.put(key, recording.getConclusions());
+        }
+    }
+
+    /* ----- premise dispatch table ----- */
+
+    /**
+     * Body of a rule entry point, the task and belief are the current ones of the derivation context
+     */
+    private interface PremiseRuleBody {
+        void apply(TaskLink tLink, TermLink bLink, Task task, Sentence belief, Term taskTerm, Term beliefTerm, DerivationContext nal);
+    }
+
+    /**
+     * Rule entry point referenced by the dispatch table, counts how often it got selected
+     */
+    public static final class PremiseRule {
+        public final String name;
+        private final PremiseRuleBody body;
+        private final LongAdder hits = new LongAdder();
+
+        private PremiseRule(final String name, final PremiseRuleBody body) {
+            this.name = name;
+            this.body = body;
+        }
+
+        /**
+         * @return how often the rule was selected for a premise pair
+         */
+        public long getHits() {
+            return hits.sum();
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + getHits();
+        }
+    }
+
+    /* term categories used as operator index of the dispatch table */
+    private static final int TERM_ATOM = 0;
+    private static final int TERM_COMPOUND = 1;
+    private static final int TERM_INHERITANCE = 2;
+    private static final int TERM_SIMILARITY = 3;
+    private static final int TERM_IMPLICATION = 4;
+    private static final int TERM_EQUIVALENCE = 5;
+    private static final int TERM_CATEGORIES = 6;
+
+    /** link types are in [SELF, TEMPORAL] */
+    private static final int LINK_TYPES = TermLink.TEMPORAL + 1;
+    /** unknown figure, followed by the figures 11, 12, 21, 22 */
+    private static final int FIGURE_SLOTS = 5;
+
+    /** term category by ordinal of the operator of the term */
+    private static final int[] termCategory = new int[NativeOperator.values().length];
+    /** rule entry point by (task link type, belief link type, task term category, belief term category, figure) */
+    private static final PremiseRule[] dispatch = new PremiseRule[LINK_TYPES * LINK_TYPES * TERM_CATEGORIES * TERM_CATEGORIES * FIGURE_SLOTS];
+    /** all rule entry points of the dispatch table by name */
+    private static final Map<String, PremiseRule> premiseRules = new LinkedHashMap<>();
+
+    static {
+        for (final NativeOperator op : NativeOperator.values()) {
+            final int category;
+            switch (op) {
+                case ATOM: category = TERM_ATOM; break;
+                case INHERITANCE: category = TERM_INHERITANCE; break;
+                case SIMILARITY: category = TERM_SIMILARITY; break;
+                case IMPLICATION:
+                case IMPLICATION_AFTER:
+                case IMPLICATION_WHEN:
+                case IMPLICATION_BEFORE: category = TERM_IMPLICATION; break;
+                case EQUIVALENCE:
+                case EQUIVALENCE_AFTER:
+                case EQUIVALENCE_WHEN: category = TERM_EQUIVALENCE; break;
+                default: category = TERM_COMPOUND;
+            }
+            termCategory[op.ordinal()] = category;
+        }
+        compileRuleTable();
+    }
+
+    private static int dispatchIndex(final int tType, final int bType, final int tCategory, final int bCategory, final int figureSlot) {
+        return (((tType * LINK_TYPES + bType) * TERM_CATEGORIES + tCategory) * TERM_CATEGORIES + bCategory) * FIGURE_SLOTS + figureSlot;
+    }
+
+    /**
+     * @param tIndex first index of the task link
+     * @param bIndex first index of the belief link
+     * @return slot of the figure (tIndex+1)*10+(bIndex+1), or 0 if the indices don't form one
+     */
+    private static int figureSlot(final short tIndex, final short bIndex) {
+        if (tIndex < 0 || tIndex > 1 || bIndex < 0 || bIndex > 1) {
+            return 0;
+        }
+        return 1 + tIndex * 2 + bIndex;
+    }
+
+    private static boolean isStatement(final int category) {
+        return category >= TERM_INHERITANCE;
+    }
+
+    /**
+     * @return the rule entry point with the name, created at the first request
+     */
+    private static PremiseRule rule(final String name, final PremiseRuleBody body) {
+        return premiseRules.computeIfAbsent(name, n -> new PremiseRule(n, body));
+    }
+
+    /** registers a rule for all figures of the given link types and term categories */
+    private static void put(final short tType, final short bType, final int tCategory, final int bCategory, final PremiseRule rule) {
+        for (int slot = 0; slot < FIGURE_SLOTS; slot++) {
+            dispatch[dispatchIndex(tType, bType, tCategory, bCategory, slot)] = rule;
+        }
+    }
+
+    /**
+     * Compiles the decision tree over link types and term classes of the premises into the dispatch table,
+     * cells which can't derive anything stay null
+     */
+    private static void compileRuleTable() {
+        final PremiseRule compoundAndSelfTask = rule("compoundAndSelf(task)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) ->
+            compoundAndSelf((CompoundTerm) taskTerm, beliefTerm, true, bLink.getIndex(0), nal));
+        final PremiseRule compoundAndSelfBelief = rule("compoundAndSelf(belief)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) ->
+            compoundAndSelf((CompoundTerm) beliefTerm, taskTerm, false, bLink.getIndex(0), nal));
+        final PremiseRule detachmentAndGoalFromQuestion = rule("detachment+goalFromQuestion", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                RuleStatistics.enter(nal, "SyllogisticRules.detachment");
+                SyllogisticRules.detachment(task.sentence, belief, bLink.getIndex(0), nal);
+                RuleStatistics.exit(nal);
+            }
+            goalFromQuestion(task, taskTerm, nal);
+        });
+        final PremiseRule detachmentAndTransformNegation = rule("detachment+transformNegation", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                RuleStatistics.enter(nal, "SyllogisticRules.detachment");
+                SyllogisticRules.detachment(task.sentence, belief, bLink.getIndex(0), nal);
+                RuleStatistics.exit(nal);
+            }
+            RuleStatistics.enter(nal, "StructuralRules.transformNegation");
+            StructuralRules.transformNegation((CompoundTerm) Negation.make(taskTerm), nal);
+            RuleStatistics.exit(nal);
+        });
+        final PremiseRule detachmentBelief = rule("detachment(belief)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                RuleStatistics.enter(nal, "SyllogisticRules.detachment");
+                SyllogisticRules.detachment(belief, task.sentence, bLink.getIndex(0), nal);
+                RuleStatistics.exit(nal);
+            }
+        });
+        final PremiseRule conditionalDedIndTask = rule("conditionalDedInd(task)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                RuleStatistics.enter(nal, "SyllogisticRules.conditionalDedInd");
+                SyllogisticRules.conditionalDedInd(task.sentence, (Implication) taskTerm, bLink.getIndex(1), beliefTerm, tLink.getIndex(0), nal);
+                RuleStatistics.exit(nal);
+            }
+        });
+        final PremiseRule conditionalDedIndBelief = rule("conditionalDedInd(belief)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                RuleStatistics.enter(nal, "SyllogisticRules.conditionalDedInd");
+                SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bLink.getIndex(1), taskTerm, tLink.getIndex(0), nal);
+                RuleStatistics.exit(nal);
+            }
+        });
+        final PremiseRule compoundAndCompound = rule("compoundAndCompound", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) ->
+            compoundAndCompound((CompoundTerm) taskTerm, (CompoundTerm) beliefTerm, tLink.getIndex(0), bLink.getIndex(0), nal));
+        final PremiseRule compoundAndStatementTask = rule("compoundAndStatement(task)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) ->
+            compoundAndStatement((CompoundTerm) taskTerm, tLink.getIndex(0), (Statement) beliefTerm, bLink.getIndex(0), beliefTerm, nal));
+        final PremiseRule detachmentWithVarOrConditional = rule("detachmentWithVar/conditionalDedInd", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief == null) {
+                return;
+            }
+            final short bIndex = bLink.getIndex(0);
+            final Term[] u = nal.unifier(beliefTerm, taskTerm);
+            if (Variables.unify(VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true)) { //only secure place that
+                final Sentence newBelief = belief.clone(u[0]);                                                //allows partial match
+                final Sentence newTaskSentence = task.sentence.clone(u[1]);
+                detachmentWithVar(newBelief, newTaskSentence, bIndex, false, nal);
+            } else {
+                RuleStatistics.enter(nal, "SyllogisticRules.conditionalDedInd");
+                SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bIndex, taskTerm, -1, nal);
+                RuleStatistics.exit(nal);
+            }
+        });
+        final PremiseRule conditionalAna = rule("conditionalAna", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                RuleStatistics.enter(nal, "SyllogisticRules.conditionalAna");
+                SyllogisticRules.conditionalAna((Equivalence) beliefTerm, bLink.getIndex(0), taskTerm, -1, nal);
+                RuleStatistics.exit(nal);
+            }
+        });
+        final PremiseRule componentAndStatement = rule("componentAndStatement", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            final short tIndex = tLink.getIndex(0);
+            final short bIndex = bLink.getIndex(0);
+            goalFromWantBelief(task, tIndex, bIndex, taskTerm, nal, beliefTerm);
+            componentAndStatement((CompoundTerm) nal.getCurrentTerm(), bIndex, (Statement) taskTerm, tIndex, nal);
+        });
+        final PremiseRule compoundAndStatementBelief = rule("compoundAndStatement(belief)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) ->
+            compoundAndStatement((CompoundTerm) beliefTerm, bLink.getIndex(0), (Statement) taskTerm, tLink.getIndex(0), beliefTerm, nal));
+        final PremiseRule syllogisms = rule("syllogisms", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                syllogisms(tLink, bLink, taskTerm, beliefTerm, nal);
+            }
+        });
+        final PremiseRule conditionalDedIndWithVarBelief = rule("conditionalDedIndWithVar(belief)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                conditionalDedIndWithVar(belief, (Implication) beliefTerm, bLink.getIndex(1), (Statement) taskTerm, tLink.getIndex(0), nal);
+            }
+        });
+        final PremiseRule detachmentWithVarTask = rule("detachmentWithVar(task)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                detachmentWithVar(task.sentence, belief, tLink.getIndex(0), nal);
+            }
+        });
+        final PremiseRule conditionalDedIndWithVarTask = rule("conditionalDedIndWithVar(task)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief == null) {
+                return;
+            }
+            final short tIndex = tLink.getIndex(0);
+            final short bIndex = bLink.getIndex(0);
+            final Term subj = ((Statement) taskTerm).getSubject();
+            if (subj instanceof Negation) {
+                if (task.sentence.isJudgment()) {
+                    componentAndStatement((CompoundTerm) subj, bIndex, (Statement) taskTerm, tIndex, nal);
+                } else {
+                    componentAndStatement((CompoundTerm) subj, tIndex, (Statement) beliefTerm, bIndex, nal);
                 }
-                break;
-            case TermLink.COMPOUND:
-                switch (bLink.type) {
-                    case TermLink.COMPOUND:
-                        if(taskTerm instanceof CompoundTerm && beliefTerm instanceof CompoundTerm) {
-                            compoundAndCompound((CompoundTerm) taskTerm, (CompoundTerm) beliefTerm, tIndex, bIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        compoundAndStatement((CompoundTerm) taskTerm, tIndex, (Statement) beliefTerm, bIndex, beliefTerm, nal);
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if (belief != null) {
-                            if (beliefTerm instanceof Implication) {
-                                final Term[] u = new Term[] { beliefTerm, taskTerm };
-                                if (Variables.unify(VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true)) { //only secure place that
-                                    final Sentence newBelief = belief.clone(u[0]);                                                //allows partial match
-                                    final Sentence newTaskSentence = taskSentence.clone(u[1]);
-                                    detachmentWithVar(newBelief, newTaskSentence, bIndex, false, nal);
-                                } else {
-                                    SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bIndex, taskTerm, -1, nal);
-                                }
-
-                            } else if (beliefTerm instanceof Equivalence) {
-                                SyllogisticRules.conditionalAna((Equivalence) beliefTerm, bIndex, taskTerm, -1, nal);
-                            }
-                        }
-                        break;
+            } else {
+                conditionalDedIndWithVar(task.sentence, (Implication) taskTerm, tIndex, (Statement) beliefTerm, bIndex, nal);
+            }
+        });
+
+        for (int tCategory = 0; tCategory < TERM_CATEGORIES; tCategory++) {
+            for (int bCategory = 0; bCategory < TERM_CATEGORIES; bCategory++) {
+                final boolean taskCompound = tCategory != TERM_ATOM;
+                final boolean beliefCompound = bCategory != TERM_ATOM;
+
+                // dispatch first by TaskLink type
+                // SELF
+                put(TermLink.SELF, TermLink.COMPONENT, tCategory, bCategory, compoundAndSelfTask);
+                put(TermLink.SELF, TermLink.COMPOUND, tCategory, bCategory, compoundAndSelfBelief);
+                if (tCategory == TERM_INHERITANCE || tCategory == TERM_SIMILARITY) {
+                    put(TermLink.SELF, TermLink.COMPONENT_STATEMENT, tCategory, bCategory, detachmentAndTransformNegation);
+                } else if (isStatement(tCategory)) { //goalFromQuestion only applies to <a =/> b>? and <a </> b>?
+                    put(TermLink.SELF, TermLink.COMPONENT_STATEMENT, tCategory, bCategory, detachmentAndGoalFromQuestion);
                 }
-                break;
-            case TermLink.COMPOUND_STATEMENT:
-                switch (bLink.type) {
-                    case TermLink.COMPONENT:
-                        if (taskTerm instanceof Statement) {
-                            goalFromWantBelief(task, tIndex, bIndex, taskTerm, nal, beliefTerm);
-                            componentAndStatement((CompoundTerm) nal.getCurrentTerm(), bIndex, (Statement) taskTerm, tIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND:
-                        if (taskTerm instanceof Statement && beliefTerm instanceof CompoundTerm) {
-                            compoundAndStatement((CompoundTerm) beliefTerm, bIndex, (Statement) taskTerm, tIndex, beliefTerm, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            syllogisms(tLink, bLink, taskTerm, beliefTerm, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if (belief != null) {
-                            bIndex = bLink.getIndex(1);
-                            if ((taskTerm instanceof Statement) && (beliefTerm instanceof Implication)) {
-                                conditionalDedIndWithVar(belief, (Implication) beliefTerm, bIndex, (Statement) taskTerm, tIndex, nal);
-                            }
-                        }
-                        break;
+                put(TermLink.SELF, TermLink.COMPOUND_STATEMENT, tCategory, bCategory, detachmentBelief);
+                if (tCategory == TERM_IMPLICATION) {
+                    put(TermLink.SELF, TermLink.COMPONENT_CONDITION, tCategory, bCategory, conditionalDedIndTask);
                 }
-                break;
-            case TermLink.COMPOUND_CONDITION:
-                switch (bLink.type) {
-                      case TermLink.COMPOUND:
-                        if (belief != null) {
-                            detachmentWithVar(taskSentence, belief, tIndex, nal);
-                        }
-                        break;
-
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            if (taskTerm instanceof Implication) // TODO maybe put instanceof test within conditionalDedIndWithVar()
-                            {
-                                final Term subj = ((Statement) taskTerm).getSubject();
-                                if (subj instanceof Negation) {
-                                    if (taskSentence.isJudgment()) {
-                                        componentAndStatement((CompoundTerm) subj, bIndex, (Statement) taskTerm, tIndex, nal);
-                                    } else {
-                                        componentAndStatement((CompoundTerm) subj, tIndex, (Statement) beliefTerm, bIndex, nal);
-                                    }
-                                } else {
-                                    conditionalDedIndWithVar(task.sentence, (Implication) taskTerm, tIndex, (Statement) beliefTerm, bIndex, nal);
-                                }
-                            }
-                            break;
-                        }
-                        break;
+                if (bCategory == TERM_IMPLICATION) {
+                    put(TermLink.SELF, TermLink.COMPOUND_CONDITION, tCategory, bCategory, conditionalDedIndBelief);
+                }
+
+                // COMPOUND
+                if (taskCompound && beliefCompound) {
+                    put(TermLink.COMPOUND, TermLink.COMPOUND, tCategory, bCategory, compoundAndCompound);
+                }
+                put(TermLink.COMPOUND, TermLink.COMPOUND_STATEMENT, tCategory, bCategory, compoundAndStatementTask);
+                if (bCategory == TERM_IMPLICATION) {
+                    put(TermLink.COMPOUND, TermLink.COMPOUND_CONDITION, tCategory, bCategory, detachmentWithVarOrConditional);
+                } else if (bCategory == TERM_EQUIVALENCE) {
+                    put(TermLink.COMPOUND, TermLink.COMPOUND_CONDITION, tCategory, bCategory, conditionalAna);
+                }
+
+                // COMPOUND_STATEMENT
+                if (isStatement(tCategory)) {
+                    put(TermLink.COMPOUND_STATEMENT, TermLink.COMPONENT, tCategory, bCategory, componentAndStatement);
+                    if (beliefCompound) {
+                        put(TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND, tCategory, bCategory, compoundAndStatementBelief);
+                    }
+                    if (bCategory == TERM_IMPLICATION) {
+                        put(TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND_CONDITION, tCategory, bCategory, conditionalDedIndWithVarBelief);
+                    }
+                }
+                put(TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND_STATEMENT, tCategory, bCategory, syllogisms);
+                compileSyllogisms(tCategory, bCategory);
+
+                // COMPOUND_CONDITION
+                put(TermLink.COMPOUND_CONDITION, TermLink.COMPOUND, tCategory, bCategory, detachmentWithVarTask);
+                if (tCategory == TERM_IMPLICATION) {
+                    put(TermLink.COMPOUND_CONDITION, TermLink.COMPOUND_STATEMENT, tCategory, bCategory, conditionalDedIndWithVarTask);
                 }
+            }
         }
     }
 
+    /**
+     * Resolves the syllogisms meta-table for premises of known categories and figure,
+     * the figure slot 0 stays at the generic syllogisms rule
+     */
+    private static void compileSyllogisms(final int tCategory, final int bCategory) {
+        for (int slot = 1; slot < FIGURE_SLOTS; slot++) {
+            final int tIndex = (slot - 1) / 2;
+            final int bIndex = (slot - 1) % 2;
+            final int figureTB = (tIndex + 1) * 10 + (bIndex + 1);
+            final int figureBT = (bIndex + 1) * 10 + (tIndex + 1);
+
+            PremiseRule rule = null;
+            switch (tCategory) {
+                case TERM_INHERITANCE:
+                    if (bCategory == TERM_INHERITANCE) {
+                        rule = asymmetricAsymmetricRule(true, figureTB);
+                    } else if (bCategory == TERM_SIMILARITY) {
+                        rule = asymmetricSymmetricRule(true, figureTB);
+                    } else {
+                        rule = rule("detachmentWithVar(belief)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+                            if (belief != null) {
+                                detachmentWithVar(belief, task.sentence, bLink.getIndex(0), nal);
+                            }
+                        });
+                    }
+                    break;
+                case TERM_SIMILARITY:
+                    if (bCategory == TERM_INHERITANCE) {
+                        rule = asymmetricSymmetricRule(false, figureBT);
+                    } else if (bCategory == TERM_SIMILARITY) {
+                        rule = symmetricSymmetricRule(figureBT);
+                    } else if (bCategory == TERM_IMPLICATION) {
+                        //Bridge to higher order statements:
+                        rule = asymmetricSymmetricRule(false, figureTB);
+                    } else if (bCategory == TERM_EQUIVALENCE) {
+                        //Bridge to higher order statements:
+                        rule = symmetricSymmetricRule(figureTB);
+                    }
+                    break;
+                case TERM_IMPLICATION:
+                    if (bCategory == TERM_IMPLICATION) {
+                        rule = asymmetricAsymmetricRule(true, figureTB);
+                    } else if (bCategory == TERM_EQUIVALENCE) {
+                        rule = asymmetricSymmetricRule(true, figureTB);
+                    } else if (bCategory == TERM_INHERITANCE) {
+                        rule = detachmentWithVarTaskRule();
+                    } else if (bCategory == TERM_SIMILARITY) {
+                        //Bridge to higher order statements:
+                        rule = asymmetricSymmetricRule(true, figureTB);
+                    }
+                    break;
+                case TERM_EQUIVALENCE:
+                    if (bCategory == TERM_IMPLICATION) {
+                        rule = asymmetricSymmetricRule(false, figureBT);
+                    } else if (bCategory == TERM_EQUIVALENCE) {
+                        rule = symmetricSymmetricRule(figureBT);
+                    } else if (bCategory == TERM_INHERITANCE) {
+                        rule = detachmentWithVarTaskRule();
+                    } else if (bCategory == TERM_SIMILARITY) {
+                        //Bridge to higher order statements:
+                        rule = symmetricSymmetricRule(figureTB);
+                    }
+                    break;
+            }
+            dispatch[dispatchIndex(TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND_STATEMENT, tCategory, bCategory, slot)] = rule;
+        }
+    }
+
+    /** @param taskFirst whether the task is the first (asymmetric) premise */
+    private static PremiseRule asymmetricAsymmetricRule(final boolean taskFirst, final int figure) {
+        return rule("asymmetricAsymmetric/" + figure, (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                asymmetricAsymmetric(task.sentence, belief, figure, nal);
+            }
+        });
+    }
+
+    /** @param taskAsymmetric whether the task is the asymmetric premise */
+    private static PremiseRule asymmetricSymmetricRule(final boolean taskAsymmetric, final int figure) {
+        return rule("asymmetricSymmetric" + (taskAsymmetric ? "(task)/" : "(belief)/") + figure, (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                if (taskAsymmetric) {
+                    asymmetricSymmetric(task.sentence, belief, figure, nal);
+                } else {
+                    asymmetricSymmetric(belief, task.sentence, figure, nal);
+                }
+            }
+        });
+    }
+
+    private static PremiseRule symmetricSymmetricRule(final int figure) {
+        return rule("symmetricSymmetric/" + figure, (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                symmetricSymmetric(belief, task.sentence, figure, nal);
+            }
+        });
+    }
+
+    private static PremiseRule detachmentWithVarTaskRule() {
+        return rule("detachmentWithVar(task)", (tLink, bLink, task, belief, taskTerm, beliefTerm, nal) -> {
+            if (belief != null) {
+                detachmentWithVar(task.sentence, belief, tLink.getIndex(0), nal);
+            }
+        });
+    }
+
+    /**
+     * @return the rule entry points of the dispatch table with their hit counts, for profiling
+     */
+    public static Collection<PremiseRule> getPremiseRules() {
+        return Collections.unmodifiableCollection(premiseRules.values());
+    }
+
     public static void goalFromWantBelief(final Task task, final short tIndex, final short bIndex, final Term taskTerm, final DerivationContext nal, final Term beliefTerm) {
         if(task.sentence.isJudgment() && tIndex == 0 && bIndex == 1 && taskTerm instanceof Operation) {
             final Operation op = (Operation) taskTerm;
@@ -428,7 +737,7 @@ public class RuleTables {
         Statement beliefStatement = (Statement) belief.term;
         
 
-        final Term[] u = new Term[] { taskStatement, beliefStatement };
+        final Term[] u = nal.unifier(taskStatement, beliefStatement);
 
         final Statement.EnumStatementSide figureLeft = retSideFromFigure(figure, EnumFigureSide.LEFT);
         final Statement.EnumStatementSide figureRight = retSideFromFigure(figure, EnumFigureSide.RIGHT);
@@ -450,28 +759,47 @@ public class RuleTables {
         switch (figure) {
             case 11: // induction
             {
+                RuleStatistics.enter(nal, "SyllogisticRules.abdIndCom");
                 final boolean sensational = SyllogisticRules.abdIndCom(beliefStatement.getPredicate(), taskStatement.getPredicate(), taskSentence, belief, figure, nal);
+                RuleStatistics.exit(nal);
                 if (sensational) {
                     return;
                 }
+                RuleStatistics.enter(nal, "CompositionalRules.composeCompound");
                 CompositionalRules.composeCompound(taskStatement, beliefStatement, 0, nal);
+                RuleStatistics.exit(nal);
                 //if(taskSentence.getOccurenceTime()==Stamp.ETERNAL && belief.getOccurenceTime()==Stamp.ETERNAL)
+                RuleStatistics.enter(nal, "CompositionalRules.introVarOuter");
                 CompositionalRules.introVarOuter(taskStatement, beliefStatement, 0, nal);//introVarImage(taskContent, beliefContent, index, memory);
+                RuleStatistics.exit(nal);
+                RuleStatistics.enter(nal, "CompositionalRules.eliminateVariableOfConditionAbductive");
                 CompositionalRules.eliminateVariableOfConditionAbductive(figure, taskSentence, belief, nal);
+                RuleStatistics.exit(nal);
             }
             break;
             case 22: // abduction
             {
-                if (!SyllogisticRules.conditionalAbd(taskStatement.getSubject(), beliefStatement.getSubject(), taskStatement, beliefStatement, nal)) {         // if conditional abduction, skip the following
+                RuleStatistics.enter(nal, "SyllogisticRules.conditionalAbd");
+                final boolean conditionalAbduction = SyllogisticRules.conditionalAbd(taskStatement.getSubject(), beliefStatement.getSubject(), taskStatement, beliefStatement, nal);
+                RuleStatistics.exit(nal);
+                if (!conditionalAbduction) {         // if conditional abduction, skip the following
+                    RuleStatistics.enter(nal, "SyllogisticRules.abdIndCom");
                     final boolean sensational = SyllogisticRules.abdIndCom(taskStatement.getSubject(), beliefStatement.getSubject(), taskSentence, belief, figure, nal);
+                    RuleStatistics.exit(nal);
                     if(sensational) {
                         return;
                     }
+                    RuleStatistics.enter(nal, "CompositionalRules.composeCompound");
                     CompositionalRules.composeCompound(taskStatement, beliefStatement, 1, nal);
+                    RuleStatistics.exit(nal);
+                    RuleStatistics.enter(nal, "CompositionalRules.introVarOuter");
                     CompositionalRules.introVarOuter(taskStatement, beliefStatement, 1, nal);// introVarImage(taskContent, beliefContent, index, memory);
+                    RuleStatistics.exit(nal);
                 }
 
+                RuleStatistics.enter(nal, "CompositionalRules.eliminateVariableOfConditionAbductive");
                 CompositionalRules.eliminateVariableOfConditionAbductive(figure,taskSentence,belief,nal);
+                RuleStatistics.exit(nal);
             }
             break;
 
@@ -483,10 +811,14 @@ public class RuleTables {
             t1 = isDeduction ? beliefStatement.getSubject() : taskStatement.getSubject();
             t2 = isDeduction ? taskStatement.getPredicate() : beliefStatement.getPredicate();
 
-            if (Variables.unify(VAR_QUERY, t1, t2, new Term[]{taskStatement, beliefStatement})) {
+            if (Variables.unify(VAR_QUERY, t1, t2, nal.unifier(taskStatement, beliefStatement))) {
+                RuleStatistics.enter(nal, "LocalRules.matchReverse");
                 LocalRules.matchReverse(nal);
+                RuleStatistics.exit(nal);
             } else {
+                RuleStatistics.enter(nal, "SyllogisticRules.dedExe");
                 SyllogisticRules.dedExe(t1, t2, taskSentence, belief, nal);
+                RuleStatistics.exit(nal);
             }
 
             break;
@@ -511,7 +843,7 @@ public class RuleTables {
         final Statement.EnumStatementSide figureLeft = retSideFromFigure(figure, EnumFigureSide.LEFT);
         final Statement.EnumStatementSide figureRight = retSideFromFigure(figure, EnumFigureSide.RIGHT);
 
-        final Term[] u = new Term[] { asymSt, symSt };
+        final Term[] u = nal.unifier(asymSt, symSt);
         if (!Variables.unify(VAR_INDEPENDENT, asymSt.retBySide(figureLeft), symSt.retBySide(figureRight), u)) {
             return;
         }
@@ -522,17 +854,23 @@ public class RuleTables {
         final Term t2 = symSt.retBySide(retOppositeSide(figureRight));
 
         if (Variables.unify(VAR_QUERY, t1, t2, u)) {
+            RuleStatistics.enter(nal, "LocalRules.matchAsymSym");
             LocalRules.matchAsymSym(asym, sym, figure, nal);
+            RuleStatistics.exit(nal);
         } else {
             switch (figure) {
                 case 11:
                 case 12:
+                RuleStatistics.enter(nal, "SyllogisticRules.analogy");
                 SyllogisticRules.analogy(t2, t1, asym, sym, figure, nal);
+                RuleStatistics.exit(nal);
                 break;
 
                 case 21:
                 case 22:
+                RuleStatistics.enter(nal, "SyllogisticRules.analogy");
                 SyllogisticRules.analogy(t1, t2, asym, sym, figure, nal);
+                RuleStatistics.exit(nal);
                 break;
             }
         }
@@ -595,7 +933,7 @@ public class RuleTables {
         Term rt1 = s1.retBySide(retOppositeSide(figureLeft));
         Term rt2 = s2.retBySide(retOppositeSide(figureRight));
         
-        final Term[] u = new Term[] { s1, s2 };
+        final Term[] u = nal.unifier(s1, s2);
         if (Variables.unify(VAR_INDEPENDENT, ut1, ut2, u)) {
             //recalculate rt1, rt2 from above:
             switch (figure) {
@@ -605,10 +943,14 @@ public class RuleTables {
                 case 22: rt1 = s1.getSubject();     rt2 = s2.getSubject();   break;
             }
             
+            RuleStatistics.enter(nal, "SyllogisticRules.resemblance");
             SyllogisticRules.resemblance(rt1, rt2, belief, taskSentence, figure, nal);
+            RuleStatistics.exit(nal);
 
+            RuleStatistics.enter(nal, "CompositionalRules.eliminateVariableOfConditionAbductive");
             CompositionalRules.eliminateVariableOfConditionAbductive(
                     figure, taskSentence, belief, nal);
+            RuleStatistics.exit(nal);
             
         }
 
@@ -643,22 +985,32 @@ public class RuleTables {
         final Term content = subSentence.term;
         if (nal.getCurrentBelief() != null) {
             
-            final Term[] u = new Term[] { statement, content };
+            final Term[] u = nal.unifier(statement, content);
             
             if (!component.hasVarIndep() && !component.hasVarDep()) { //because of example: <<(*,w1,#2) --> [good]> ==> <w1 --> TRANSLATE>>. <(*,w1,w2) --> [good]>.
+                RuleStatistics.enter(nal, "SyllogisticRules.detachment");
                 SyllogisticRules.detachment(mainSentence, subSentence, index, checkTermAgain, nal);
+                RuleStatistics.exit(nal);
             } else if (Variables.unify(VAR_INDEPENDENT, component, content, u)) { //happens through syllogisms
                 mainSentence = mainSentence.clone(u[0]);
                 subSentence = subSentence.clone(u[1]);
+                RuleStatistics.enter(nal, "SyllogisticRules.detachment");
                 SyllogisticRules.detachment(mainSentence, subSentence, index, false, nal);
+                RuleStatistics.exit(nal);
             } else if ((statement instanceof Implication) && (statement.getPredicate() instanceof Statement) && (nal.getCurrentTask().sentence.isJudgment())) {
                 final Statement s2 = (Statement) statement.getPredicate();
                 if ((content instanceof Statement) && (s2.getSubject().equals(((Statement) content).getSubject()))) {
+                    RuleStatistics.enter(nal, "CompositionalRules.introVarInner");
                     CompositionalRules.introVarInner((Statement) content, s2, statement, nal);
+                    RuleStatistics.exit(nal);
                 }
+                RuleStatistics.enter(nal, "CompositionalRules.IntroVarSameSubjectOrPredicate");
                 CompositionalRules.IntroVarSameSubjectOrPredicate(originalMainSentence,subSentence,component,content,index,nal);
+                RuleStatistics.exit(nal);
             } else if ((statement instanceof Equivalence) && (statement.getPredicate() instanceof Statement) && (nal.getCurrentTask().sentence.isJudgment())) {
+                RuleStatistics.enter(nal, "CompositionalRules.IntroVarSameSubjectOrPredicate");
                 CompositionalRules.IntroVarSameSubjectOrPredicate(originalMainSentence,subSentence,component,content,index,nal);                
+                RuleStatistics.exit(nal);
             }
         }
     }
@@ -698,11 +1050,13 @@ public class RuleTables {
         }
 
         if (component2 != null) {
-            final Term[] u = new Term[] { conditional, statement };
+            final Term[] u = nal.unifier(conditional, statement);
             if (Variables.unify(VAR_INDEPENDENT, component, component2, u)) {
                 conditional = (Implication) u[0];
                 statement = (Statement) u[1];
+                RuleStatistics.enter(nal, "SyllogisticRules.conditionalDedInd");
                 SyllogisticRules.conditionalDedInd(conditionalSentence, conditional, index, statement, side, nal);
+                RuleStatistics.exit(nal);
             }
         }
     }
@@ -720,16 +1074,25 @@ public class RuleTables {
         if ((compound instanceof Conjunction) || (compound instanceof Disjunction)) {
             if (nal.getCurrentBelief() != null) {
                 if(compound.containsTerm(component)) {
+                    RuleStatistics.enter(nal, "StructuralRules.structuralCompound");
                     StructuralRules.structuralCompound(compound, component, compoundTask, index, nal);
+                    RuleStatistics.exit(nal);
                 }
+                RuleStatistics.enter(nal, "CompositionalRules.decomposeStatement");
                 CompositionalRules.decomposeStatement(compound, component, compoundTask, index, nal);
+                RuleStatistics.exit(nal);
             } else if (compound.containsTerm(component)) {
+                RuleStatistics.enter(nal, "StructuralRules.structuralCompound");
                 StructuralRules.structuralCompound(compound, component, compoundTask, index, nal);
+                RuleStatistics.exit(nal);
             }
         } else if (compound instanceof Negation) {
             if (compoundTask) {
-                if (compound.term[0] instanceof CompoundTerm)
+                if (compound.term[0] instanceof CompoundTerm) {
+                    RuleStatistics.enter(nal, "StructuralRules.transformNegation");
                     StructuralRules.transformNegation((CompoundTerm)compound.term[0], nal);
+                    RuleStatistics.exit(nal);
+                }
             }
         }
     }
@@ -772,30 +1135,40 @@ public class RuleTables {
         if (component.getClass() == statement.getClass()) {
             if ((compound instanceof Conjunction) && (nal.getCurrentBelief() != null)) {
                 final Conjunction conj = (Conjunction) compound;
-                final Term[] u = new Term[] { compound, statement };
+                final Term[] u = nal.unifier(compound, statement);
                 if (Variables.unify(VAR_DEPENDENT, component, statement, u) && u[0] instanceof Conjunction && u[1] instanceof Statement) {
                     compound = (Conjunction) u[0];
                     statement = (Statement) u[1];
                     if(conj.isSpatial || compound.getTemporalOrder() != TemporalRules.ORDER_FORWARD || //only allow dep var elimination
                             index == 0) { //for (&/ on first component!!
+                        RuleStatistics.enter(nal, "SyllogisticRules.elimiVarDep");
                         SyllogisticRules.elimiVarDep(compound, component, 
                                 statement.equals(beliefTerm),
                                 nal);
+                        RuleStatistics.exit(nal);
                     }
                 } else if (task.sentence.isJudgment()) { // && !compound.containsTerm(component)) {
+                    RuleStatistics.enter(nal, "CompositionalRules.introVarInner");
                     CompositionalRules.introVarInner(statement, (Statement) component, compound, nal);
+                    RuleStatistics.exit(nal);
                 }
             }
         } else {
             if (task.sentence.isJudgment()) {
                 if (statement instanceof Inheritance) {
+                    RuleStatistics.enter(nal, "StructuralRules.structuralCompose1");
                     StructuralRules.structuralCompose1(compound, index, statement, nal);
+                    RuleStatistics.exit(nal);
                     if (!(compound instanceof SetExt || compound instanceof SetInt || compound instanceof Negation
                             || compound instanceof Conjunction || compound instanceof Disjunction)) {
+                        RuleStatistics.enter(nal, "StructuralRules.structuralCompose2");
                         StructuralRules.structuralCompose2(compound, index, statement, side, nal);
+                        RuleStatistics.exit(nal);
                     }    // {A --> B, A @ (A&C)} |- (A&C) --> (B&C)
                 } else if (!(compound instanceof Negation || compound instanceof Conjunction || compound instanceof Disjunction)) {
+                    RuleStatistics.enter(nal, "StructuralRules.structuralCompose2");
                     StructuralRules.structuralCompose2(compound, index, statement, side, nal);
+                    RuleStatistics.exit(nal);
                 }       // {A <-> B, A @ (A&C)} |- (A&C) <-> (B&C)
             }
         }
@@ -812,24 +1185,38 @@ public class RuleTables {
      */
     private static void componentAndStatement(final CompoundTerm compound, final short index, final Statement statement, final short side, final DerivationContext nal) {
         if (statement instanceof Inheritance) {
+            RuleStatistics.enter(nal, "StructuralRules.structuralDecompose1");
             StructuralRules.structuralDecompose1(compound, index, statement, nal);
+            RuleStatistics.exit(nal);
             if (!(compound instanceof SetExt) && !(compound instanceof SetInt)) {
+                RuleStatistics.enter(nal, "StructuralRules.structuralDecompose2");
                 StructuralRules.structuralDecompose2(statement, index, nal);    // {(C-B) --> (C-A), A @ (C-A)} |- A --> B
+                RuleStatistics.exit(nal);
             } else {
+                RuleStatistics.enter(nal, "StructuralRules.transformSetRelation");
                 StructuralRules.transformSetRelation(compound, statement, side, nal);
+                RuleStatistics.exit(nal);
             }
         } else if (statement instanceof Similarity) {
+            RuleStatistics.enter(nal, "StructuralRules.structuralDecompose2");
             StructuralRules.structuralDecompose2(statement, index, nal);        // {(C-B) --> (C-A), A @ (C-A)} |- A --> B
+            RuleStatistics.exit(nal);
             if ((compound instanceof SetExt) || (compound instanceof SetInt)) {
+                RuleStatistics.enter(nal, "StructuralRules.transformSetRelation");
                 StructuralRules.transformSetRelation(compound, statement, side, nal);
+                RuleStatistics.exit(nal);
             }            
         } 
         
         else if ((statement instanceof Implication) && (compound instanceof Negation)) {
             if (index == 0) {
+                RuleStatistics.enter(nal, "StructuralRules.contraposition");
                 StructuralRules.contraposition(statement, nal.getCurrentTask().sentence, nal);
+                RuleStatistics.exit(nal);
             } else {
+                RuleStatistics.enter(nal, "StructuralRules.contraposition");
                 StructuralRules.contraposition(statement, nal.getCurrentBelief(), nal);
+                RuleStatistics.exit(nal);
             }        
         }
         
@@ -871,7 +1258,9 @@ public class RuleTables {
 
         // it is not a fatal error if it is not a inheritance, we just ignore it in this case
         if (expectedInheritanceTerm instanceof Inheritance) {
+            RuleStatistics.enter(nal, "StructuralRules.transformProductImage");
             StructuralRules.transformProductImage((Inheritance) expectedInheritanceTerm, content, indices, nal);
+            RuleStatistics.exit(nal);
         }
     }
 }
@@ -729,6 +729,9 @@ public final class StructuralRules {
 
         final boolean hasLeft = index >= 1; // result subsequence will have at least two elements
         final boolean hasRight = index < (compound.size() - 1);
+        if ((hasLeft || hasRight) && nal.premiseRecording != null) {
+            nal.premiseRecording.notCacheable(); //the slices are chosen randomly
+        }
 
         if (hasLeft) {
             final int sliceStartIndexInclusive = Memory.randomNumber.nextInt(index - 1 + 1 /* inclusive */); //if index-1 it would have length 1, no group
@@ -62,22 +62,31 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return truth value as computed by the truth-function
      */
     public static TruthValue lookupTruthFunctionAndCompute(final EnumType type, final TruthValue a, final TruthValue b, final Parameters narParameters) {
+        return lookupTruthFunctionAndCompute(type, a, b, new TruthValue(narParameters), narParameters);
+    }
+
+    /**
+     * lookup the truth function and compute the value into result
+     * @param result receives the truth value, may be one of the premises
+     * @return result
+     */
+    public static TruthValue lookupTruthFunctionAndCompute(final EnumType type, final TruthValue a, final TruthValue b, final TruthValue result, final Parameters narParameters) {
         switch(type) {
-            case DESIREDED: return desireDed(a, b, narParameters);
-            case DESIREIND: return desireInd(a, b, narParameters);
-            case DESIREWEAK: return desireWeak(a, b, narParameters);
-            case DESIRESTRONG: return desireStrong(a, b, narParameters);
-            case COMPARISON: return comparison(a, b, narParameters);
-            case ANALOGY: return analogy(a, b, narParameters);
-            case ANONYMOUSANALOGY: return anonymousAnalogy(a, b, narParameters);
-            case DEDUCTION: return deduction(a, b, narParameters);
-            case EXEMPLIFICATION: return exemplification(a, b, narParameters);
-            case ABDUCTION: return abduction(a, b, narParameters);
-            case RESEMBLENCE: return resemblance(a, b, narParameters);
-            case REDUCECONJUNCTION: return reduceConjunction(a, b, narParameters);
-            case REDUCEDISJUNCTION: return reduceDisjunction(a, b, narParameters);
-            case REDUCEDISJUNCTIONREV: return reduceDisjunction(b, a, narParameters);
-            case REDUCECONJUNCTIONNEG: return reduceConjunctionNeg(a, b, narParameters);
+            case DESIREDED: return desireDed(a, b, result, narParameters);
+            case DESIREIND: return desireInd(a, b, result, narParameters);
+            case DESIREWEAK: return desireWeak(a, b, result, narParameters);
+            case DESIRESTRONG: return desireStrong(a, b, result, narParameters);
+            case COMPARISON: return comparison(a, b, result, narParameters);
+            case ANALOGY: return analogy(a, b, result, narParameters);
+            case ANONYMOUSANALOGY: return anonymousAnalogy(a, b, result, narParameters);
+            case DEDUCTION: return deduction(a, b, result, narParameters);
+            case EXEMPLIFICATION: return exemplification(a, b, result, narParameters);
+            case ABDUCTION: return abduction(a, b, result, narParameters);
+            case RESEMBLENCE: return resemblance(a, b, result, narParameters);
+            case REDUCECONJUNCTION: return reduceConjunction(a, b, result, narParameters);
+            case REDUCEDISJUNCTION: return reduceDisjunction(a, b, result, narParameters);
+            case REDUCEDISJUNCTIONREV: return reduceDisjunction(b, a, result, narParameters);
+            case REDUCECONJUNCTIONNEG: return reduceConjunctionNeg(a, b, result, narParameters);
             default: throw new IllegalArgumentException("Encountered unimplemented case!"); // internal error
         }
     }
@@ -125,11 +134,16 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue conversion(final TruthValue v1, Parameters narParameters) {
+        return conversion(v1, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #conversion(TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue conversion(final TruthValue v1, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float c1 = v1.getConfidence();
         final float w = and(f1, c1);
         final float c = w2c(w, narParameters);
-        return new TruthValue(1, c, narParameters);
+        return result.set(1, c).setAnalytic(false);
     }
 
     /* ----- Single argument functions, called in StructuralRules ----- */
@@ -139,9 +153,14 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue negation(final TruthValue v1, Parameters narParameters) {
+        return negation(v1, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #negation(TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue negation(final TruthValue v1, final TruthValue result, Parameters narParameters) {
         final float f = 1 - v1.getFrequency();
         final float c = v1.getConfidence();
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /**
@@ -150,11 +169,16 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue contraposition(final TruthValue v1, Parameters narParameters) {
+        return contraposition(v1, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #contraposition(TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue contraposition(final TruthValue v1, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float c1 = v1.getConfidence();
         final float w = and(1 - f1, c1);
         final float c = w2c(w, narParameters);
-        return new TruthValue(0, c, narParameters);
+        return result.set(0, c).setAnalytic(false);
     }
 
     /* ----- double argument functions, called in MatchingRules ----- */
@@ -168,7 +192,8 @@ public final class TruthFunctions extends UtilityFunctions {
         return revision(v1, v2, new TruthValue(narParameters), narParameters);
     }
     
-    private static final TruthValue revision(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+    /** {@link #revision(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue revision(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float w1 = c2w( v1.getConfidence(), narParameters );
@@ -176,7 +201,7 @@ public final class TruthFunctions extends UtilityFunctions {
         final float w = w1 + w2;
         result.setFrequency( (w1 * f1 + w2 * f2) / w );
         result.setConfidence( w2c(w, narParameters) );
-        return result;
+        return result.setAnalytic(false);
     }
     
     /* ----- double argument functions, called in SyllogisticRules ----- */
@@ -187,13 +212,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue deduction(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return deduction(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #deduction(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue deduction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
         final float c2 = v2.getConfidence();
         final float f = and(f1, f2);
         final float c = and(c1, c2, f);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /**
@@ -203,10 +233,15 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue deduction(final TruthValue v1, final float reliance, Parameters narParameters) {
+        return deduction(v1, reliance, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #deduction(TruthValue, float, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue deduction(final TruthValue v1, final float reliance, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float c1 = v1.getConfidence();
         final float c = and(f1, c1, reliance);
-        return new TruthValue(f1, c, true, narParameters);
+        return result.set(f1, c).setAnalytic(true);
     }
 
     /**
@@ -216,13 +251,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue analogy(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return analogy(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #analogy(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue analogy(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
         final float c2 = v2.getConfidence();
         final float f = and(f1, f2);
         final float c = and(c1, c2, f2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /**
@@ -232,13 +272,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue resemblance(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return resemblance(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #resemblance(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue resemblance(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
         final float c2 = v2.getConfidence();
         final float f = and(f1, f2);
         final float c = and(c1, c2, or(f1, f2));
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /**
@@ -248,8 +293,13 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue abduction(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return abduction(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #abduction(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue abduction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         if (v1.getAnalytic() || v2.getAnalytic()) {
-            return new TruthValue(0.5f, 0f, narParameters);
+            return result.set(0.5f, 0f).setAnalytic(false);
         }
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
@@ -257,7 +307,7 @@ public final class TruthFunctions extends UtilityFunctions {
         final float c2 = v2.getConfidence();
         final float w = and(f2, c1, c2);
         final float c = w2c(w, narParameters);
-        return new TruthValue(f1, c, narParameters);
+        return result.set(f1, c).setAnalytic(false);
     }
 
     /**
@@ -267,14 +317,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue abduction(final TruthValue v1, final float reliance, Parameters narParameters) {
+        return abduction(v1, reliance, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #abduction(TruthValue, float, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue abduction(final TruthValue v1, final float reliance, final TruthValue result, Parameters narParameters) {
         if (v1.getAnalytic()) {
-            return new TruthValue(0.5f, 0f, narParameters);
+            return result.set(0.5f, 0f).setAnalytic(false);
         }
         final float f1 = v1.getFrequency();
         final float c1 = v1.getConfidence();
         final float w = and(c1, reliance);
         final float c = w2c(w, narParameters);
-        return new TruthValue(f1, c, true, narParameters);
+        return result.set(f1, c).setAnalytic(true);
     }
 
     /**
@@ -287,6 +342,11 @@ public final class TruthFunctions extends UtilityFunctions {
         return abduction(v2, v1, narParameters);
     }
 
+    /** {@link #induction(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue induction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return abduction(v2, v1, result, narParameters);
+    }
+
     /**
      * {&lt;M ==&gt; S&gt;, &lt;P ==&gt; M&gt;} |- &lt;S ==&gt; P&gt;
      * @param v1 Truth value of the first premise
@@ -294,8 +354,13 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue exemplification(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return exemplification(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #exemplification(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue exemplification(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         if (v1.getAnalytic() || v2.getAnalytic()) {
-            return new TruthValue(0.5f, 0f, narParameters);
+            return result.set(0.5f, 0f).setAnalytic(false);
         }
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
@@ -303,7 +368,7 @@ public final class TruthFunctions extends UtilityFunctions {
         final float c2 = v2.getConfidence();
         final float w = and(f1, f2, c1, c2);
         final float c = w2c(w, narParameters);
-        return new TruthValue(1, c, narParameters);
+        return result.set(1, c).setAnalytic(false);
     }
 
     /**
@@ -313,6 +378,11 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue comparison(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return comparison(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #comparison(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue comparison(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
@@ -321,7 +391,7 @@ public final class TruthFunctions extends UtilityFunctions {
         final float f = (f0 == 0) ? 0 : (and(f1, f2) / f0);
         final float w = and(f0, c1, c2);
         final float c = w2c(w, narParameters);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /* ----- desire-value functions, called in SyllogisticRules ----- */
@@ -332,13 +402,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue desireStrong(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return desireStrong(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #desireStrong(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue desireStrong(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
         final float c2 = v2.getConfidence();
         final float f = and(f1, f2);
         final float c = and(c1, c2, f2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /**
@@ -348,13 +423,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue desireWeak(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return desireWeak(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #desireWeak(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue desireWeak(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
         final float c2 = v2.getConfidence();
         final float f = and(f1, f2);
         final float c = and(c1, c2, f2, w2c(1.0f, narParameters));
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /**
@@ -364,13 +444,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue desireDed(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return desireDed(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #desireDed(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue desireDed(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
         final float c2 = v2.getConfidence();
         final float f = and(f1, f2);
         final float c = and(c1, c2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /**
@@ -380,13 +465,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue desireInd(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return desireInd(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #desireInd(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue desireInd(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
         final float c2 = v2.getConfidence();
         final float w = and(f2, c1, c2);
         final float c = w2c(w, narParameters);
-        return new TruthValue(f1, c, narParameters);
+        return result.set(f1, c).setAnalytic(false);
     }
 
     /* ----- double argument functions, called in CompositionalRules ----- */
@@ -397,13 +487,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue union(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return union(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #union(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue union(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
         final float c2 = v2.getConfidence();
         final float f = or(f1, f2);
         final float c = and(c1, c2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /**
@@ -413,13 +508,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue intersection(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return intersection(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #intersection(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue intersection(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
         final float f1 = v1.getFrequency();
         final float f2 = v2.getFrequency();
         final float c1 = v1.getConfidence();
         final float c2 = v2.getConfidence();
         final float f = and(f1, f2);
         final float c = and(c1, c2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c).setAnalytic(false);
     }
 
     /**
@@ -429,8 +529,15 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue reduceDisjunction(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final TruthValue v0 = intersection(v1, negation(v2, narParameters), narParameters);
-        return deduction(v0, 1f, narParameters);
+        return reduceDisjunction(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #reduceDisjunction(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue reduceDisjunction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        //intersection(v1, negation(v2)) followed by deduction(v0, 1f), without the intermediate truth values
+        final float f = and(v1.getFrequency(), 1 - v2.getFrequency());
+        final float c = and(v1.getConfidence(), v2.getConfidence());
+        return result.set(f, and(f, c, 1f)).setAnalytic(true);
     }
 
     /**
@@ -440,8 +547,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue reduceConjunction(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final TruthValue v0 = intersection(negation(v1, narParameters), v2, narParameters);
-        return negation(deduction(v0, 1f, narParameters), narParameters);
+        return reduceConjunction(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #reduceConjunction(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue reduceConjunction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return reduceConjunction(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result);
+    }
+
+    /** negation(deduction(intersection(negation(v1), v2), 1f)), without the intermediate truth values */
+    private static TruthValue reduceConjunction(final float f1, final float c1, final float f2, final float c2, final TruthValue result) {
+        final float f = and(1 - f1, f2);
+        final float c = and(c1, c2);
+        return result.set(1 - f, and(f, c, 1f)).setAnalytic(false);
     }
 
     /**
@@ -451,7 +569,12 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue reduceConjunctionNeg(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        return reduceConjunction(v1, negation(v2, narParameters), narParameters);
+        return reduceConjunctionNeg(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #reduceConjunctionNeg(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue reduceConjunctionNeg(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return reduceConjunction(v1.getFrequency(), v1.getConfidence(), 1 - v2.getFrequency(), v2.getConfidence(), result);
     }
 
     /**
@@ -461,10 +584,17 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue anonymousAnalogy(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
+        return anonymousAnalogy(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #anonymousAnalogy(TruthValue, TruthValue, Parameters)} into result, which may be one of the premises */
+    public static final TruthValue anonymousAnalogy(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        //analogy(v2, v0) with v0 = (f1, w2c(c1)), without the intermediate truth value
         final float f1 = v1.getFrequency();
-        final float c1 = v1.getConfidence();
-        final TruthValue v0 = new TruthValue(f1, w2c(c1, narParameters), narParameters);
-        return analogy(v2, v0, narParameters);
+        final float c0 = w2c(v1.getConfidence(), narParameters);
+        final float f2 = v2.getFrequency();
+        final float c2 = v2.getConfidence();
+        return result.set(and(f2, f1), and(c2, c0, f1)).setAnalytic(false);
     }
     
     
@@ -47,6 +47,20 @@ public class UtilityFunctions {
         }
         return product;
     }
+
+    /* fixed arities of and/or, the rules call them on every derivation and the varargs versions allocate an array */
+
+    public final static float and(final float a, final float b) {
+        return a * b;
+    }
+
+    public final static float and(final float a, final float b, final float c) {
+        return a * b * c;
+    }
+
+    public final static float and(final float a, final float b, final float c, final float d) {
+        return a * b * c * d;
+    }
     
     /**
      * A function where the output is disjunctively determined by the inputs
@@ -60,6 +74,14 @@ public class UtilityFunctions {
         }
         return 1 - product;
     }
+
+    public final static float or(final float a, final float b) {
+        return 1 - (1 - a) * (1 - b);
+    }
+
+    public final static float or(final float a, final float b, final float c) {
+        return 1 - (1 - a) * (1 - b) * (1 - c);
+    }
     
     /**
      * A function where the output is the arithmetic average the inputs
@@ -74,6 +96,10 @@ public class UtilityFunctions {
         return sum / arr.length;
     }
 
+    public final static float aveAri(final float a, final float b) {
+        return (a + b) / 2;
+    }
+
     /**
      * A function where the output is the geometric average the inputs
      * @param arr The inputs, each in [0, 1]
@@ -91,6 +117,11 @@ public class UtilityFunctions {
         return (float) pow(product, 1.00 / arr.length);
     }
 
+    public final static float aveGeo(final float a, final float b, final float c) {
+        final float product = a * b * c;
+        return (float) pow(product, 1.00 / 3);
+    }
+
     /**
      * A function to convert weight to confidence
      * @param w Weight of evidence, a non-negative real number
@@ -51,20 +51,146 @@ import java.nio.file.Paths;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Used to read and parse the XML configuration file
+ * <p>
+ * A config file is compiled once into a parameters prototype, the assignments of the static flags and the
+ * constructors of the plugins, later loads of the same path only copy the prototype and call the constructors.
+ * The compiled config is recompiled when the file was modified.
  *
  * @author Robert Wünsche
  */
 public class ConfigReader {
 
+    private static final Map<String, CompiledConfig> compiled = new ConcurrentHashMap<>();
+
+    /**
+     * The settings of a config file, immutable once compiled
+     */
+    public static final class CompiledConfig {
+        private final Parameters prototype = new Parameters();
+        private final List<Assignment> parameterAssignments = new ArrayList<>();
+        private final List<Assignment> flagAssignments = new ArrayList<>();
+        private final List<PluginFactory> plugins = new ArrayList<>();
+        /** modification time and length of the file, to detect changes; -1 for the resource */
+        private final long lastModified;
+        private final long length;
+
+        private CompiledConfig(final long lastModified, final long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        /**
+         * @return a copy of the parameters of the config
+         */
+        public Parameters newParameters() {
+            return prototype.clone();
+        }
+
+        /**
+         * Assigns the parameters of the config to existing parameters
+         */
+        public void assignParameters(final Parameters parameters) throws IllegalAccessException {
+            for (final Assignment assignment : parameterAssignments) {
+                assignment.field.set(parameters, assignment.value);
+            }
+        }
+
+        /**
+         * Assigns the static flags of the config
+         */
+        public void assignFlags() throws IllegalAccessException {
+            for (final Assignment assignment : flagAssignments) {
+                assignment.field.set(null, assignment.value);
+            }
+        }
+
+        /**
+         * @param reasoner The reasoner which is passed to the plugins which take it
+         * @return new instances of the plugins of the config
+         */
+        public List<Plugin> newPlugins(final Reasoner reasoner) throws IllegalAccessException, InvocationTargetException, InstantiationException {
+            final List<Plugin> ret = new ArrayList<>(plugins.size());
+            for (final PluginFactory factory : plugins) {
+                ret.add(factory.create(reasoner));
+            }
+            return ret;
+        }
+    }
+
+    private static final class Assignment {
+        final Field field;
+        final Object value;
+
+        Assignment(final Field field, final Object value) {
+            this.field = field;
+            this.value = value;
+        }
+    }
+
+    private static final class PluginFactory {
+        final Constructor<?> constructor;
+        /** arguments of the constructor, null where the reasoner is passed */
+        final Object[] arguments;
+
+        PluginFactory(final Constructor<?> constructor, final Object[] arguments) {
+            this.constructor = constructor;
+            this.arguments = arguments;
+        }
+
+        Plugin create(final Reasoner reasoner) throws IllegalAccessException, InvocationTargetException, InstantiationException {
+            final Object[] values = arguments.clone();
+            final Class<?>[] types = constructor.getParameterTypes();
+            for (int i = 0; i < values.length; i++) {
+                if (types[i] == Reasoner.class) {
+                    values[i] = reasoner;
+                }
+            }
+            return (Plugin) constructor.newInstance(values);
+        }
+    }
+
     public static List<Plugin> loadParamsFromFileAndReturnPlugins(final String filepath, final Reasoner reasoner, final Parameters parameters) throws IOException, IllegalAccessException, ParseException, ParserConfigurationException, SAXException, ClassNotFoundException, NoSuchMethodException, InstantiationException, InvocationTargetException {
+        final CompiledConfig config = compile(filepath);
+        config.assignParameters(parameters);
+        config.assignFlags();
+        return config.newPlugins(reasoner);
+    }
+
+    /**
+     * @param filepath The path of the config file, the default config of the resources is used if it doesn't exist
+     * @return the compiled config, cached for the path as long as the file isn't modified
+     */
+    public static CompiledConfig compile(final String filepath) throws IOException, IllegalAccessException, ParseException, ParserConfigurationException, SAXException, ClassNotFoundException, NoSuchMethodException {
+        final File file = new File(filepath);
+        final long lastModified = file.exists() ? file.lastModified() : -1;
+        final long length = file.exists() ? file.length() : -1;
+        final CompiledConfig cached = compiled.get(filepath);
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached;
+        }
+        final CompiledConfig config = new CompiledConfig(lastModified, length);
+        parse(filepath, config);
+        compiled.put(filepath, config);
+        return config;
+    }
+
+    /**
+     * Forgets the compiled configs, the next load of a path parses the file again
+     */
+    public static void clearCache() {
+        compiled.clear();
+    }
+
+    private static void parse(final String filepath, final CompiledConfig compiledConfig) throws IOException, IllegalAccessException, ParseException, ParserConfigurationException, SAXException, ClassNotFoundException, NoSuchMethodException {
         
         System.out.println("Got relative path for loading the config: " + filepath);
-        List<Plugin> ret = new ArrayList<Plugin>();
         File file = new File(filepath);
 
         InputStream stream = null;
@@ -82,7 +208,14 @@ public class ConfigReader {
         
         final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
         final DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-        final Document document = stream != null ? documentBuilder.parse(stream) : documentBuilder.parse(file);
+        final Document document;
+        try {
+            document = stream != null ? documentBuilder.parse(stream) : documentBuilder.parse(file);
+        } finally {
+            if (stream != null) {
+                stream.close();
+            }
+        }
         final NodeList config = document.getElementsByTagName("config").item(0).getChildNodes();
 
         for (int iterationConfigIdx = 0; iterationConfigIdx < config.getLength(); iterationConfigIdx++) {
@@ -107,8 +240,7 @@ public class ConfigReader {
 
                     final NodeList arguments = iPlugin.getChildNodes();
 
-                    Plugin createdPlugin = createPluginByClassnameAndArguments(pluginClassPath, arguments, reasoner);
-                    ret.add(createdPlugin);
+                    compiledConfig.plugins.add(createPluginFactoryByClassnameAndArguments(pluginClassPath, arguments));
                 }
             }
             else {
@@ -120,18 +252,23 @@ public class ConfigReader {
 
                 try {
                     final Field fieldOfProperty = Parameters.class.getField(propertyName);
+                    final Object value;
 
                     if (fieldOfProperty.getType() == int.class) {
-                        fieldOfProperty.set(parameters, Integer.parseInt(propertyValueAsString));
+                        value = Integer.parseInt(propertyValueAsString);
                     } else if (fieldOfProperty.getType() == float.class) {
-                        fieldOfProperty.set(parameters, Float.parseFloat(propertyValueAsString));
+                        value = Float.parseFloat(propertyValueAsString);
                     } else if (fieldOfProperty.getType() == double.class) {
-                        fieldOfProperty.set(parameters, Double.parseDouble(propertyValueAsString));
+                        value = Double.parseDouble(propertyValueAsString);
                     } else if (fieldOfProperty.getType() == boolean.class) {
-                        fieldOfProperty.set(parameters, Boolean.parseBoolean(propertyValueAsString));
+                        value = Boolean.parseBoolean(propertyValueAsString);
+                    } else if (fieldOfProperty.getType() == String.class) {
+                        value = propertyValueAsString;
                     } else {
                         throw new ParseException("Unknown type", 0);
                     }
+                    fieldOfProperty.set(compiledConfig.prototype, value);
+                    compiledConfig.parameterAssignments.add(new Assignment(fieldOfProperty, value));
 
                     wasConfigValueAssigned = true;
                 } catch (NoSuchFieldException e) {
@@ -141,14 +278,16 @@ public class ConfigReader {
                 if (!wasConfigValueAssigned) {
                     try {
                         final Field fieldOfProperty = MiscFlags.class.getDeclaredField(propertyName);
+                        final Object value;
 
                         if (fieldOfProperty.getType() == int.class) {
-                            fieldOfProperty.set(null, Integer.parseInt(propertyValueAsString));
+                            value = Integer.parseInt(propertyValueAsString);
                         } else if (fieldOfProperty.getType() == float.class) {
-                            fieldOfProperty.set(null, Float.parseFloat(propertyValueAsString));
+                            value = Float.parseFloat(propertyValueAsString);
                         } else {
                             throw new ParseException("Unknown type", 0);
                         }
+                        compiledConfig.flagAssignments.add(new Assignment(fieldOfProperty, value));
 
                         wasConfigValueAssigned = true;
                     } catch (NoSuchFieldException e) {
@@ -157,10 +296,9 @@ public class ConfigReader {
                 }
             }
         }
-        return ret;
     }
 
-    private static Plugin createPluginByClassnameAndArguments(String pluginClassPath, NodeList arguments, Reasoner reasoner) throws ParseException, ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+    private static PluginFactory createPluginFactoryByClassnameAndArguments(String pluginClassPath, NodeList arguments) throws ParseException, ClassNotFoundException, NoSuchMethodException {
         List<Class> types = new ArrayList<>();
         List<Object> values = new ArrayList<>();
 
@@ -182,7 +320,7 @@ public class ConfigReader {
 
             if (specialIsReasoner) {
                 types.add(Reasoner.class);
-                values.add(reasoner);
+                values.add(null);
             }
             else if (typeString.equals("int.class")) {
                 types.add(int.class);
@@ -210,7 +348,6 @@ public class ConfigReader {
 
         Class c = Class.forName(pluginClassPath);
 
-        Plugin createdPlugin = (Plugin)c.getConstructor(typesAsArr).newInstance(valuesAsArr);
-        return createdPlugin;
+        return new PluginFactory(c.getConstructor(typesAsArr), valuesAsArr);
     }
 }
@@ -38,6 +38,14 @@ public class EventEmitter {
         void event(Class<? extends C> event, Object[] args);
     }
 
+    /** Measures how long the observers take to handle the events */
+    public interface DispatchTimer {
+        void dispatched(EventObserver observer, Class event, long nanos);
+    }
+
+    /** null when the dispatch isn't measured, so emit() doesn't read the clock */
+    private volatile DispatchTimer timer = null;
+
     private final Map<Class<?>, List<EventObserver>> events;
             
     
@@ -131,15 +139,31 @@ public class EventEmitter {
     }
     
 
+    /** sets the timer which measures the dispatch of each event to each observer, null to stop measuring */
+    public void setDispatchTimer(final DispatchTimer timer) {
+        this.timer = timer;
+    }
+
+    public DispatchTimer getDispatchTimer() {
+        return timer;
+    }
+
     public void emit(final Class eventClass, final Object... params) {
         final List<EventObserver> observers = events.get(eventClass);
         
         if ((observers == null) || (observers.isEmpty())) return;
 
-        final int n = observers.size();
+        final DispatchTimer t = timer;
+        if (t == null) {
+            for (final EventObserver m : observers) {
+                m.event(eventClass, params);
+            }
+            return;
+        }
         for (final EventObserver m : observers) {
+            final long start = System.nanoTime();
             m.event(eventClass, params);
+            t.dispatched(m, eventClass, System.nanoTime() - start);
         }
-        
     }
 }
@@ -81,6 +81,9 @@ public class Events {
     public static class Perceive {    }
     
     public static class ConceptForget { }
+
+    /** called from Memory.conceptualize after the budget of a concept which was in memory or in the cold store got activated */
+    public static class ConceptActivate { }
     
     public static class EnactableExplainationAdd { }
     public static class EnactableExplainationRemove { }
@@ -31,10 +31,17 @@ import org.opennars.main.Nar;
 
 import java.io.*;
 import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * To read and write experience as Task streams
- *
+ * <p>
+ * The output is written on the reasoning thread, or in asynchronous mode the lines are formatted
+ * when the events happen and written in batches by a background thread. Lines are either the
+ * human-readable text or JSON objects, one per line.
  */
 public class TextOutputHandler extends OutputHandler implements Serializable {
 
@@ -49,11 +56,24 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
     private final boolean showStamp = true;
     private boolean showInput = true;
     private float minPriority = 0;
+    private Format format = Format.TEXT;
+
+    /** lines which wait for the writer thread, null while the output is written synchronously */
+    private transient volatile Queue<String> pending;
+    private transient volatile Thread writer;
+    private volatile long flushInterval;
 
     public interface LineOutput {
         void println(String s);
     }
 
+    public enum Format {
+        /** the channel and the sentence as it is shown to humans */
+        TEXT,
+        /** a JSON object for each event, for log pipelines */
+        JSON
+    }
+
     /**
      * Default constructor; adds the reasoner to a Nar's outptu channels
      *
@@ -101,10 +121,94 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
      * Close an output experience file
      */
     public void closeSaveFile() {
+        close();
         outExp.close();
         setActive(false);
     }
 
+    /**
+     * Write the events on a background thread instead of the reasoning thread
+     *
+     * @param flushInterval milliseconds between the batches, at least 1
+     * @return this
+     */
+    public synchronized TextOutputHandler setAsynchronous(final long flushInterval) {
+        this.flushInterval = Math.max(1, flushInterval);
+        if (writer == null) {
+            pending = new ConcurrentLinkedQueue<>();
+            writer = new Thread(this::write, "TextOutputHandler");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        return this;
+    }
+
+    /**
+     * Stop the background thread after writing the queued events, the output is written synchronously again
+     */
+    public void close() {
+        final Thread w;
+        synchronized (this) {
+            w = writer;
+            writer = null;
+        }
+        if (w == null) {
+            return;
+        }
+        w.interrupt();
+        try {
+            w.join();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        //new events are written synchronously from now on, after the queued ones
+        synchronized (result) {
+            final Queue<String> queue;
+            synchronized (this) {
+                queue = pending;
+                pending = null;
+            }
+            write(queue);
+        }
+    }
+
+    /**
+     * Write the queued events now
+     */
+    public void flush() {
+        final Queue<String> queue = pending;
+        if (queue == null) {
+            return;
+        }
+        synchronized (result) {
+            write(queue);
+        }
+    }
+
+    private void write(final Queue<String> queue) {
+        String line;
+        boolean written = false;
+        while ((line = queue.poll()) != null) {
+            println(line);
+            written = true;
+        }
+        if (written && outExp != null) {
+            outExp.flush();
+        }
+    }
+
+    private void write() {
+        while (writer == Thread.currentThread()) {
+            flush();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushInterval));
+        }
+    }
+
+    public TextOutputHandler setFormat(final Format format) {
+        this.format = format;
+        return this;
+    }
+
     /**
      * Process the next chunk of output data
      *
@@ -119,18 +223,58 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
         
         if ((outExp!=null) || (outExp2!=null)) {
             final Object o = oo[0];
-            final String s = process(channel, o);
-            if (s!=null) {
-                if (outExp != null) {
-                    outExp.println(prefix + s);
-                    outExp.flush();
+            if (pending != null) {
+                //the line is formatted now, the task can change or be forgotten until it is written
+                final String line = line(channel, o, nar.time(), new StringBuilder(64));
+                if (line == null) {
+                    return;
+                }
+                synchronized (this) {
+                    final Queue<String> queue = pending;
+                    if (queue != null) {
+                        queue.add(line);
+                        return;
+                    }
                 }
-                if (outExp2 != null) {
-                    outExp2.println(prefix + s);            
+                synchronized (result) {
+                    println(line);
+                    if (outExp != null) {
+                        outExp.flush();
+                    }
+                }
+                return;
+            }
+            synchronized (result) {
+                final String line = line(channel, o, nar.time(), result);
+                if (line != null) {
+                    println(line);
+                    if (outExp != null) {
+                        outExp.flush();
+                    }
                 }
             }
         }
     }
+
+    /**
+     * @return the line of the event, or null if it isn't shown
+     */
+    private String line(final Class channel, final Object o, final long time, final StringBuilder buffer) {
+        if (format == Format.JSON) {
+            return getJsonString(channel, o, time, buffer, minPriority);
+        }
+        final String s = getOutputString(channel, o, true, showStamp, nar, buffer, minPriority, time);
+        return s == null ? null : prefix + s;
+    }
+
+    private void println(final String line) {
+        if (outExp != null) {
+            outExp.println(line);
+        }
+        if (outExp2 != null) {
+            outExp2.println(line);
+        }
+    }
     
     final StringBuilder result = new StringBuilder(16 /* estimate */);
     
@@ -164,6 +308,11 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
             
     /** generates a human-readable string from an output channel and signal */
     public static String getOutputString(final Class channel, final Object signal, final boolean showChannel, final boolean showStamp, final Nar nar, final StringBuilder buffer, final float minPriority) {
+        return getOutputString(channel, signal, showChannel, showStamp, nar, buffer, minPriority, nar.time());
+    }
+
+    /** generates a human-readable string from an output channel and a signal which happened at the given time */
+    public static String getOutputString(final Class channel, final Object signal, final boolean showChannel, final boolean showStamp, final Nar nar, final StringBuilder buffer, final float minPriority, final long time) {
         buffer.setLength(0);
         
         if (showChannel)
@@ -196,19 +345,19 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
                     return null;
                 
                 if((channel == ANTICIPATE.class) || (channel == DISAPPOINT.class)) {
-                    buffer.append(t.sentence.toString(nar, showStamp));  
+                    buffer.append(t.sentence.toString(nar, showStamp, time));  
                 }
                 else
                 if (channel == Answer.class) {
                     final Task task = t; //server / NARRun
                     final Sentence answer = task.getBestSolution();
                     if(answer!=null)
-                        buffer.append(answer.toString(nar, showStamp));
+                        buffer.append(answer.toString(nar, showStamp, time));
                     else
-                        buffer.append(t.sentence.toString(nar, showStamp));  
+                        buffer.append(t.sentence.toString(nar, showStamp, time));  
                 }
                 else            
-                    buffer.append(t.sentence.toString(nar, showStamp));         
+                    buffer.append(t.sentence.toString(nar, showStamp, time));         
             } else {
                 buffer.append(signal.toString());
             }
@@ -222,6 +371,73 @@ public class TextOutputHandler extends OutputHandler implements Serializable {
         
     }
     
+    /**
+     * generates a JSON object from an output channel and a signal which happened at the given time,
+     * tasks are written as their term, punctuation, occurrence time, truth and priority
+     */
+    public static String getJsonString(final Class channel, final Object signal, final long time, final StringBuilder buffer) {
+        return getJsonString(channel, signal, time, buffer, 0);
+    }
+
+    /**
+     * generates a JSON object like getJsonString, or null for a task with a priority below minPriority
+     */
+    public static String getJsonString(final Class channel, final Object signal, final long time, final StringBuilder buffer, final float minPriority) {
+        if (signal instanceof Task && ((Task) signal).getPriority() < minPriority) {
+            return null;
+        }
+        buffer.setLength(0);
+        buffer.append("{\"channel\":");
+        appendJson(buffer, channel.getSimpleName());
+        buffer.append(",\"time\":").append(time);
+        if (signal instanceof Task) {
+            final Task t = (Task) signal;
+            Sentence s = t.sentence;
+            if (channel == Answer.class && t.getBestSolution() != null) {
+                s = t.getBestSolution();
+            }
+            buffer.append(",\"term\":");
+            appendJson(buffer, s.term.name());
+            buffer.append(",\"punctuation\":\"").append(s.punctuation).append('"');
+            if (!s.isEternal()) {
+                buffer.append(",\"occurrence\":").append(s.getOccurenceTime());
+            }
+            if (s.truth != null) {
+                buffer.append(",\"frequency\":").append(s.truth.getFrequency())
+                      .append(",\"confidence\":").append(s.truth.getConfidence());
+            }
+            buffer.append(",\"priority\":").append(t.getPriority());
+        } else {
+            buffer.append(",\"text\":");
+            appendJson(buffer, String.valueOf(signal));
+        }
+        return buffer.append('}').toString();
+    }
+
+    /**
+     * appends a string as JSON string literal
+     */
+    public static void appendJson(final StringBuilder buffer, final CharSequence s) {
+        buffer.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            switch (c) {
+                case '"': buffer.append("\\\""); break;
+                case '\\': buffer.append("\\\\"); break;
+                case '\n': buffer.append("\\n"); break;
+                case '\r': buffer.append("\\r"); break;
+                case '\t': buffer.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        buffer.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        buffer.append(c);
+                    }
+            }
+        }
+        buffer.append('"');
+    }
+
     public static CharSequence getOutputString(final Class channel, final Object signal, final boolean showChannel, final boolean showStamp, final Nar nar) {
         final CharSequence s = getOutputString(channel, signal, showStamp, nar);
         if (showChannel) {            
@@ -23,7 +23,7 @@
  */
 package org.opennars.language;
 
-import org.apache.commons.lang3.StringUtils;
+import com.google.common.collect.MapMaker;
 import org.opennars.inference.TemporalRules;
 import org.opennars.io.Symbols;
 import org.opennars.io.Symbols.NativeOperator;
@@ -36,6 +36,7 @@ import org.opennars.storage.Memory;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentMap;
 //import org.opennars.util.sort.SortedList;
 
 /**
@@ -50,7 +51,8 @@ import java.util.*;
  */
 public class Term implements AbstractTerm, Serializable {
     public ImaginationSpace imagination;
-    private static final Map<CharSequence,Term> atoms = new HashMap();
+    /** intern table of the atomic terms, weak valued so atoms which are no longer referenced can be collected */
+    private static final ConcurrentMap<String,Term> atoms = new MapMaker().weakValues().makeMap();
 
     final public static Term SELF = SetExt.make(Term.get("SELF"));
     final public static Term SEQ_SPATIAL = Term.get("#");
@@ -108,45 +110,93 @@ public class Term implements AbstractTerm, Serializable {
     
     /** gets the atomic term given a name */
     public final static Term get(final CharSequence name) {
-        Term x = atoms.get(name); //only
-        if (x != null && !x.toString().endsWith("]")) { //return only if it isn't an index term
-            return x;
-        }
-
         final String namestr = name.toString();
-        //p[s,i,j]
-        int[] term_indices = null;
-        String before_indices_str = null;
-        if(namestr.endsWith("]") && namestr.contains("[")) { //simple check, failing for most terms
-            String indices_str = namestr.split("\\[")[1].split("\\]")[0];
-            before_indices_str = namestr.split("\\[")[0];
-            String[] inds = indices_str.split(",");
-            if(inds.length == 2) { //only position info given
-                indices_str="1,1,"+indices_str;
-                inds = indices_str.split(",");
-            }
-            term_indices = new int[inds.length];
-            for(int i=0;i<inds.length;i++) {
-                if(StringUtils.isNumeric(inds[i]))
-                    term_indices[i] = Integer.valueOf(inds[i]);
-                else {
-                    term_indices = null;
-                    break;
-                }
+        final boolean bracketed = isBracketed(namestr);
+        if (!bracketed) {
+            //plain atoms are interned, the table only holds them weakly so unused ones can be collected
+            final Term x = atoms.get(namestr);
+            if (x != null) {
+                return x;
             }
+            final Term created = new Term(namestr);
+            created.index_variable = null;
+            final Term prev = atoms.putIfAbsent(namestr, created);
+            return prev != null ? prev : created;
         }
-        
-        CharSequence name2 = name;
+
+        //p[s,i,j]
+        //index terms carry their own (mutable) indices, so they are never shared through the table
+        final int bracket = namestr.indexOf('[');
+        final String before_indices_str = namestr.substring(0, bracket);
+        final int[] term_indices = parseIndices(namestr, bracket + 1, namestr.length() - 1);
+
+        CharSequence name2 = namestr;
         if(term_indices != null) { //only on conceptual level not
             name2 = before_indices_str + "[i,j,k,l]";
         }
-        x = new Term(name2);
+        final Term x = new Term(name2);
         x.term_indices = term_indices;
         x.index_variable = before_indices_str;
-        atoms.put(name2, x);
-        
         return x;
     }
+
+    /** whether the name has the form p[...], the simple check fails for most terms */
+    private static boolean isBracketed(final String name) {
+        final int len = name.length();
+        return len > 0 && name.charAt(len - 1) == ']' && name.indexOf('[') >= 0;
+    }
+
+    /**
+     * Parses the comma separated index list between from (inclusive) and to (exclusive)
+     * without going through regex splitting
+     *
+     * @param s the name of the term
+     * @param from start of the index list
+     * @param to end of the index list
+     * @return the indices, prefixed by 1,1 if only the position was given, or null if an index isn't numeric
+     */
+    private static int[] parseIndices(final String s, final int from, final int to) {
+        int count = 1;
+        for (int i = from; i < to; i++) {
+            final char c = s.charAt(i);
+            if (c == ',') {
+                count++;
+            } else if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        final int offset = count == 2 ? 2 : 0; //only position info given
+        final int[] indices = new int[count + offset];
+        for (int i = 0; i < offset; i++) {
+            indices[i] = 1;
+        }
+        int k = offset;
+        long value = 0;
+        int digits = 0;
+        for (int i = from; i <= to; i++) {
+            if (i == to || s.charAt(i) == ',') {
+                if (digits == 0) {
+                    return null;
+                }
+                indices[k++] = (int) value;
+                value = 0;
+                digits = 0;
+            } else {
+                value = value * 10 + (s.charAt(i) - '0');
+                if (++digits > 10 || value > Integer.MAX_VALUE) {
+                    return null;
+                }
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * @return number of atoms currently held by the intern table
+     */
+    public static int internedAtoms() {
+        return atoms.size();
+    }
     
     /** gets the atomic term of an integer */
     public final static Term get(final int i) {
@@ -0,0 +1,370 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.main;
+
+import org.opennars.io.events.EventEmitter.DispatchTimer;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.Events;
+import org.opennars.io.events.OutputHandler.ERR;
+import org.opennars.io.events.OutputHandler.EXE;
+import org.opennars.plugin.Plugin;
+import org.opennars.storage.Bag;
+import org.opennars.storage.Memory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the reasoner, registered as the platform MBean org.opennars:type=Metrics,nar=narId.
+ * The reasoning thread only increments striped counters, the rates, percentiles and bag gauges are computed
+ * when they are read, the gauges are read without locking the bags so they are approximate while the reasoner runs.
+ */
+public class Metrics implements Plugin, MetricsMBean {
+
+    public EventObserver obs;
+
+    /** measure the time each observer needs to handle the events */
+    public volatile boolean DISPATCH_TIMING = true;
+
+    private final LongAdder cycles = new LongAdder();
+    private final LongAdder derivations = new LongAdder();
+    private final LongAdder revisions = new LongAdder();
+    private final LongAdder answers = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder conceptsCreated = new LongAdder();
+    private final LongAdder conceptsEvicted = new LongAdder();
+    private final LatencyHistogram cycleLatency = new LatencyHistogram();
+    /** dispatch times by the class of the observer */
+    private final Map<Class, LatencyHistogram> dispatch = new ConcurrentHashMap<>();
+
+    /* only accessed by the cycling thread */
+    private long cycleStart = 0;
+    private long rateWindowStart = 0;
+    private long rateWindowCycles = 0;
+    private volatile double cycleRate = 0;
+
+    private transient Nar nar;
+    private transient ObjectName name;
+    private transient DispatchTimer timer;
+
+    public Metrics(){}
+    public Metrics(final boolean DISPATCH_TIMING) {
+        this.DISPATCH_TIMING = DISPATCH_TIMING;
+    }
+
+    @Override public boolean setEnabled(final Nar n, final boolean enabled) {
+        final Memory memory = n.memory;
+        this.nar = n;
+
+        if(obs==null) {
+            obs = (event, a) -> {
+                if (event == Events.CycleStart.class) {
+                    cycleStart = System.nanoTime();
+                } else if (event == Events.CycleEnd.class) {
+                    cycleEnd();
+                } else if (event == Events.TaskDerive.class) {
+                    derivations.increment();
+                    if ((Boolean) a[1]) {
+                        revisions.increment();
+                    }
+                } else if (event == Events.Answer.class) {
+                    answers.increment();
+                } else if (event == EXE.class) {
+                    executions.increment();
+                } else if (event == Events.ConceptNew.class) {
+                    conceptsCreated.increment();
+                } else if (event == Events.ConceptForget.class) {
+                    conceptsEvicted.increment();
+                }
+            };
+        }
+        if(timer==null) {
+            timer = (observer, event, nanos) -> {
+                LatencyHistogram h = dispatch.get(observer.getClass());
+                if (h == null) {
+                    h = dispatch.computeIfAbsent(observer.getClass(), c -> new LatencyHistogram());
+                }
+                h.record(nanos);
+            };
+        }
+
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (enabled) {
+                name = new ObjectName("org.opennars:type=Metrics,nar=" + memory.narId);
+                if (server.isRegistered(name)) { //a reasoner with the same id replaces the old one
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(this, name);
+            } else if (name != null && server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (final JMException ex) {
+            memory.emit(ERR.class, ex);
+            return false;
+        }
+
+        memory.event.set(obs, enabled, Events.CycleStart.class, Events.CycleEnd.class, Events.TaskDerive.class,
+            Events.Answer.class, EXE.class, Events.ConceptNew.class, Events.ConceptForget.class);
+        memory.event.setDispatchTimer(enabled && DISPATCH_TIMING ? timer : null);
+        return true;
+    }
+
+    private void cycleEnd() {
+        final long now = System.nanoTime();
+        cycles.increment();
+        if (cycleStart != 0) {
+            cycleLatency.record(now - cycleStart);
+        }
+        rateWindowCycles++;
+        if (rateWindowStart == 0) {
+            rateWindowStart = now;
+            rateWindowCycles = 0;
+        } else if (now - rateWindowStart >= 1000000000L) {
+            cycleRate = rateWindowCycles * 1e9 / (now - rateWindowStart);
+            rateWindowStart = now;
+            rateWindowCycles = 0;
+        }
+    }
+
+    @Override public long getCycles() {
+        return cycles.sum();
+    }
+    @Override public double getCycleRate() {
+        return cycleRate;
+    }
+    @Override public double getCycleLatencyP50() {
+        return cycleLatency.percentile(0.5) / 1000.0;
+    }
+    @Override public double getCycleLatencyP90() {
+        return cycleLatency.percentile(0.9) / 1000.0;
+    }
+    @Override public double getCycleLatencyP99() {
+        return cycleLatency.percentile(0.99) / 1000.0;
+    }
+    @Override public double getCycleLatencyMax() {
+        return cycleLatency.max() / 1000.0;
+    }
+
+    private Memory memory() {
+        if (nar == null) {
+            throw new IllegalStateException("Metrics plugin is not enabled");
+        }
+        return nar.memory;
+    }
+    private static double mass(final Bag bag) {
+        return bag.getAveragePriority() * bag.size();
+    }
+
+    @Override public int getConceptBagSize() {
+        return memory().concepts.size();
+    }
+    @Override public double getConceptBagMass() {
+        return mass(memory().concepts);
+    }
+    @Override public double getConceptBagAveragePriority() {
+        return memory().concepts.getAveragePriority();
+    }
+    @Override public int getNovelTaskBagSize() {
+        return memory().novelTasks.size();
+    }
+    @Override public double getNovelTaskBagMass() {
+        return mass(memory().novelTasks);
+    }
+    @Override public double getNovelTaskBagAveragePriority() {
+        return memory().novelTasks.getAveragePriority();
+    }
+    @Override public int getSequenceBagSize() {
+        return memory().seq_current.size();
+    }
+    @Override public double getSequenceBagMass() {
+        return mass(memory().seq_current);
+    }
+    @Override public double getSequenceBagAveragePriority() {
+        return memory().seq_current.getAveragePriority();
+    }
+    @Override public int getOperationBagSize() {
+        return memory().recent_operations.size();
+    }
+    @Override public double getOperationBagMass() {
+        return mass(memory().recent_operations);
+    }
+    @Override public double getOperationBagAveragePriority() {
+        return memory().recent_operations.getAveragePriority();
+    }
+
+    @Override public int getNewTasksDepth() {
+        return memory().newTasks.size();
+    }
+    @Override public long getNewTasksDropped() {
+        return memory().newTasks.getDropped();
+    }
+
+    @Override public long getDerivations() {
+        return derivations.sum();
+    }
+    @Override public long getRevisions() {
+        return revisions.sum();
+    }
+    @Override public long getAnswers() {
+        return answers.sum();
+    }
+    @Override public long getExecutions() {
+        return executions.sum();
+    }
+    @Override public long getConceptsCreated() {
+        return conceptsCreated.sum();
+    }
+    @Override public long getConceptsEvicted() {
+        return conceptsEvicted.sum();
+    }
+
+    @Override public String[] getEventDispatch() {
+        final List<Map.Entry<Class, LatencyHistogram>> entries = new ArrayList<>(dispatch.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().total(), a.getValue().total()));
+        final String[] lines = new String[entries.size()];
+        for (int i = 0; i < lines.length; i++) {
+            final LatencyHistogram h = entries.get(i).getValue();
+            final long count = h.count();
+            lines[i] = observerName(entries.get(i).getKey()) + " calls=" + count + " total=" + h.total() / 1000 + "us" +
+                " mean=" + (count == 0 ? 0 : h.total() / count / 1000.0) + "us p99=" + h.percentile(0.99) / 1000.0 + "us";
+        }
+        return lines;
+    }
+
+    /** the class which created the observer instead of the name of the generated lambda class */
+    private static String observerName(final Class c) {
+        final String name = c.getName();
+        final int lambda = name.indexOf("$$Lambda");
+        return lambda < 0 ? name : name.substring(0, lambda);
+    }
+
+    @Override public boolean isDispatchTiming() {
+        return DISPATCH_TIMING;
+    }
+    @Override public void setDispatchTiming(final boolean enabled) {
+        this.DISPATCH_TIMING = enabled;
+        if (nar != null) {
+            nar.memory.event.setDispatchTimer(enabled ? timer : null);
+        }
+    }
+
+    @Override public void resetTimings() {
+        cycleLatency.reset();
+        dispatch.clear();
+    }
+
+    /**
+     * Histogram of latencies with 4 buckets per power of two,
+     * the percentiles are accurate to an eighth of their value.
+     */
+    static class LatencyHistogram implements Serializable {
+        private static final int SUB_BUCKETS = 4;
+        private final LongAdder[] buckets = new LongAdder[SUB_BUCKETS * 62];
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        static int bucket(final long nanos) {
+            if (nanos < SUB_BUCKETS) {
+                return (int) Math.max(0, nanos);
+            }
+            final int exp = 63 - Long.numberOfLeadingZeros(nanos);
+            return SUB_BUCKETS * (exp - 1) + (int) ((nanos >>> (exp - 2)) & (SUB_BUCKETS - 1));
+        }
+
+        /** the middle of the values of the bucket */
+        static long value(final int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            final int exp = bucket / SUB_BUCKETS + 1;
+            final long width = 1L << (exp - 2);
+            return (SUB_BUCKETS + bucket % SUB_BUCKETS) * width + width / 2;
+        }
+
+        void record(final long nanos) {
+            buckets[bucket(nanos)].increment();
+            total.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        long count() {
+            long count = 0;
+            for (final LongAdder b : buckets) {
+                count += b.sum();
+            }
+            return count;
+        }
+
+        long total() {
+            return total.sum();
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        /** latency in nanoseconds below which the fraction p of the recorded latencies is, 0 when none are */
+        long percentile(final double p) {
+            final long[] counts = new long[buckets.length];
+            long count = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+                count += counts[i];
+            }
+            final long rank = (long) Math.ceil(p * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(value(i), max());
+                }
+            }
+            return 0;
+        }
+
+        void reset() {
+            for (final LongAdder b : buckets) {
+                b.reset();
+            }
+            total.reset();
+            max.reset();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.main;
+
+/**
+ * Management interface of the Metrics of a reasoner, latencies are in microseconds
+ */
+public interface MetricsMBean {
+
+    long getCycles();
+    /** cycles per second, measured over the last second of cycling */
+    double getCycleRate();
+    double getCycleLatencyP50();
+    double getCycleLatencyP90();
+    double getCycleLatencyP99();
+    double getCycleLatencyMax();
+
+    int getConceptBagSize();
+    double getConceptBagMass();
+    double getConceptBagAveragePriority();
+    int getNovelTaskBagSize();
+    double getNovelTaskBagMass();
+    double getNovelTaskBagAveragePriority();
+    int getSequenceBagSize();
+    double getSequenceBagMass();
+    double getSequenceBagAveragePriority();
+    int getOperationBagSize();
+    double getOperationBagMass();
+    double getOperationBagAveragePriority();
+
+    int getNewTasksDepth();
+    long getNewTasksDropped();
+
+    long getDerivations();
+    long getRevisions();
+    long getAnswers();
+    long getExecutions();
+    long getConceptsCreated();
+    long getConceptsEvicted();
+
+    /** dispatch time of the events per observer, slowest first */
+    String[] getEventDispatch();
+    boolean isDispatchTiming();
+    void setDispatchTiming(boolean enabled);
+
+    /** clears the cycle latencies and the dispatch times */
+    void resetTimings();
+}
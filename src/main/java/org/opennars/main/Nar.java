@@ -45,8 +45,10 @@ import org.opennars.language.Term;
 import org.opennars.operator.Operator;
 import org.opennars.plugin.Plugin;
 import org.opennars.plugin.perception.SensoryChannel;
+import org.opennars.storage.Bag;
 import org.opennars.storage.LevelBag;
 import org.opennars.storage.Memory;
+import org.opennars.storage.SequenceBag;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -74,7 +76,7 @@ import org.opennars.plugin.mental.InternalExperience;
  * @author Patrick Hammer
  */
 public class Nar extends SensoryChannel implements Reasoner, Serializable, Runnable {
-    public Parameters narParameters = new Parameters();
+    public Parameters narParameters;
 
     /* System clock, relatively defined to guarantee the repeatability of behaviors */
     private Long cycle = new Long(0);
@@ -127,6 +129,23 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
         return ret;
     }
 
+    /**
+     * @return a serialized snapshot of this reasoner to restore copies with the same memory from
+     */
+    public NarSnapshot snapshot() throws IOException {
+        return new NarSnapshot(this);
+    }
+
+    /**
+     * Creates a reasoner with a copy of the memory of this one, use a snapshot to restore more than one copy
+     *
+     * @return the new reasoner
+     */
+    public Nar copy() throws IOException, ClassNotFoundException, IllegalAccessException, ParseException,
+            ParserConfigurationException, SAXException, NoSuchMethodException, InstantiationException, InvocationTargetException {
+        return snapshot().restore();
+    }
+
     volatile long minCyclePeriodMS;
 
     /**
@@ -167,7 +186,7 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
     protected transient List<PluginState> plugins = new ArrayList<>(); //was CopyOnWriteArrayList
 
     /** Flag for running continuously  */
-    private transient boolean running = false;
+    private transient volatile boolean running = false;
     /** used by stop() to signal that a running loop should be interrupted */
     private transient boolean stopped = false;
     private transient boolean threadYield;
@@ -191,11 +210,14 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
      */
     public Nar(long narId, String relativeConfigFilePath) throws IOException, InstantiationException, InvocationTargetException, 
             NoSuchMethodException, ParserConfigurationException, SAXException, IllegalAccessException, ParseException, ClassNotFoundException {
-        List<Plugin> pluginsToAdd = ConfigReader.loadParamsFromFileAndReturnPlugins(relativeConfigFilePath, this, this.narParameters);
+        final ConfigReader.CompiledConfig config = ConfigReader.compile(relativeConfigFilePath);
+        this.narParameters = config.newParameters();
+        config.assignFlags();
+        List<Plugin> pluginsToAdd = config.newPlugins(this);
         final Memory m = new Memory(this.narParameters,
-                new LevelBag(narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, this.narParameters),
-                new LevelBag<>(narParameters.NOVEL_TASK_BAG_LEVELS, narParameters.NOVEL_TASK_BAG_SIZE, this.narParameters),
-                new LevelBag<>(narParameters.SEQUENCE_BAG_LEVELS, narParameters.SEQUENCE_BAG_SIZE, this.narParameters),
+                Bag.make(narParameters.CONCEPT_BAG_TYPE, narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, this.narParameters),
+                Bag.make(narParameters.NOVEL_TASK_BAG_TYPE, narParameters.NOVEL_TASK_BAG_LEVELS, narParameters.NOVEL_TASK_BAG_SIZE, this.narParameters),
+                new SequenceBag(new LevelBag<>(narParameters.SEQUENCE_BAG_LEVELS, narParameters.SEQUENCE_BAG_SIZE, this.narParameters)),
                 new LevelBag<>(narParameters.OPERATION_BAG_LEVELS, narParameters.OPERATION_BAG_SIZE, this.narParameters));
         this.memory = m;
         this.memory.narId = narId;
@@ -334,6 +356,15 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
             }
             return;
         }
+        addInput(task);
+    }
+
+    /**
+     * Add a parsed input task, it goes to its sensory channel if there is one
+     *
+     * @param task The input task
+     */
+    public void addInput(final Task task) {
         //check if it should go to a sensory channel instead:
         final Term t = task.getTerm();
         if(t != null && t instanceof Inheritance) {
@@ -515,6 +546,7 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
         }
         stopped = true;
         running = false;
+        memory.newTasks.wakeUp(); //producers waiting for free space drop their tasks instead
     }
 
     /** Execute a fixed number of cycles.*/
@@ -591,6 +623,15 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
         }
     }
 
+    /**
+     * Sets the cycle clock, used when a memory is restored
+     *
+     * @param time the number of cycles which passed
+     */
+    public void setTime(final long time) {
+        cycle = time;
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -0,0 +1,98 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.main;
+
+import org.opennars.io.ConfigReader;
+import org.opennars.io.events.EventEmitter;
+import org.opennars.plugin.Plugin;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Serialized snapshot of a reasoner to create reasoners with the same memory from
+ * <p>
+ * The reasoner is serialized once, every restored copy deserializes the whole memory,
+ * so it takes time in proportion to the size of the memory and shares nothing with the original or the other copies.
+ * The plugins of a copy are created from the config of the reasoner, like when it is loaded from a file,
+ * its parameters are a copy of the parameters of the reasoner.
+ */
+public final class NarSnapshot {
+
+    private final byte[] snapshot;
+    private final String configFilePath;
+
+    /**
+     * Takes a snapshot of a reasoner, which must not run cycles meanwhile
+     *
+     * @param nar The reasoner
+     */
+    public NarSnapshot(final Nar nar) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            synchronized (nar.memory.concepts) {
+                out.writeObject(nar);
+            }
+        }
+        this.snapshot = bytes.toByteArray();
+        this.configFilePath = nar.usedConfigFilePath;
+    }
+
+    /**
+     * @return a new reasoner with a copy of the memory of the snapshot
+     */
+    public Nar restore() throws IOException, ClassNotFoundException, IllegalAccessException, ParseException, ParserConfigurationException,
+            SAXException, NoSuchMethodException, InstantiationException, InvocationTargetException {
+        final Nar ret;
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(snapshot))) {
+            ret = (Nar) in.readObject();
+        }
+        ret.memory.event = new EventEmitter();
+        ret.memory.narId = java.util.UUID.randomUUID().getLeastSignificantBits();
+        ret.plugins = new ArrayList<>();
+        ret.sensoryChannels = new HashMap<>();
+        final ConfigReader.CompiledConfig config = ConfigReader.compile(configFilePath);
+        config.assignFlags();
+        for (final Plugin p : config.newPlugins(ret)) {
+            ret.addPlugin(p);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the size of the snapshot in bytes
+     */
+    public int size() {
+        return snapshot.length;
+    }
+}
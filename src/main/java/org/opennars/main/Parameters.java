@@ -31,7 +31,7 @@ import java.io.Serializable;
  * @author Patrick Hammer
  */
 // TODO< rename this after MVP0 to "ReasonerArguments" >
-public class Parameters implements Serializable {
+public class Parameters implements Serializable, Cloneable {
     /** what this value represents was originally equal to the termlink record length (10), but we may want to adjust it or make it scaled according to duration since it has more to do with time than # of records.  it can probably be increased several times larger since each item should remain in the recording queue for longer than 1 cycle */
     public volatile int NOVELTY_HORIZON = 100000;
 
@@ -43,6 +43,11 @@ public class Parameters implements Serializable {
     //not changeable at runtime as bags would have to be re-constructed
     public int CONCEPT_BAG_SIZE = 10000;
     public int CONCEPT_BAG_LEVELS = 1000;
+    /** Bag implementation of the ConceptBag, "LevelBag" or "SumTreeBag" */
+    public String CONCEPT_BAG_TYPE = "LevelBag";
+    /** Megabytes of off-heap memory for concepts which were removed from the ConceptBag, 0 disables the store.
+     *  The stored concepts are lost when the reasoner is saved or copied */
+    public int COLD_CONCEPT_STORE_SIZE = 0;
     
     /** 
        Cycles per duration.
@@ -121,11 +126,21 @@ public class Parameters implements Serializable {
     /** Size of TermLinkBag */
     public int TERM_LINK_BAG_SIZE = 100;  //was 1000 in new experiment
     public int TERM_LINK_BAG_LEVELS = 10;
+    /** Bag implementation of the TaskLinkBag and TermLinkBag, "LevelBag" or "SumTreeBag" */
+    public String LINK_BAG_TYPE = "LevelBag";
     /** Maximum TermLinks checked for novelty for each TaskLink in TermLinkBag */
     public volatile int TERM_LINK_MAX_MATCHED = 10;
     /** Size of Novel Task Buffer */
     public int NOVEL_TASK_BAG_SIZE = 100;
     public int NOVEL_TASK_BAG_LEVELS = 10;
+    /** Bag implementation of the Novel Task Buffer, "LevelBag" or "SumTreeBag" */
+    public String NOVEL_TASK_BAG_TYPE = "LevelBag";
+    /** Maximum number of new tasks which wait for the next cycle, 0 for no limit like the plain queue */
+    public volatile int NEW_TASKS_CAPACITY = 0;
+    /** Policy of the full new task buffer: "BLOCK" input producers, "DROP_LOWEST" priority task, or "MERGE" duplicates (and drop the lowest) */
+    public volatile String NEW_TASKS_POLICY = "DROP_LOWEST";
+    /** Maximum number of new tasks processed in a cycle, 0 to process all which were there when the cycle started */
+    public volatile int NEW_TASKS_BATCH = 0;
     /**  Size of derived sequence and input event bag */
     public int SEQUENCE_BAG_SIZE = 30;
     public int SEQUENCE_BAG_LEVELS = 10;
@@ -151,6 +166,9 @@ public class Parameters implements Serializable {
     /** Record-length for newly created TermLink's */
     public int TERM_LINK_RECORD_LENGTH =10;
 
+    /** Maximum number of premise pairs whose conclusions are cached for repeated firings, 0 disables the cache */
+    public int PREMISE_CACHE_SIZE = 0;
+
     /** Maximum number of beliefs kept in a Concept */
     public int CONCEPT_BELIEFS_MAX = 28; //was 7
 
@@ -266,6 +284,9 @@ public class Parameters implements Serializable {
 
     /** Sequence bag forget durations **/
     public volatile float EVENT_FORGET_DURATIONS = 4.0f;
+
+    /** Forget according to the cycles passed since an item was last forgotten instead of on every access */
+    public volatile boolean LAZY_FORGETTING = false;
     
     
     /** Default threads amount at startup */
@@ -279,4 +300,25 @@ public class Parameters implements Serializable {
     
     /** Timing mode, steps or real time */
     public volatile boolean STEPS_CLOCK = true;
+
+    /** Threads which parse the lines the shell reads from stdin, 0 to add the lines one by one */
+    public volatile int INPUT_PARSER_THREADS = 0;
+
+    /** Maximum number of lines the shell parses and adds at once */
+    public volatile int INPUT_BATCH_SIZE = 256;
+
+    /** The shell waits with adding input while more new tasks wait for the next cycle */
+    public volatile int INPUT_MAX_NEW_TASKS = 1000;
+
+    /**
+     * @return a copy of the parameters, all of them are values
+     */
+    @Override
+    public Parameters clone() {
+        try {
+            return (Parameters) super.clone();
+        } catch (final CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
 }
@@ -23,6 +23,8 @@
  */
 package org.opennars.main;
 
+import org.opennars.entity.Task;
+import org.opennars.io.Narsese;
 import org.opennars.io.events.TextOutputHandler;
 import org.xml.sax.SAXException;
 
@@ -30,6 +32,17 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.commons.lang3.StringUtils;
 import org.opennars.language.Term;
 
 /**
@@ -163,6 +176,116 @@ public class Shell {
         }
     }
 
+    /**
+     * Reads the input in batches of lines which are parsed on a pool of threads,
+     * the parsed tasks are added in the order of the lines while the memory isn't flooded with new tasks
+     */
+    public static class BatchInputThread extends Thread {
+        private final BufferedReader bufIn;
+        private final Nar nar;
+        private final ExecutorService parsers;
+        /** parsed batches in the order of the input */
+        private final BlockingQueue<Future<Object[]>> batches;
+
+        public BatchInputThread(final InputStream in, final Nar nar) {
+            super("BatchInputThread");
+            this.bufIn = new BufferedReader(new InputStreamReader(in), 1 << 16);
+            this.nar = nar;
+            final int threads = nar.narParameters.INPUT_PARSER_THREADS;
+            this.parsers = Executors.newFixedThreadPool(threads, r -> {
+                final Thread t = new Thread(r, "InputParser");
+                t.setDaemon(true);
+                return t;
+            });
+            this.batches = new ArrayBlockingQueue<>(threads * 2);
+            setDaemon(true);
+        }
+
+        public void run() {
+            final Thread submitter = new Thread(this::submit, "InputSubmitter");
+            submitter.setDaemon(true);
+            submitter.start();
+            try {
+                while (true) {
+                    final String first = bufIn.readLine();
+                    if (first == null) {
+                        break;
+                    }
+                    final List<String> lines = new ArrayList<>();
+                    lines.add(first);
+                    while (lines.size() < nar.narParameters.INPUT_BATCH_SIZE && bufIn.ready()) {
+                        lines.add(bufIn.readLine());
+                    }
+                    batches.put(parsers.submit(() -> parse(lines)));
+                }
+                batches.put(parsers.submit(() -> null)); //end of input
+            } catch (final IOException e) {
+                throw new IllegalStateException("Could not read line.", e);
+            } catch (final InterruptedException e) {
+                throw new IllegalStateException("Unexpectadly interrupted while reading.", e);
+            }
+        }
+
+        /**
+         * @return the parsed task of each line, the lines which have to be added by the Nar itself (commands, errors), or null for skipped lines
+         */
+        private Object[] parse(final List<String> lines) {
+            final Narsese narsese = new Narsese(nar);
+            final Object[] parsed = new Object[lines.size()];
+            for (int i = 0; i < parsed.length; i++) {
+                final String text = lines.get(i) == null ? "" : lines.get(i).trim();
+                if (text.isEmpty() || text.startsWith("'") || text.startsWith("//")) {
+                    continue;
+                }
+                if (text.startsWith("*") || StringUtils.isNumeric(text)) {
+                    parsed[i] = text;
+                    continue;
+                }
+                try {
+                    parsed[i] = narsese.parseTask(text);
+                } catch (final Exception ex) {
+                    parsed[i] = text; //let the Nar report it
+                }
+            }
+            return parsed;
+        }
+
+        private void submit() {
+            try {
+                while (true) {
+                    final Object[] parsed = batches.take().get();
+                    if (parsed == null) {
+                        break;
+                    }
+                    for (final Object o : parsed) {
+                        if (o == null) {
+                            continue;
+                        }
+                        while (nar.memory.newTaskCount() > nar.narParameters.INPUT_MAX_NEW_TASKS) {
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                        }
+                        try {
+                            if (o instanceof Task) {
+                                nar.addInput((Task) o);
+                            } else {
+                                nar.addInput((String) o);
+                            }
+                        } catch (final Exception ex) {
+                            if (MiscFlags.DEBUG) {
+                                throw new IllegalStateException("error parsing:" + o, ex);
+                            }
+                            System.out.println("parsing error");
+                        }
+                    }
+                }
+            } catch (final InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Input submission failed.", e);
+            } finally {
+                parsers.shutdown();
+            }
+        }
+    }
+
     /**
      * non-static equivalent to {@link #main(String[])} : finish to completion from an addInput file
      */
@@ -178,8 +301,12 @@ public class Shell {
         if (hasInputFile) {
             nar.addInputFile(args[2]);
         }
-        it = new InputThread(System.in, nar);
-        it.start();
+        if (nar.narParameters.INPUT_PARSER_THREADS > 0) {
+            new BatchInputThread(System.in, nar).start();
+        } else {
+            it = new InputThread(System.in, nar);
+            it.start();
+        }
 
         final int numberOfSteps = hasNumberOfSteps ? Integer.parseInt(args[3]) : -1;
 
@@ -166,13 +166,16 @@ public class Anticipate extends Operator implements EventObserver {
         newTasks.clear();        
     }
     
+    /** own context for the derivations of the expired anticipations, the one of the event is pooled and gets released */
     private transient DerivationContext nal; //don't serialize, it will be re-set after deserialization
     @Override
     public void event(final Class event, final Object[] args) {
         if (event == Events.InduceSucceedingEvent.class || event == Events.TaskDerive.class) {            
             final Task newEvent = (Task)args[0];
-            DerivationContext nal= (DerivationContext)args[1];
-            this.nal = nal;
+            final DerivationContext nal= (DerivationContext)args[1];
+            if (this.nal == null || this.nal.memory != nal.memory) {
+                this.nal = new DerivationContext(nal.memory, nal.narParameters, nal.time);
+            }
             
             if (newEvent.sentence.truth != null && newEvent.sentence.isJudgment() && newEvent.sentence.truth.getExpectation() > nal.narParameters.DEFAULT_CONFIRMATION_EXPECTATION && !newEvent.sentence.isEternal()) {
                 if(newTasks == null) {
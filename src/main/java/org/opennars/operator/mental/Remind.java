@@ -46,9 +46,15 @@ public class Remind extends Operator {
     }
     
     public void activate(final Memory memory, final Concept c, final BudgetValue b, final Activating mode) {
-        memory.concepts.take(c.name());
-        BudgetFunctions.activate(c.budget, b, mode);
-        memory.concepts.putBack(c, memory.cycles(memory.narParameters.CONCEPT_FORGET_DURATIONS), memory);
+        final float forgetCycles = memory.cycles(memory.narParameters.CONCEPT_FORGET_DURATIONS);
+        final Concept updated = memory.concepts.update(c.name(), budget -> {
+            BudgetFunctions.activate(budget, b, mode);
+            BudgetFunctions.applyForgetting(budget, forgetCycles, memory);
+        });
+        if (updated == null) {
+            BudgetFunctions.activate(c.budget, b, mode);
+            memory.concepts.putBack(c, forgetCycles, memory);
+        }
     }
 
     /**
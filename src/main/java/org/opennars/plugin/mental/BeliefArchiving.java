@@ -0,0 +1,118 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.plugin.mental;
+
+import org.opennars.entity.Concept;
+import org.opennars.entity.Task;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.Events;
+import org.opennars.io.events.OutputHandler.ERR;
+import org.opennars.main.Nar;
+import org.opennars.plugin.Plugin;
+import org.opennars.storage.BeliefArchive;
+import org.opennars.storage.Memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Long-term memory: the strongest eternal beliefs of forgotten concepts are kept in a BeliefArchive,
+ * they are restored when the concept gets created again
+ */
+public class BeliefArchiving implements Plugin {
+
+    public EventObserver obs;
+
+    public volatile String directory = "beliefs";
+    public volatile int SEGMENT_SIZE = 16 << 20;
+    public volatile int BELIEFS_PER_CONCEPT = 3;
+    public void setBELIEFS_PER_CONCEPT(double val) {
+        this.BELIEFS_PER_CONCEPT = (int) val;
+    }
+    public double getBELIEFS_PER_CONCEPT() {
+        return BELIEFS_PER_CONCEPT;
+    }
+
+    private BeliefArchive archive;
+
+    public BeliefArchiving(){}
+    public BeliefArchiving(String directory, int SEGMENT_SIZE, int BELIEFS_PER_CONCEPT) {
+        this.directory = directory;
+        this.SEGMENT_SIZE = SEGMENT_SIZE;
+        this.BELIEFS_PER_CONCEPT = BELIEFS_PER_CONCEPT;
+    }
+
+    @Override public boolean setEnabled(final Nar n, final boolean enabled) {
+        final Memory memory = n.memory;
+
+        if(obs==null) {
+            obs = (event, a) -> {
+                final Concept c = (Concept) a[0];
+                final List<Task> beliefs = new ArrayList<>();
+                synchronized (c) {
+                    for (final Task t : c.beliefs) { //sorted by rank
+                        if (beliefs.size() >= BELIEFS_PER_CONCEPT) {
+                            break;
+                        }
+                        if (t.sentence.isEternal()) {
+                            beliefs.add(t);
+                        }
+                    }
+                }
+                if (beliefs.isEmpty()) {
+                    return;
+                }
+                try {
+                    archive.archive(c.getTerm(), beliefs, memory);
+                } catch (final IOException ex) {
+                    memory.emit(ERR.class, ex);
+                }
+            };
+        }
+
+        try {
+            if (archive != null) { //enabled again, the new archive owns the segment files
+                memory.beliefArchive = null;
+                archive.close();
+                archive = null;
+            }
+            if (enabled) {
+                archive = new BeliefArchive(new File(directory), SEGMENT_SIZE);
+                memory.beliefArchive = archive;
+            }
+        } catch (final IOException ex) {
+            memory.emit(ERR.class, ex);
+            return false;
+        }
+
+        memory.event.set(obs, enabled, Events.ConceptForget.class);
+        return true;
+    }
+
+    public BeliefArchive getArchive() {
+        return archive;
+    }
+}
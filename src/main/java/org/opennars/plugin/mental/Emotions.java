@@ -83,6 +83,8 @@ public class Emotions implements Plugin, Serializable {
         this.busy = 0.5f;
         this.lastbusy = 0.5f;
         this.lasthappy = 0.5f;
+        this.last_happy_time = 0;
+        this.last_busy_time = 0;
     }
     
     public Emotions(){}
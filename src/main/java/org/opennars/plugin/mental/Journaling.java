@@ -0,0 +1,230 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.plugin.mental;
+
+import org.opennars.control.DerivationContext;
+import org.opennars.entity.Concept;
+import org.opennars.entity.Task;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.Events;
+import org.opennars.io.events.OutputHandler.ERR;
+import org.opennars.io.events.OutputHandler.IN;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.plugin.Plugin;
+import org.opennars.storage.Memory;
+import org.opennars.storage.MemoryJournal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Continuous persistence: input tasks are logged in a MemoryJournal, and the concepts which changed
+ * are checkpointed every CHECKPOINT_CYCLES cycles, every FULL_CHECKPOINT_INTERVAL-th checkpoint contains all concepts.
+ * The log is flushed at the end of each cycle. A reasoner with the same config recovers the state with recover().
+ * <p>
+ * A concept counts as changed when it is created, activated, fired, processes a task, or when links or
+ * tasks are added to or removed from it.
+ * The concepts of a checkpoint are serialized at the end of a cycle, a full checkpoint pauses the reasoner
+ * for the time it takes to serialize the whole memory.
+ * Since nothing may change the concepts meanwhile checkpoints need a single reasoner thread (THREADS_AMOUNT 1).
+ */
+public class Journaling implements Plugin {
+
+    public EventObserver obs;
+
+    public volatile String directory = "journal";
+    public volatile int CHECKPOINT_CYCLES = 1000;
+    public volatile int FULL_CHECKPOINT_INTERVAL = 10;
+    public void setCHECKPOINT_CYCLES(double val) {
+        this.CHECKPOINT_CYCLES = (int) val;
+    }
+    public double getCHECKPOINT_CYCLES() {
+        return CHECKPOINT_CYCLES;
+    }
+
+    private MemoryJournal journal;
+    private Nar nar;
+
+    /** concepts which changed and terms of concepts which were forgotten since the last checkpoint, by term */
+    private final Map<Term, Concept> changed = new LinkedHashMap<>();
+    private final Map<Term, Term> forgotten = new LinkedHashMap<>();
+    private long cycles = 0;
+    private long checkpoints = 0;
+    /** inputs of operations during a cycle are results of the reasoning, they aren't logged */
+    private volatile Thread cycleThread = null;
+    private volatile boolean replaying = false;
+
+    public Journaling(){}
+    public Journaling(String directory, int CHECKPOINT_CYCLES, int FULL_CHECKPOINT_INTERVAL) {
+        this.directory = directory;
+        this.CHECKPOINT_CYCLES = CHECKPOINT_CYCLES;
+        this.FULL_CHECKPOINT_INTERVAL = FULL_CHECKPOINT_INTERVAL;
+    }
+
+    @Override public boolean setEnabled(final Nar n, final boolean enabled) {
+        final Memory memory = n.memory;
+        this.nar = n;
+        if (enabled && n.narParameters.THREADS_AMOUNT > 1) {
+            memory.emit(ERR.class, new IllegalStateException("journaling needs a single reasoner thread"));
+            return false;
+        }
+
+        if(obs==null) {
+            obs = (event, a) -> {
+                if (event == IN.class) {
+                    if (!replaying && Thread.currentThread() != cycleThread && a[0] instanceof Task) {
+                        try {
+                            journal.logInput((Task) a[0], n.time(), memory);
+                        } catch (final IOException ex) {
+                            memory.emit(ERR.class, ex);
+                        }
+                    }
+                } else if (event == Events.CycleStart.class) {
+                    cycleThread = Thread.currentThread();
+                } else if (event == Events.CycleEnd.class) {
+                    cycleThread = null;
+                    cycleEnd(memory);
+                } else if (event == Events.ConceptForget.class) {
+                    final Concept c = (Concept) a[0];
+                    synchronized (changed) {
+                        changed.remove(c.getTerm());
+                        forgotten.put(c.getTerm(), c.getTerm());
+                    }
+                } else {
+                    final Concept c = changedConcept(event, a);
+                    if (c != null) {
+                        synchronized (changed) {
+                            changed.put(c.getTerm(), c);
+                            forgotten.remove(c.getTerm());
+                        }
+                    }
+                }
+            };
+        }
+
+        try {
+            if (enabled) {
+                journal = new MemoryJournal(new File(directory));
+                checkpoints = 0;
+            } else if (journal != null) {
+                journal.close();
+            }
+        } catch (final IOException ex) {
+            memory.emit(ERR.class, ex);
+            return false;
+        }
+
+        memory.event.set(obs, enabled, IN.class, Events.CycleStart.class, Events.CycleEnd.class, Events.ConceptForget.class,
+            Events.ConceptNew.class, Events.ConceptActivate.class, Events.ConceptFire.class, Events.TaskImmediateProcess.class,
+            Events.TaskLinkAdd.class, Events.TaskLinkRemove.class, Events.TermLinkAdd.class, Events.TermLinkRemove.class,
+            Events.ConceptBeliefAdd.class, Events.ConceptBeliefRemove.class, Events.ConceptGoalAdd.class, Events.ConceptGoalRemove.class,
+            Events.ConceptQuestionAdd.class, Events.ConceptQuestionRemove.class,
+            Events.EnactableExplainationAdd.class, Events.EnactableExplainationRemove.class);
+        return true;
+    }
+
+    /* the concept which was changed by the event */
+    private static Concept changedConcept(final Class event, final Object[] a) {
+        if (event == Events.ConceptFire.class) {
+            return ((DerivationContext) a[0]).getCurrentConcept();
+        }
+        if (event == Events.TaskImmediateProcess.class) {
+            return ((DerivationContext) a[1]).getCurrentConcept();
+        }
+        if (event == Events.TaskLinkAdd.class || event == Events.TaskLinkRemove.class ||
+            event == Events.TermLinkAdd.class || event == Events.TermLinkRemove.class) {
+            return (Concept) a[1];
+        }
+        return (Concept) a[0]; //concept events and the tables of the concept
+    }
+
+    /**
+     * Restores the state which was journaled by a reasoner with the same config,
+     * followed by a full checkpoint
+     */
+    public void recover() throws IOException, ClassNotFoundException {
+        replaying = true;
+        try {
+            journal.recover(nar);
+        } finally {
+            replaying = false;
+        }
+        checkpoint(nar.memory, true, nar.time());
+        journal.awaitCheckpoint();
+    }
+
+    public MemoryJournal getJournal() {
+        return journal;
+    }
+
+    private void cycleEnd(final Memory memory) {
+        try {
+            if (replaying) {
+                return;
+            }
+            final long time = nar.time() + 1; //the clock advances after the cycle
+            if (++cycles % CHECKPOINT_CYCLES == 0) {
+                checkpoint(memory, checkpoints % FULL_CHECKPOINT_INTERVAL == 0, time);
+            } else {
+                journal.logTime(time);
+                journal.flush();
+            }
+        } catch (final IOException ex) {
+            memory.emit(ERR.class, ex);
+        }
+    }
+
+    private void checkpoint(final Memory memory, final boolean full, final long time) throws IOException {
+        if (nar.narParameters.THREADS_AMOUNT > 1) {
+            throw new IOException("checkpoints need a single reasoner thread, THREADS_AMOUNT is " + nar.narParameters.THREADS_AMOUNT);
+        }
+        final List<Concept> concepts;
+        final List<Term> removed;
+        //the concept bag is locked first, like while it emits the events of the concepts
+        synchronized (memory.concepts) {
+            synchronized (changed) {
+                if (full) {
+                    concepts = new ArrayList<>(memory.concepts.size());
+                    for (final Concept c : memory.concepts) {
+                        concepts.add(c);
+                    }
+                    removed = Collections.emptyList();
+                } else {
+                    concepts = new ArrayList<>(changed.values());
+                    removed = new ArrayList<>(forgotten.keySet());
+                }
+                changed.clear();
+                forgotten.clear();
+            }
+        }
+        journal.checkpoint(memory, concepts, removed, full, time);
+        checkpoints++;
+    }
+}
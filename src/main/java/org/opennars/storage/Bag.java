@@ -23,13 +23,37 @@
  */
 package org.opennars.storage;
 
+import org.opennars.entity.BudgetValue;
 import org.opennars.entity.Item;
 import org.opennars.inference.BudgetFunctions;
+import org.opennars.main.Parameters;
 
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 public abstract class Bag<E extends Item<K>,K> implements Iterable<E> {
 
+    /** weight of the items without priority, so that they can still be sampled */
+    private static final float MIN_SAMPLE_WEIGHT = 0.0001f;
+
+    /**
+     * Create a bag of the configured implementation
+     *
+     * @param type "LevelBag" or "SumTreeBag"
+     * @param levels priority levels, only used by LevelBag
+     * @param capacity maximum number of items
+     * @return the new bag
+     */
+    public static <E extends Item<K>,K> Bag<E,K> make(final String type, final int levels, final int capacity, final Parameters narParameters) {
+        if (type == null || type.equals("LevelBag")) {
+            return new LevelBag<>(levels, capacity, narParameters);
+        }
+        if (type.equals("SumTreeBag")) {
+            return new SumTreeBag<>(capacity);
+        }
+        throw new IllegalArgumentException("Unknown bag type: " + type);
+    }
+
     public abstract void clear();   
     
     /**
@@ -83,6 +107,25 @@ public abstract class Bag<E extends Item<K>,K> implements Iterable<E> {
         }
     }
 
+    /**
+     * Change the budget of an item which stays in the bag
+     * <p>
+     * Replaces take(key) followed by putBack/putIn, implementations relink the item only if needed
+     *
+     * @param key The key of the item
+     * @param budgetFn applied to the budget of the item
+     * @return the updated item, or null if there is no item with the key (the function is not applied then)
+     */
+    public E update(final K key, final Consumer<BudgetValue> budgetFn) {
+        final E item = take(key);
+        if (item == null) {
+            return null;
+        }
+        budgetFn.accept(item.budget);
+        addItem(item);
+        return item;
+    }
+
     /**
      * Removes an item by key
      * 
@@ -126,11 +169,63 @@ public abstract class Bag<E extends Item<K>,K> implements Iterable<E> {
      * @return the item which was removed, or null if none removed
      */    
     public E putBack(final E oldItem, final float forgetCycles, final Memory m) {
-        final float relativeThreshold = m.narParameters.QUALITY_RESCALED;
-        BudgetFunctions.applyForgetting(oldItem.budget, forgetCycles, relativeThreshold);
+        BudgetFunctions.applyForgetting(oldItem.budget, forgetCycles, m);
         return putIn(oldItem);
     }
 
+    /**
+     * Select distinct items according to their priority without taking them out of the bag
+     * <p>
+     * All items are selected before the first one is given to the consumer, so the consumer may change the bag.
+     * The default selects by weighted reservoir sampling over all items.
+     *
+     * @param k The number of items to select
+     * @param consumer called for each selected item
+     * @return the number of selected items, less than k if the bag holds less items
+     */
+    public int sample(final int k, final Consumer<E> consumer) {
+        if (k <= 0) {
+            return 0;
+        }
+        final Object[] selected = new Object[k];
+        final double[] keys = new double[k]; //descending
+        int n = 0;
+        for (final E item : this) {
+            final double key = Math.log(Memory.randomNumber.nextDouble()) / Math.max(item.getPriority(), MIN_SAMPLE_WEIGHT);
+            if (n == k && key <= keys[k - 1]) {
+                continue;
+            }
+            int i = n < k ? n++ : k - 1;
+            for (; i > 0 && keys[i - 1] < key; i--) {
+                selected[i] = selected[i - 1];
+                keys[i] = keys[i - 1];
+            }
+            selected[i] = item;
+            keys[i] = key;
+        }
+        for (int i = 0; i < n; i++) {
+            consumer.accept((E) selected[i]);
+        }
+        return n;
+    }
+
+    /**
+     * Select distinct items like sample(k, consumer) and apply the forgetting once to each of them
+     * after it was consumed, replaces the take and put back of each item
+     *
+     * @param k The number of items to select
+     * @param forgetCycles The forgetting rate
+     * @param m related memory
+     * @param consumer called for each selected item
+     * @return the number of selected items
+     */
+    public int sample(final int k, final float forgetCycles, final Memory m, final Consumer<E> consumer) {
+        return sample(k, item -> {
+            consumer.accept(item);
+            update(item.name(), budget -> BudgetFunctions.applyForgetting(budget, forgetCycles, m));
+        });
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName();// + "(" + size() + "/" + getCapacity() +")";
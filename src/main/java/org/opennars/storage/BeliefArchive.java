@@ -0,0 +1,314 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Task;
+import org.opennars.language.CompoundTerm;
+import org.opennars.language.Term;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only archive of the beliefs of forgotten concepts in memory-mapped segment files
+ * <p>
+ * Each record holds the beliefs of one concept, the index maps the interval-erased term to its latest record,
+ * older records of the same term become garbage.
+ * Segments are filled one after another, when a segment is full the sealed segments
+ * which are mostly garbage get compacted: their live records are copied to the current segment
+ * and their files are deleted. A file which can't be deleted yet, because the platform doesn't allow it while
+ * the file is still mapped, is deleted on a later compaction or when the archive is closed.
+ * The index is rebuilt from the segment files when an archive is opened again.
+ * <p>
+ * record: int length, int name length, name (UTF-8), serialized Task[]; a length of 0 marks the end of a segment
+ */
+public final class BeliefArchive implements Closeable {
+
+    private static final String PREFIX = "beliefs-";
+    private static final String SUFFIX = ".seg";
+
+    private final File directory;
+    private final int segmentSize;
+
+    /** segments by id, the last one is written */
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private Segment current;
+
+    /** position of the latest record for each term, segment id in the high and offset in the low half */
+    private final Map<String, Long> index = new HashMap<>();
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+
+    /** files of compacted segments which couldn't be deleted yet */
+    private final List<File> obsolete = new ArrayList<>();
+
+    private long compactions = 0;
+
+    private static final class Segment {
+        final int id;
+        final File file;
+        final RandomAccessFile raf;
+        final FileChannel channel;
+        MappedByteBuffer map;
+        /** bytes of the records which are referenced by the index */
+        int live = 0;
+
+        Segment(final int id, final File file, final int size) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+            this.channel = raf.getChannel();
+            try {
+                this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (final IOException ex) {
+                raf.close();
+                throw ex;
+            }
+        }
+
+        /** writes the mapped records to the file and releases the mapping and the file */
+        void close() throws IOException {
+            map.force();
+            map = null; //the mapping is released when the buffer is collected
+            raf.close();
+        }
+    }
+
+    /**
+     * Opens the archive in the directory, creating it if necessary
+     *
+     * @param directory The directory of the segment files
+     * @param segmentSize The size of a segment file in bytes
+     */
+    public BeliefArchive(final File directory, final int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("can't create belief archive directory " + directory);
+        }
+        final File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files != null) {
+            for (final File file : files) {
+                final String name = file.getName();
+                final int id = Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                segments.put(id, new Segment(id, file, (int) Math.max(file.length(), segmentSize)));
+            }
+        }
+        for (final Segment segment : segments.values()) {
+            scan(segment);
+        }
+        current = segments.isEmpty() ? newSegment(0) : segments.lastEntry().getValue();
+    }
+
+    /**
+     * Archive beliefs of a concept, they replace the previously archived beliefs of the term
+     *
+     * @param term The term of the concept
+     * @param beliefs The beliefs to archive
+     * @param memory The memory of the beliefs
+     * @return whether the beliefs were archived
+     */
+    public synchronized boolean archive(final Term term, final List<Task> beliefs, final Memory memory) throws IOException {
+        buffer.reset();
+        try (final ObjectOutputStream out = new MemoryStreams.Output(buffer, memory)) {
+            out.writeObject(beliefs.toArray(new Task[0]));
+        }
+        final byte[] name = key(term).getBytes(StandardCharsets.UTF_8);
+        final int length = 4 + name.length + buffer.size();
+        if (length + 8 > segmentSize) {
+            return false;
+        }
+        if (current.map.position() + 4 + length + 4 > segmentSize) {
+            roll();
+            compact();
+        }
+        final int offset = current.map.position();
+        current.map.position(offset + 4);
+        current.map.putInt(name.length);
+        current.map.put(name);
+        current.map.put(buffer.toByteArray(), 0, buffer.size());
+        current.map.putInt(offset, length); //written last, a record is only visible when it is complete
+        index(key(term), current, offset, 4 + length);
+        return true;
+    }
+
+    /**
+     * @param term The term of a concept
+     * @param memory The memory to restore the beliefs into
+     * @return the archived beliefs of the term, empty if there are none
+     */
+    public synchronized List<Task> recall(final Term term, final Memory memory) throws IOException {
+        final Long position = index.get(key(term));
+        if (position == null) {
+            return Collections.emptyList();
+        }
+        final ByteBuffer map = segments.get((int) (position >>> 32)).map.duplicate();
+        final int offset = (int) (position & 0xffffffffL);
+        final int length = map.getInt(offset);
+        final int nameLength = map.getInt(offset + 4);
+        final byte[] bytes = new byte[length - 4 - nameLength];
+        map.position(offset + 8 + nameLength);
+        map.get(bytes);
+        try (final ObjectInputStream in = new MemoryStreams.Input(new ByteArrayInputStream(bytes), memory)) {
+            return new ArrayList<>(Arrays.asList((Task[]) in.readObject()));
+        } catch (final ClassNotFoundException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Copies the live records of the sealed segments which are mostly garbage to the current segment
+     * and deletes their files
+     */
+    public synchronized void compact() throws IOException {
+        deleteObsolete();
+        for (final Segment segment : new ArrayList<>(segments.values())) {
+            if (segment == current || segment.live * 2 > segment.map.position()) {
+                continue;
+            }
+            final ByteBuffer map = segment.map.duplicate();
+            int offset = 0;
+            int length;
+            while (offset + 4 <= map.capacity() && (length = map.getInt(offset)) > 0) {
+                final String key = name(map, offset);
+                final Long position = index.get(key);
+                if (position != null && position == (((long) segment.id << 32) | offset)) {
+                    if (current.map.position() + 4 + length + 4 > segmentSize) {
+                        roll();
+                    }
+                    final int target = current.map.position();
+                    final ByteBuffer record = map.duplicate();
+                    record.position(offset + 4).limit(offset + 4 + length);
+                    current.map.position(target + 4);
+                    current.map.put(record);
+                    current.map.putInt(target, length);
+                    index(key, current, target, 4 + length);
+                }
+                offset += 4 + length;
+            }
+            segments.remove(segment.id);
+            segment.close();
+            if (!segment.file.delete()) {
+                obsolete.add(segment.file);
+            }
+            compactions++;
+        }
+    }
+
+    /**
+     * @return the number of terms with archived beliefs
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    public synchronized long getCompactions() {
+        return compactions;
+    }
+
+    /**
+     * @return the number of files of compacted segments which couldn't be deleted yet
+     */
+    public synchronized int obsoleteCount() {
+        return obsolete.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (final Segment segment : segments.values()) {
+            segment.close();
+        }
+        deleteObsolete();
+    }
+
+    /** tries to delete the files of compacted segments again */
+    private void deleteObsolete() {
+        obsolete.removeIf(file -> file.delete() || !file.exists());
+    }
+
+    private static String key(final Term term) {
+        return CompoundTerm.replaceIntervals(term).name().toString();
+    }
+
+    private static String name(final ByteBuffer map, final int offset) {
+        final byte[] name = new byte[map.getInt(offset + 4)];
+        final ByteBuffer b = map.duplicate();
+        b.position(offset + 8);
+        b.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /** makes the record the latest one of its term */
+    private void index(final String key, final Segment segment, final int offset, final int size) {
+        final Long old = index.put(key, ((long) segment.id << 32) | offset);
+        if (old != null) {
+            final Segment oldSegment = segments.get((int) (old >>> 32));
+            oldSegment.live -= oldSegment.map.getInt((int) (old & 0xffffffffL)) + 4;
+        }
+        segment.live += size;
+    }
+
+    /** reads the records of a segment into the index and positions it after the last one */
+    private void scan(final Segment segment) {
+        int offset = 0;
+        int length;
+        while (offset + 4 <= segment.map.capacity() && (length = segment.map.getInt(offset)) > 0) {
+            index(name(segment.map, offset), segment, offset, 4 + length);
+            offset += 4 + length;
+        }
+        segment.map.position(offset);
+    }
+
+    private void roll() throws IOException {
+        current.map.force();
+        current = newSegment(segments.lastKey() + 1);
+    }
+
+    private Segment newSegment(final int id) throws IOException {
+        final Segment segment = new Segment(id, new File(directory, String.format("%s%08d%s", PREFIX, id, SUFFIX)), segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+}
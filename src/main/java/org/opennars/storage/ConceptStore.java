@@ -0,0 +1,208 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Concept;
+import org.opennars.language.Term;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Off-heap store of the concepts which were displaced from the concept bag
+ * <p>
+ * Concepts are serialized into direct byte buffer segments which are filled one after another,
+ * the index maps the term of a concept to the position of its record.
+ * When all segments are full the oldest one is recycled, the concepts which are still in it get dropped.
+ * The memory, its parameters and the operators are not serialized with a concept, see MemoryStreams.
+ * The store lives outside the heap of the memory, it isn't part of a saved or copied reasoner.
+ */
+public final class ConceptStore {
+
+    private static final int MAX_SEGMENT_SIZE = 64 << 20;
+
+    private final long capacity;
+    private final int segmentSize;
+    private final ByteBuffer[] segments;
+    /** terms of the records in each segment, in the order they were written */
+    private final List<Term>[] segmentTerms;
+    /** segment which is currently written */
+    private int current = 0;
+
+    /** position of the record for each term, segment in the high and offset in the low half */
+    private final Map<Term, Long> index = new HashMap<>();
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+
+    private long stored = 0;
+    private long restored = 0;
+    private long dropped = 0;
+
+    /**
+     * @param capacity size of the off-heap region in bytes
+     */
+    public ConceptStore(final long capacity) {
+        this.capacity = capacity;
+        this.segmentSize = (int) Math.max(1, Math.min(MAX_SEGMENT_SIZE, capacity / 4));
+        final int count = (int) Math.max(1, (capacity + segmentSize - 1) / segmentSize);
+        this.segments = new ByteBuffer[count];
+        this.segmentTerms = new List[count];
+        for (int i = 0; i < count; i++) {
+            segmentTerms[i] = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Serialize a concept into the store, replacing a previously stored concept of the same term
+     *
+     * @param concept The concept which was removed from memory
+     * @return whether the concept was stored
+     */
+    public synchronized boolean put(final Concept concept) {
+        buffer.reset();
+        try (final ObjectOutputStream out = new MemoryStreams.Output(buffer, concept.memory)) {
+            out.writeObject(concept);
+        } catch (final IOException ex) {
+            return false;
+        }
+        final int length = buffer.size();
+        if (length + 4 > segmentSize) {
+            return false;
+        }
+        index.remove(concept.getTerm());
+
+        ByteBuffer segment = segment(current);
+        if (segment.remaining() < length + 4) {
+            current = (current + 1) % segments.length;
+            recycle(current);
+            segment = segment(current);
+        }
+        final int offset = segment.position();
+        segment.putInt(length);
+        segment.put(buffer.toByteArray(), 0, length);
+        segmentTerms[current].add(concept.getTerm());
+        index.put(concept.getTerm(), ((long) current << 32) | offset);
+        stored++;
+        return true;
+    }
+
+    /**
+     * Remove the concept of a term from the store
+     *
+     * @param term The term of the concept
+     * @param memory The memory the concept is restored into
+     * @return the restored concept, or null if it isn't in the store
+     */
+    public synchronized Concept take(final Term term, final Memory memory) {
+        final Long position = index.remove(term);
+        if (position == null) {
+            return null;
+        }
+        final ByteBuffer segment = segments[(int) (position >>> 32)].duplicate();
+        segment.position((int) (position & 0xffffffffL));
+        final byte[] bytes = new byte[segment.getInt()];
+        segment.get(bytes);
+        try (final ObjectInputStream in = new MemoryStreams.Input(new ByteArrayInputStream(bytes), memory)) {
+            final Concept concept = (Concept) in.readObject();
+            restored++;
+            return concept;
+        } catch (final IOException | ClassNotFoundException ex) {
+            dropped++;
+            return null;
+        }
+    }
+
+    public synchronized boolean contains(final Term term) {
+        return index.containsKey(term);
+    }
+
+    /**
+     * @return the number of stored concepts
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        for (int i = 0; i < segments.length; i++) {
+            segmentTerms[i].clear();
+            if (segments[i] != null) {
+                segments[i].clear();
+            }
+        }
+        current = 0;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getStored() {
+        return stored;
+    }
+
+    public synchronized long getRestored() {
+        return restored;
+    }
+
+    /**
+     * @return the number of concepts which were lost because their segment got recycled
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    private ByteBuffer segment(final int i) {
+        if (segments[i] == null) {
+            segments[i] = ByteBuffer.allocateDirect(segmentSize);
+        }
+        return segments[i];
+    }
+
+    /**
+     * Drops the concepts which are still in a segment and makes it writable from the start
+     */
+    private void recycle(final int i) {
+        for (final Term term : segmentTerms[i]) {
+            final Long position = index.get(term);
+            if (position != null && (int) (position >>> 32) == i) {
+                index.remove(term);
+                dropped++;
+            }
+        }
+        segmentTerms[i].clear();
+        if (segments[i] != null) {
+            segments[i].clear();
+        }
+    }
+}
@@ -23,6 +23,7 @@
  */
 package org.opennars.storage;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -30,12 +31,16 @@ import java.util.Map;
 /**
  * A pseudo-random number generator, used in Bag.
  */
-public final class Distributor {
+public final class Distributor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /** Shuffled sequence of index numbers */
     public final short order[];
     /** Capacity of the array */
     public final int capacity;
+    /** Ascending indices in order for each number */
+    private final int[][] positions;
 
     private final static Map<Integer,Distributor> distributors = new HashMap(8);
     public static Distributor get(final int range) {
@@ -47,6 +52,11 @@ public final class Distributor {
         return d;
     }
     
+    /** deserialized distributors are replaced by the shared instance of their range */
+    private Object readResolve() {
+        return get(positions.length);
+    }
+
     /**
      * For any number N &lt; range, there is N+1 copies of it in the array, distributed as evenly as possible
      * @param range Range of valid numbers
@@ -69,6 +79,32 @@ public final class Distributor {
                 order[index] = (short)(rank - 1);
             }
         }
+
+        positions = new int[range][];
+        final int[] count = new int[range];
+        for (int n = 0; n < range; n++) {
+            positions[n] = new int[n + 1];
+        }
+        for (index = 0; index < capacity; index++) {
+            final int n = order[index];
+            positions[n][count[n]++] = index;
+        }
+    }
+
+    /**
+     * Get the distance to the next occurrence of a number
+     * @param number The number to look for
+     * @param index The current index
+     * @return how many indices to advance until the number is picked, 0 if it is picked at the index
+     */
+    public final int distance(final int number, final int index) {
+        final int[] p = positions[number];
+        int i = Arrays.binarySearch(p, index);
+        if (i >= 0) {
+            return 0;
+        }
+        i = -i - 1;
+        return i < p.length ? p[i] - index : p[0] + capacity - index;
     }
 
     /**
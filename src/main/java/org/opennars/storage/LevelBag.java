@@ -23,11 +23,13 @@
  */
 package org.opennars.storage;
 
+import org.opennars.entity.BudgetValue;
 import org.opennars.entity.Item;
 import org.opennars.main.MiscFlags;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.Consumer;
 import org.opennars.main.Parameters;
 
 /**
@@ -49,6 +51,12 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
      * shared DISTRIBUTOR that produce the probability distribution
      */
     final short[] DISTRIBUTOR;
+    final Distributor distributor;
+
+    /**
+     * scheduled levels which are checked one by one before jumping to the next occupied one
+     */
+    private static final int LINEAR_PROBES = 16;
 
     /**
      * mapping from key to item
@@ -61,6 +69,11 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
      */
     public final Level<E>[] level;
 
+    /**
+     * bit i is set if level i is not empty
+     */
+    private final long[] occupied;
+
     /**
      * defined in different bags
      */
@@ -95,7 +108,9 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
         this.capacity = capacity;
         nameTable = new HashMap<>(capacity);
         level = new Level[this.levels];
-        DISTRIBUTOR = Distributor.get(this.levels).order;
+        occupied = new long[(this.levels + 63) >>> 6];
+        distributor = Distributor.get(this.levels);
+        DISTRIBUTOR = distributor.order;
         distributorLength = DISTRIBUTOR.length;        
         clear();
     }
@@ -116,7 +131,29 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
     }
     
     public boolean levelEmpty(int i) {
-        return level[i]==null || level[i].isEmpty();
+        return (occupied[i >>> 6] & (1L << i)) == 0;
+    }
+
+    private void levelFilled(final int i) {
+        occupied[i >>> 6] |= 1L << i;
+    }
+
+    private void levelRemoved(final int i) {
+        if (level[i].isEmpty()) {
+            occupied[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    /**
+     * @return the lowest non-empty level, -1 if all are empty
+     */
+    private int lowestNonEmptyLevel() {
+        for (int w = 0; w < occupied.length; w++) {
+            if (occupied[w] != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(occupied[w]);
+            }
+        }
+        return -1;
     }
     
     @Override
@@ -126,6 +163,7 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
                 level[i].clear();
             }
         }
+        Arrays.fill(occupied, 0);
         nameTable.clear();
         currentLevel = levels - 1;
         levelIndex = capacity % levels; // so that different bags start at different point
@@ -188,19 +226,18 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
     
     /** look for a non-empty level */
     protected void nextNonEmptyLevel() {
-        int cl = currentLevel;
-        
-        // we need to do this this way to avoid a overflow of levelIndex
-        do {
-            if( !levelEmpty(cl = DISTRIBUTOR[levelIndex % distributorLength]) ) {
-                levelIndex++;
+        int index = levelIndex % distributorLength;
+        int probes = LINEAR_PROBES;
+        while (levelEmpty(DISTRIBUTOR[index])) {
+            if (--probes == 0) { // sparse bag, jump to the next scheduled occupied level
+                index = nextOccupiedIndex(index);
                 break;
             }
-
-            levelIndex = (levelIndex+1) % distributorLength;
-        } while (true);
+            index = (index + 1) % distributorLength;
+        }
+        levelIndex = index + 1;
         
-        currentLevel = cl;  
+        currentLevel = DISTRIBUTOR[index];  
         if (currentLevel < fireCompleteLevelThreshold) { // for dormant levels, take one item
             currentCounter = 1;
         } else {                  // for active levels, take all current items
@@ -208,6 +245,31 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
         }
     }
     
+    /**
+     * @param index current index of the distributor
+     * @return the first index at or after the current one which picks a non-empty level
+     */
+    private int nextOccupiedIndex(final int index) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int w = 0; w < occupied.length; w++) {
+            long bits = occupied[w];
+            while (bits != 0) {
+                final int l = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                final int distance = distributor.distance(l, index);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = l;
+                }
+            }
+        }
+        if (best == -1) {
+            throw new IllegalStateException("No non-empty level to select");
+        }
+        return (index + bestDistance) % distributorLength;
+    }
+
     @Override
     public E takeNext() {
         if (size() == 0) {
@@ -224,26 +286,44 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
         return selected;
     }
 
+    /**
+     * Selects the items like takeNext would take them out one after another: the distributor decides the level,
+     * the items of a level are selected in their order. The selection continues with the next scheduled level afterwards.
+     */
+    @Override
+    public int sample(final int k, final Consumer<E> consumer) {
+        final int n = Math.min(k, size());
+        if (n <= 0) {
+            return 0;
+        }
+        final List<E> selected = new ArrayList<>(n);
+        final int[] skip = new int[levels]; //items of each level which were already selected
+        while (selected.size() < n) {
+            nextNonEmptyLevel();
+            final Iterator<E> items = level[currentLevel].iterator();
+            for (int i = 0; i < skip[currentLevel]; i++) {
+                items.next();
+            }
+            for (int i = 0; i < currentCounter && items.hasNext() && selected.size() < n; i++) {
+                selected.add(items.next());
+                skip[currentLevel]++;
+            }
+        }
+        currentCounter = 0;
+        for (final E item : selected) {
+            consumer.accept(item);
+        }
+        return n;
+    }
+
     @Override public E take(final K name) {
         final E oldItem = nameTable.remove(name);
         if (oldItem == null) {
             return null;
         }
-        final int expectedLevel = getLevel(oldItem);
-        //TODO scan up/down iteratively, it is likely to be near where it was
-        if (!levelEmpty(expectedLevel)) {
-            if (level[expectedLevel].remove(oldItem)) {                
-                removeMass(oldItem);
-                return oldItem;
-            }            
-        }
-        for (int l = 0; l < levels; l++) {
-            if ((!levelEmpty(l)) && (l!=expectedLevel)) {
-                if (level[l].remove(oldItem)) {
-                    removeMass(oldItem);
-                    return oldItem;
-                }
-            }
+        if (removeFromLevel(oldItem, getLevel(oldItem)) >= 0) {
+            removeMass(oldItem);
+            return oldItem;
         }
         //If it wasn't found, it probably was removed already.  So this check is probably not necessary
             //search other levels for this item because it's not where we thought it was according to getLevel()
@@ -257,6 +337,60 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
         return oldItem;
     }
 
+    /**
+     * Remove an item from its level
+     *
+     * @param item The item to remove
+     * @param expectedLevel level according to the priority, searched first
+     * @return the level the item was removed from, -1 if not found
+     */
+    private int removeFromLevel(final E item, final int expectedLevel) {
+        //TODO scan up/down iteratively, it is likely to be near where it was
+        if (!levelEmpty(expectedLevel)) {
+            if (level[expectedLevel].remove(item)) {
+                levelRemoved(expectedLevel);
+                return expectedLevel;
+            }
+        }
+        for (int l = 0; l < levels; l++) {
+            if ((!levelEmpty(l)) && (l!=expectedLevel)) {
+                if (level[l].remove(item)) {
+                    levelRemoved(l);
+                    return l;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Change the budget of an item in place, it is only moved to another level if its level changes
+     */
+    @Override
+    public E update(final K key, final Consumer<BudgetValue> budgetFn) {
+        final E item = nameTable.get(key);
+        if (item == null) {
+            return null;
+        }
+        final int oldLevel = getLevel(item);
+        removeMass(item);
+        budgetFn.accept(item.budget);
+        addMass(item);
+        final int newLevel = getLevel(item);
+        //same level: only rotate it to the end, like a re-insertion would, so the FIFO order within a level is kept
+        if (newLevel == oldLevel && !levelEmpty(oldLevel) && level[oldLevel].remove(item)) {
+            level[oldLevel].add(item);
+        } else {
+            removeFromLevel(item, oldLevel);
+            if (this.level[newLevel] == null) {
+                this.level[newLevel] = new Level<E>();
+            }
+            level[newLevel].add(item);
+            levelFilled(newLevel);
+        }
+        return item;
+    }
+
     /**
      * Decide the put-in level according to priority
      *
@@ -282,10 +416,7 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
         E oldItem = null;
         final int inLevel = getLevel(newItem);
         if (size() >= capacity) {      // the bag will be full after the next 
-            int outLevel = 0;
-            while (levelEmpty(outLevel)) {
-                outLevel++;
-            }
+            final int outLevel = lowestNonEmptyLevel();
             if (outLevel > inLevel) {           // ignore the item and exit
                 return newItem;
             } else {                            // remove an old item in the lowest non-empty level
@@ -296,6 +427,7 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
             this.level[inLevel] = new Level<E>();
         }
         level[inLevel].add(newItem);        // FIFO
+        levelFilled(inLevel);
         nameTable.put(newItem.name(), newItem);        
         addMass(newItem);
         return oldItem;
@@ -309,6 +441,7 @@ public class LevelBag<E extends Item<K>,K> extends Bag<E,K> implements Serializa
      */
     private E takeOutFirst(final int level) {
         final E selected = this.level[level].removeFirst();
+        levelRemoved(level);
         if (selected!=null) {
             nameTable.remove(selected.name());
             removeMass(selected);
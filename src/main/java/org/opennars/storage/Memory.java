@@ -29,6 +29,7 @@ import org.opennars.control.GeneralInferenceControl;
 import org.opennars.control.TemporalInferenceControl;
 import org.opennars.entity.*;
 import org.opennars.inference.BudgetFunctions;
+import org.opennars.inference.PremiseCache;
 import org.opennars.interfaces.Resettable;
 import org.opennars.interfaces.Timable;
 import org.opennars.io.Symbols;
@@ -37,6 +38,7 @@ import org.opennars.io.events.Events;
 import org.opennars.io.events.Events.ResetEnd;
 import org.opennars.io.events.Events.ResetStart;
 import org.opennars.io.events.Events.TaskRemove;
+import org.opennars.io.events.OutputHandler.ERR;
 import org.opennars.io.events.OutputHandler.IN;
 import org.opennars.io.events.OutputHandler.OUT;
 import org.opennars.language.CompoundTerm;
@@ -49,8 +51,10 @@ import org.opennars.operator.Operation;
 import org.opennars.operator.Operator;
 import org.opennars.plugin.mental.Emotions;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.BooleanSupplier;
 import org.opennars.entity.Stamp.BaseEntry;
 
 import static org.opennars.inference.BudgetFunctions.truthToQuality;
@@ -78,11 +82,75 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     //emotion meter keeping track of global emotion
     public Emotions emotion = null;   
     public InternalExperience internalExperience = null;
+    public transient BeliefArchive beliefArchive = null;
     public Task lastDecision = null;
     public boolean allowExecution = true;
 
     public static final long randomSeed = 1;
-    public static final Random randomNumber = new Random(randomSeed);
+    /** random number generator of the reasoning, each thread draws from its own one which resetStatic() seeds */
+    public static final Random randomNumber = new ThreadRandom();
+
+    /**
+     * Random which delegates to a generator per thread, so reasoners which run on different threads
+     * don't interleave their draws and a seeded run only depends on its own thread
+     */
+    private static final class ThreadRandom extends Random {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ThreadLocal<Random> random = ThreadLocal.withInitial(() -> new Random(randomSeed));
+
+        @Override
+        public synchronized void setSeed(final long seed) {
+            if (random != null) { //null while the super constructor seeds
+                random.get().setSeed(seed);
+            }
+        }
+
+        @Override
+        protected int next(final int bits) {
+            return random.get().nextInt() >>> (32 - bits);
+        }
+
+        @Override
+        public void nextBytes(final byte[] bytes) {
+            random.get().nextBytes(bytes);
+        }
+
+        @Override
+        public int nextInt() {
+            return random.get().nextInt();
+        }
+
+        @Override
+        public int nextInt(final int bound) {
+            return random.get().nextInt(bound);
+        }
+
+        @Override
+        public long nextLong() {
+            return random.get().nextLong();
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return random.get().nextBoolean();
+        }
+
+        @Override
+        public float nextFloat() {
+            return random.get().nextFloat();
+        }
+
+        @Override
+        public double nextDouble() {
+            return random.get().nextDouble();
+        }
+
+        @Override
+        public double nextGaussian() {
+            return random.get().nextGaussian();
+        }
+    }
     
     //todo make sense of this class and de-obfuscate
     public final Bag<Concept,Term> concepts;
@@ -98,14 +166,34 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     public final Bag<Task<Term>,Sentence<Term>> novelTasks;
     
     /* Input event tasks that were either input events or derived sequences*/
-    public final Bag<Task<Term>,Sentence<Term>> seq_current;
+    public final SequenceBag seq_current;
     public final Bag<Task<Term>,Sentence<Term>> recent_operations;
 
     /* List of new tasks accumulated in one cycle, to be processed in the next cycle */
-    public final Deque<Task> newTasks;
+    public final TaskBuffer newTasks;
+
+    /* Memory whose cycle the current thread runs, a reasoning thread can't wait for free space in newTasks */
+    private static final ThreadLocal<Memory> cycling = new ThreadLocal<>();
+
+    /* Reasoner which ran the last cycle, producers only wait for free space in newTasks while it runs */
+    private transient volatile Nar reasoner = null;
+    private transient BooleanSupplier producerMayWait = null;
+
+    /* Number of cycles since the last reset, the clock of lazy forgetting */
+    private long cycleCount = 0;
+
+    /* Concepts which were removed from the concept bag, null if disabled.
+       It is not saved with the memory, SaveToFile and Nar.snapshot() only keep the concepts in the bag */
+    private transient volatile ConceptStore coldConcepts = null;
+
+    /* Conclusions of recently fired premise pairs, null if disabled */
+    private transient volatile PremiseCache premiseCache = null;
     
     //Boolean localInferenceMutex = false;
     
+    /**
+     * Seeds the random number generator of the calling thread
+     */
     public static void resetStatic() {
         randomNumber.setSeed(randomSeed);    
     }
@@ -115,13 +203,13 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
      * Create a new memory
      */
     public Memory(final Parameters narParameters, final Bag<Concept,Term> concepts, final Bag<Task<Term>,Sentence<Term>> novelTasks,
-                  final Bag<Task<Term>,Sentence<Term>> seq_current,
+                  final SequenceBag seq_current,
                   final Bag<Task<Term>,Sentence<Term>> recent_operations) {
         this.narParameters = narParameters;
         this.event = new EventEmitter();
         this.concepts = concepts;
         this.novelTasks = novelTasks;                
-        this.newTasks = new ArrayDeque<>();
+        this.newTasks = new TaskBuffer(narParameters);
         this.recent_operations = recent_operations;
         this.seq_current = seq_current;
         this.operators = new HashMap<>();
@@ -140,14 +228,36 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
         synchronized(this.seq_current) {
             this.seq_current.clear();
         }
+        synchronized(this.recent_operations) {
+            this.recent_operations.clear();
+        }
         if(emotion != null) {
             emotion.resetEmotions();
         }
         this.lastDecision = null;
+        premiseCache = null;
+        coldConcepts = null;
+        cycleCount = 0;
         resetStatic();
         event.emit(ResetEnd.class);
     }
 
+    /**
+     * @return the cache of premise pair conclusions, null if PREMISE_CACHE_SIZE is 0
+     */
+    public PremiseCache premiseCache() {
+        final int size = narParameters.PREMISE_CACHE_SIZE;
+        if (size <= 0) {
+            return null;
+        }
+        PremiseCache cache = premiseCache;
+        if (cache == null || cache.getCapacity() != size) { //created at first use or when the size got changed
+            cache = new PremiseCache(size);
+            premiseCache = cache;
+        }
+        return cache;
+    }
+
     /* ---------- conversion utilities ---------- */
     /**
      * Get an existing Concept for a given name
@@ -155,6 +265,8 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
      * called from Term and ConceptWindow.
      *
      * @param t the name of a concept
+     * A concept in the cold concept store isn't returned, it is only restored by conceptualize.
+     *
      * @return a Concept or null
      */
     public Concept concept(final Term t) {
@@ -163,16 +275,60 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
         }
     }
 
+    /**
+     * Adds the beliefs which were archived when the concept was forgotten before
+     */
+    private void recallBeliefs(final Concept concept) {
+        final BeliefArchive archive = beliefArchive;
+        if (archive == null) {
+            return;
+        }
+        try {
+            for (final Task belief : archive.recall(concept.getTerm(), this)) {
+                concept.addToTable(belief, false, concept.beliefs, narParameters.CONCEPT_BELIEFS_MAX, Events.ConceptBeliefAdd.class, Events.ConceptBeliefRemove.class);
+            }
+        } catch (final IOException ex) {
+            emit(ERR.class, ex);
+        }
+    }
+
+    /**
+     * @return the concept of the term from the cold concept store, null if it isn't there or the store is disabled
+     */
+    private Concept restoreConcept(final Term term) {
+        final ConceptStore store = coldConcepts;
+        if (store == null || narParameters.COLD_CONCEPT_STORE_SIZE <= 0) {
+            return null;
+        }
+        return store.take(term, this);
+    }
+
+    /**
+     * @return the store of concepts which were removed from the concept bag, null if COLD_CONCEPT_STORE_SIZE is 0
+     */
+    public ConceptStore coldConcepts() {
+        final int size = narParameters.COLD_CONCEPT_STORE_SIZE;
+        if (size <= 0) {
+            return null;
+        }
+        ConceptStore store = coldConcepts;
+        if (store == null || store.getCapacity() != (long) size << 20) { //created at first use or when the size got changed
+            store = new ConceptStore((long) size << 20);
+            coldConcepts = store;
+        }
+        return store;
+    }
+
     /**
      * Get the Concept associated to a Term, or create it.
      * 
-     *   Existing concept: apply tasklink activation (remove from bag, adjust budget, reinsert)
+     *   Existing concept: apply tasklink activation (adjust budget in place)
      *   New concept: set initial activation, insert
      *   Subconcept: extract from cache, apply activation, insert
      * 
      * If failed to insert as a result of null bag, returns null
      *
-     * A displaced Concept resulting from insert is forgotten (but may be stored in optional  subconcept memory
+     * A displaced Concept resulting from insert is forgotten (but may be stored in the optional cold concept store)
      * 
      * @param term indicating the concept
      * @return an existing Concept, or a new one, or null 
@@ -185,29 +341,41 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
 
         final Concept displaced;
         Concept concept;
+        final float forgetCycles = cycles(narParameters.CONCEPT_FORGET_DURATIONS);
 
+        boolean activated = false;
         synchronized (concepts) {
-            concept = concepts.take(term);
+            //apply budget to existing concept, it stays in place unless its level changes
+            //memory.logic.CONCEPT_ACTIVATE.commit(term.getComplexity());
+            concept = concepts.update(term, conceptBudget -> {
+                BudgetFunctions.activate(conceptBudget, budget, BudgetFunctions.Activating.TaskLink);
+                BudgetFunctions.applyForgetting(conceptBudget, forgetCycles, this);
+            });
+            if (concept != null) {
+                if (event.isActive(Events.ConceptActivate.class)) {
+                    emit(Events.ConceptActivate.class, concept);
+                }
+                return concept;
+            }
 
-            //see if concept is active
-            if (concept == null) {
+            concept = restoreConcept(term);
+            if (concept != null) {
+                //concept from the cold store, apply budget like to an existing one
+                BudgetFunctions.activate(concept.budget, budget, BudgetFunctions.Activating.TaskLink);
+                activated = true;
+            } else {
                 //create new concept, with the applied budget
                 concept = new Concept(budget, term, this);
                 //if (memory.logic!=null)
                 //    memory.logic.CONCEPT_NEW.commit(term.getComplexity());
                 emit(Events.ConceptNew.class, concept);
-            }
-            else if (concept!=null) {
-                //apply budget to existing concept
-                //memory.logic.CONCEPT_ACTIVATE.commit(term.getComplexity());
-                BudgetFunctions.activate(concept.budget, budget, BudgetFunctions.Activating.TaskLink);
-            }
-            else {
-                //unable to create, ex: has variables
-                return null;
+                recallBeliefs(concept);
             }
 
-            displaced = concepts.putBack(concept, cycles(narParameters.CONCEPT_FORGET_DURATIONS), this);
+            displaced = concepts.putBack(concept, forgetCycles, this);
+            if (activated && displaced != concept && event.isActive(Events.ConceptActivate.class)) {
+                emit(Events.ConceptActivate.class, concept);
+            }
         }
 
         if (displaced == null) {
@@ -226,12 +394,34 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     }
     
     /* ---------- new task entries ---------- */
+    /**
+     * @return the number of new tasks which wait for the next cycle
+     */
+    public int newTaskCount() {
+        return newTasks.size();
+    }
+
     /**
      * add new task that waits to be processed in the next cycleMemory
      */
     public void addNewTask(final Task t, final String reason) {
-        synchronized (tasksMutex) {
-            newTasks.add(t);
+        if (producerMayWait == null) {
+            producerMayWait = () -> {
+                final Nar running = reasoner;
+                return running != null && running.isRunning() && cycling.get() == null;
+            };
+        }
+        final TaskBuffer.Result added = newTasks.add(t, producerMayWait);
+        if (added.merged) {
+            removeTask(t, "Merged");
+            return;
+        }
+        if (added.dropped == t) {
+            removeTask(t, "Dropped");
+            return;
+        }
+        if (added.dropped != null) {
+            removeTask(added.dropped, "Dropped");
         }
       //  logic.TASK_ADD_NEW.commit(t.getPriority());
         emit(Events.TaskAdd.class, t, reason);
@@ -344,20 +534,36 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     
     public void conceptRemoved(final Concept c) {
         emit(Events.ConceptForget.class, c);
+        final ConceptStore store = coldConcepts();
+        if (store != null) {
+            store.put(c);
+        }
     }
     
     public void cycle(final Nar inputs) {
-    
-        event.emit(Events.CycleStart.class);
-        
-        this.processNewTasks(inputs.narParameters, inputs);
-    //if(noResult()) //newTasks empty
-        this.processNovelTask(inputs.narParameters, inputs);
-    //if(noResult()) //newTasks empty
-        GeneralInferenceControl.selectConceptForInference(this, inputs.narParameters, inputs);
-        
-        event.emit(Events.CycleEnd.class);
-        event.synch();
+
+        reasoner = inputs;
+        final Memory outer = cycling.get();
+        cycling.set(this);
+        try {
+            cycleCount++;
+            event.emit(Events.CycleStart.class);
+
+            this.processNewTasks(inputs.narParameters, inputs);
+        //if(noResult()) //newTasks empty
+            this.processNovelTask(inputs.narParameters, inputs);
+        //if(noResult()) //newTasks empty
+            GeneralInferenceControl.selectConceptForInference(this, inputs.narParameters, inputs);
+
+            event.emit(Events.CycleEnd.class);
+            event.synch();
+        } finally {
+            if (outer == null) {
+                cycling.remove();
+            } else {
+                cycling.set(outer);
+            }
+        }
     }
 
     /**
@@ -368,23 +574,27 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
      */
     public void localInference(final Task task, Parameters narParameters, final Timable time) {
         //synchronized (localInferenceMutex) {
-            final DerivationContext cont = new DerivationContext(this, narParameters, time);
-            cont.setCurrentTask(task);
-            cont.setCurrentTerm(task.getTerm());
-            cont.setCurrentConcept(conceptualize(task.budget, cont.getCurrentTerm()));
-            if (cont.getCurrentConcept() != null) {
-                final boolean processed = ProcessTask.processTask(cont.getCurrentConcept(), cont, task, time);
-                if (processed) {
-                    event.emit(Events.ConceptDirectProcessedTask.class, task);
+            final DerivationContext cont = DerivationContext.acquire(this, narParameters, time);
+            try {
+                cont.setCurrentTask(task);
+                cont.setCurrentTerm(task.getTerm());
+                cont.setCurrentConcept(conceptualize(task.budget, cont.getCurrentTerm()));
+                if (cont.getCurrentConcept() != null) {
+                    final boolean processed = ProcessTask.processTask(cont.getCurrentConcept(), cont, task, time);
+                    if (processed) {
+                        event.emit(Events.ConceptDirectProcessedTask.class, task);
+                    }
                 }
-            }
 
-            if (!task.sentence.isEternal() && !(task.sentence.term instanceof Operation)) {
-                TemporalInferenceControl.eventInference(task, cont);
-            }
+                if (!task.sentence.isEternal() && !(task.sentence.term instanceof Operation)) {
+                    TemporalInferenceControl.eventInference(task, cont);
+                }
 
-            //memory.logic.TASK_IMMEDIATE_PROCESS.commit();
-            emit(Events.TaskImmediateProcess.class, task, cont);
+                //memory.logic.TASK_IMMEDIATE_PROCESS.commit();
+                emit(Events.TaskImmediateProcess.class, task, cont);
+            } finally {
+                cont.release();
+            }
         //}
     }
     
@@ -399,9 +609,8 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     public void processNewTasks(Parameters narParameters, final Timable time) {
         synchronized (tasksMutex) {
             Task task;
-            int counter = newTasks.size();  // don't include new tasks produced in the current workCycle
-            while (counter-- > 0) {
-                task = newTasks.removeFirst();
+            int counter = newTasks.batch();  // don't include new tasks produced in the current workCycle
+            while (counter-- > 0 && (task = newTasks.poll()) != null) {
                 if (/*task.isElemOfSequenceBuffer() || task.isObservablePrediction() || */ narParameters.ALWAYS_CREATE_CONCEPT ||  
                         task.isInput() || task.sentence.isQuest() || task.sentence.isQuestion() || concept(task.sentence.term)!=null) { // new input or existing concept
                     localInference(task, narParameters, time);
@@ -453,10 +662,33 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
      }
 
     private long currentStampSerial = 0;
-    public BaseEntry newStampSerial() {
+    public synchronized BaseEntry newStampSerial() { //input can be parsed on other threads
         return new BaseEntry(this.narId, currentStampSerial++);
+    }
+
+    /**
+     * @return the serial of the next stamp
+     */
+    public synchronized long stampSerial() {
+        return currentStampSerial;
+    }
+
+    /**
+     * Continues the clocks of a memory which was restored
+     *
+     * @param cycleCount cycles since the last reset
+     * @param stampSerial serial of the next stamp
+     */
+    public synchronized void restoreClocks(final long cycleCount, final long stampSerial) {
+        this.cycleCount = cycleCount;
+        this.currentStampSerial = Math.max(currentStampSerial, stampSerial);
     }   
 
+    /** @return the number of cycles since the last reset */
+    public long cycleCount() {
+        return cycleCount;
+    }
+
     /** converts durations to cycles */
     public final float cycles(final double durations) {
         return narParameters.DURATION * (float) durations;
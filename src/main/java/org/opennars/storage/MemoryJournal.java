@@ -0,0 +1,411 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Concept;
+import org.opennars.entity.Task;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Continuous persistence of a memory: a write-ahead log of the input tasks and checkpoints of the changed concepts
+ * <p>
+ * The log is split into journal files, a checkpoint ends the current journal file and starts the next one.
+ * Checkpoints are incremental, they contain the concepts which changed and the terms of the concepts which were
+ * forgotten since the previous checkpoint, a full checkpoint contains all concepts and replaces the older ones.
+ * The concepts are serialized by the thread which runs the cycles, the files are written in the background;
+ * journal files which are covered by a written checkpoint are deleted.
+ * Recovery loads the checkpoints in order and replays the journal files after the last one, running the cycles
+ * which passed between the inputs.
+ * <p>
+ * journal record: byte type, long time, for inputs int length and the serialized task;
+ * checkpoint: boolean full, long time, long cycle count, long stamp serial, int concepts and (term name, int length,
+ * serialized concept) for each, int forgotten and the term name of each
+ */
+public final class MemoryJournal implements Closeable {
+
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".wal";
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".dat";
+
+    private static final byte INPUT = 1;
+    private static final byte TIME = 2;
+
+    private final File directory;
+
+    /** checkpoint and journal files which existed when the journal was opened, by sequence number */
+    private final TreeMap<Integer, File> checkpoints = new TreeMap<>();
+    private final TreeMap<Integer, File> journals = new TreeMap<>();
+    private final boolean recoverable;
+
+    /** sequence number of the journal file which is written */
+    private int sequence;
+    private DataOutputStream journal;
+    private boolean unflushed = false;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "memory journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> lastCheckpoint = null;
+
+    private long logged = 0;
+    private long checkpointed = 0;
+
+    /**
+     * Opens the journal in the directory, creating it if necessary; the existing files are kept for recovery
+     * until the first checkpoint, which is a full one
+     *
+     * @param directory The directory of the journal and checkpoint files
+     */
+    public MemoryJournal(final File directory) throws IOException {
+        this.directory = directory;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("can't create memory journal directory " + directory);
+        }
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final String name = file.getName();
+                if (name.startsWith(JOURNAL_PREFIX) && name.endsWith(JOURNAL_SUFFIX)) {
+                    journals.put(Integer.parseInt(name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length())), file);
+                } else if (name.startsWith(CHECKPOINT_PREFIX) && name.endsWith(CHECKPOINT_SUFFIX)) {
+                    checkpoints.put(Integer.parseInt(name.substring(CHECKPOINT_PREFIX.length(), name.length() - CHECKPOINT_SUFFIX.length())), file);
+                }
+            }
+        }
+        int last = 0;
+        if (!journals.isEmpty()) {
+            last = Math.max(last, journals.lastKey());
+        }
+        if (!checkpoints.isEmpty()) {
+            last = Math.max(last, checkpoints.lastKey());
+        }
+        recoverable = !journals.isEmpty() || !checkpoints.isEmpty();
+        sequence = last + 1;
+        journal = open(sequence);
+    }
+
+    /**
+     * @return whether there are files of a previous run to recover
+     */
+    public boolean isRecoverable() {
+        return recoverable;
+    }
+
+    /**
+     * Append an input task to the log
+     *
+     * @param task The input task
+     * @param time The time when it was input
+     * @param memory The memory of the task
+     */
+    public synchronized void logInput(final Task task, final long time, final Memory memory) throws IOException {
+        buffer.reset();
+        try (final ObjectOutputStream out = new MemoryStreams.Output(buffer, memory)) {
+            out.writeObject(task);
+        }
+        journal.writeByte(INPUT);
+        journal.writeLong(time);
+        journal.writeInt(buffer.size());
+        buffer.writeTo(journal);
+        unflushed = true;
+        logged++;
+    }
+
+    /**
+     * Append the current time to the log, recovery runs the cycles until it
+     */
+    public synchronized void logTime(final long time) throws IOException {
+        journal.writeByte(TIME);
+        journal.writeLong(time);
+        unflushed = true;
+    }
+
+    /**
+     * Hands the logged records to the operating system, they survive a crash of the process from then on
+     */
+    public synchronized void flush() throws IOException {
+        if (unflushed) {
+            journal.flush();
+            unflushed = false;
+        }
+    }
+
+    /**
+     * Serialize the concepts into a checkpoint and start a new journal file,
+     * the checkpoint is written in the background
+     *
+     * @param memory The memory of the concepts
+     * @param changed The concepts which changed since the last checkpoint, or all concepts for a full checkpoint
+     * @param forgotten The terms of the concepts which were forgotten since the last checkpoint
+     * @param full Whether the checkpoint contains all concepts
+     * @param time The current time
+     */
+    public synchronized void checkpoint(final Memory memory, final Collection<Concept> changed, final Collection<Term> forgotten,
+                                        final boolean full, final long time) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(4096, changed.size() * 1024));
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBoolean(full);
+        out.writeLong(time);
+        out.writeLong(memory.cycleCount());
+        out.writeLong(memory.stampSerial());
+        out.writeInt(changed.size());
+        for (final Concept concept : changed) {
+            buffer.reset();
+            try (final ObjectOutputStream o = new MemoryStreams.Output(buffer, memory)) {
+                o.writeObject(concept);
+            }
+            out.writeUTF(concept.getTerm().name().toString());
+            out.writeInt(buffer.size());
+            buffer.writeTo(out);
+        }
+        out.writeInt(forgotten.size());
+        for (final Term term : forgotten) {
+            out.writeUTF(term.name().toString());
+        }
+
+        //the records from now on belong to the next checkpoint
+        journal.close();
+        final int checkpoint = ++sequence;
+        journal = open(checkpoint);
+        unflushed = false;
+        final byte[] data = bytes.toByteArray();
+        lastCheckpoint = writer.submit(() -> {
+            write(checkpoint, data, full);
+            return null;
+        });
+        checkpointed++;
+    }
+
+    /**
+     * Waits until the last checkpoint is written
+     */
+    public void awaitCheckpoint() throws IOException {
+        final Future<?> pending;
+        synchronized (this) {
+            pending = lastCheckpoint;
+        }
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException ex) {
+            throw new IOException(ex.getCause());
+        }
+    }
+
+    /**
+     * Restores the concepts and the clocks of the last checkpoints into the memory of the reasoner
+     * and replays the journal files after them
+     *
+     * @param nar The reasoner, with an empty memory and the config of the one the files were written from
+     */
+    public void recover(final Nar nar) throws IOException, ClassNotFoundException {
+        final TreeMap<Integer, File> checkpointFiles;
+        final TreeMap<Integer, File> journalFiles;
+        synchronized (this) {
+            checkpointFiles = new TreeMap<>(checkpoints);
+            journalFiles = new TreeMap<>(journals);
+        }
+        final Memory memory = nar.memory;
+
+        //the latest full checkpoint and the incremental ones after it
+        final Map<String, byte[]> concepts = new LinkedHashMap<>();
+        long time = 0, cycleCount = 0, stampSerial = 0;
+        int covered = 0;
+        for (final Map.Entry<Integer, File> e : checkpointFiles.entrySet()) {
+            try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(e.getValue())))) {
+                if (in.readBoolean()) {
+                    concepts.clear();
+                }
+                time = in.readLong();
+                cycleCount = in.readLong();
+                stampSerial = in.readLong();
+                final int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    final String name = in.readUTF();
+                    final byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    concepts.remove(name); //keeps the order of the changes
+                    concepts.put(name, bytes);
+                }
+                final int forgotten = in.readInt();
+                for (int i = 0; i < forgotten; i++) {
+                    concepts.remove(in.readUTF());
+                }
+            }
+            covered = e.getKey();
+        }
+
+        synchronized (memory.concepts) {
+            for (final byte[] bytes : concepts.values()) {
+                final Concept displaced = memory.concepts.putIn(readConcept(bytes, memory));
+                if (displaced != null) {
+                    memory.conceptRemoved(displaced);
+                }
+            }
+        }
+        if (covered > 0) {
+            nar.setTime(time);
+            memory.restoreClocks(cycleCount, stampSerial);
+        }
+
+        for (final Map.Entry<Integer, File> e : journalFiles.tailMap(covered, true).entrySet()) {
+            replay(e.getValue(), nar);
+        }
+    }
+
+    /**
+     * @return the number of logged inputs
+     */
+    public synchronized long getLogged() {
+        return logged;
+    }
+
+    /**
+     * @return the number of checkpoints which were taken
+     */
+    public synchronized long getCheckpoints() {
+        return checkpointed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        awaitCheckpoint();
+        writer.shutdown();
+        synchronized (this) {
+            journal.close();
+        }
+    }
+
+    private void replay(final File file, final Nar nar) throws IOException, ClassNotFoundException {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                final byte type;
+                final long time;
+                Task task = null;
+                try {
+                    type = in.readByte();
+                    time = in.readLong();
+                    if (type == INPUT) {
+                        final byte[] bytes = new byte[in.readInt()];
+                        in.readFully(bytes);
+                        try (final ObjectInputStream o = new MemoryStreams.Input(new ByteArrayInputStream(bytes), nar.memory)) {
+                            task = (Task) o.readObject();
+                        }
+                    }
+                } catch (final EOFException ex) {
+                    return; //the end of the log, or a record which was cut off by a crash
+                }
+                while (nar.narParameters.STEPS_CLOCK && nar.time() < time) {
+                    nar.cycle();
+                }
+                if (task != null) {
+                    nar.addInput(task);
+                }
+            }
+        }
+    }
+
+    private static Concept readConcept(final byte[] bytes, final Memory memory) throws IOException, ClassNotFoundException {
+        try (final ObjectInputStream in = new MemoryStreams.Input(new ByteArrayInputStream(bytes), memory)) {
+            return (Concept) in.readObject();
+        }
+    }
+
+    private DataOutputStream open(final int sequence) throws IOException {
+        final File file = file(JOURNAL_PREFIX, sequence, JOURNAL_SUFFIX);
+        journals.put(sequence, file);
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    }
+
+    private File file(final String prefix, final int sequence, final String suffix) {
+        return new File(directory, String.format("%s%08d%s", prefix, sequence, suffix));
+    }
+
+    /** writes a checkpoint and deletes the files which it makes obsolete */
+    private void write(final int checkpoint, final byte[] data, final boolean full) throws IOException {
+        final File tmp = file(CHECKPOINT_PREFIX, checkpoint, ".tmp");
+        try (final FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(data);
+            out.getFD().sync();
+        }
+        final File target = file(CHECKPOINT_PREFIX, checkpoint, CHECKPOINT_SUFFIX);
+        if (!tmp.renameTo(target)) {
+            throw new IOException("can't rename checkpoint " + tmp);
+        }
+        final List<File> obsolete = new ArrayList<>();
+        synchronized (this) {
+            checkpoints.put(checkpoint, target);
+            for (final Map.Entry<Integer, File> e : new ArrayList<>(journals.headMap(checkpoint).entrySet())) {
+                obsolete.add(e.getValue());
+                journals.remove(e.getKey());
+            }
+            if (full) {
+                for (final Map.Entry<Integer, File> e : new ArrayList<>(checkpoints.headMap(checkpoint).entrySet())) {
+                    obsolete.add(e.getValue());
+                    checkpoints.remove(e.getKey());
+                }
+            }
+        }
+        for (final File file : obsolete) {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("can't delete obsolete journal file " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.operator.Operator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * Object streams for parts of a memory which are stored outside of it
+ * <p>
+ * The memory, its parameters and the operators are written as placeholders,
+ * they are resolved to the instances of the memory the objects are read into.
+ */
+final class MemoryStreams {
+
+    private MemoryStreams() {
+    }
+
+    /** placeholders for the instances which are shared with the memory */
+    private enum Shared {
+        MEMORY, PARAMETERS
+    }
+
+    private static final class OperatorName implements Serializable {
+        private final String name;
+
+        OperatorName(final String name) {
+            this.name = name;
+        }
+    }
+
+    static final class Output extends ObjectOutputStream {
+        private final Memory memory;
+
+        Output(final OutputStream out, final Memory memory) throws IOException {
+            super(out);
+            this.memory = memory;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object obj) {
+            if (obj == memory) {
+                return Shared.MEMORY;
+            }
+            if (obj == memory.narParameters) {
+                return Shared.PARAMETERS;
+            }
+            if (obj instanceof Operator) {
+                return new OperatorName(((Operator) obj).name().toString());
+            }
+            return obj;
+        }
+    }
+
+    static final class Input extends ObjectInputStream {
+        private final Memory memory;
+
+        Input(final InputStream in, final Memory memory) throws IOException {
+            super(in);
+            this.memory = memory;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(final Object obj) throws IOException {
+            if (obj == Shared.MEMORY) {
+                return memory;
+            }
+            if (obj == Shared.PARAMETERS) {
+                return memory.narParameters;
+            }
+            if (obj instanceof OperatorName) {
+                final Operator op = memory.getOperator(((OperatorName) obj).name);
+                if (op == null) {
+                    throw new InvalidObjectException("operator " + ((OperatorName) obj).name + " is not registered");
+                }
+                return op;
+            }
+            return obj;
+        }
+    }
+}
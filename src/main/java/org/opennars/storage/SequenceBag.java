@@ -0,0 +1,186 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Sentence;
+import org.opennars.entity.Task;
+import org.opennars.language.CompoundTerm;
+import org.opennars.language.Term;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Bag of the events which can form sequences, with an index from the interval-erased term to its events
+ * <p>
+ * The selection is done by the wrapped bag, every item which enters or leaves it is reflected in the index.
+ * The events of a term are ordered by occurrence time, so finding the duplicates of an event
+ * or the newest event of a term doesn't need to iterate the bag.
+ */
+public class SequenceBag extends Bag<Task<Term>,Sentence<Term>> implements Serializable {
+
+    private final Bag<Task<Term>,Sentence<Term>> bag;
+
+    /** events of each interval-erased term, in ascending occurrence time */
+    private final Map<Term, List<Task<Term>>> index = new HashMap<>();
+
+    /**
+     * @param bag The bag which holds and selects the events
+     */
+    public SequenceBag(final Bag<Task<Term>,Sentence<Term>> bag) {
+        this.bag = bag;
+    }
+
+    /**
+     * @param term The term, it may contain intervals
+     * @return the events whose term equals the term when the intervals are ignored, in ascending occurrence time
+     */
+    public List<Task<Term>> events(final Term term) {
+        final List<Task<Term>> events = index.get(key(term));
+        return events == null ? Collections.emptyList() : Collections.unmodifiableList(events);
+    }
+
+    /**
+     * @param term The term of the event
+     * @param latest The latest occurrence time to consider
+     * @return the newest judgment of exactly the term which didn't occur after latest, or null if there is none
+     */
+    public Task<Term> newestEvent(final Term term, final long latest) {
+        final List<Task<Term>> events = index.get(key(term));
+        if (events == null) {
+            return null;
+        }
+        for (int i = events.size() - 1; i >= 0; i--) {
+            final Task<Term> event = events.get(i);
+            final Sentence<Term> s = event.sentence;
+            if (s.getOccurenceTime() <= latest && s.isJudgment() && !s.isEternal() && s.term.equals(term)) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        bag.clear();
+        index.clear();
+    }
+
+    @Override
+    public Task<Term> get(final Sentence<Term> key) {
+        return bag.get(key);
+    }
+
+    @Override
+    public int getCapacity() {
+        return bag.getCapacity();
+    }
+
+    @Override
+    public Task<Term> takeNext() {
+        return unindex(bag.takeNext());
+    }
+
+    @Override
+    protected Task<Term> addItem(final Task<Term> newItem) {
+        final Task<Term> overflow = bag.addItem(newItem);
+        if (overflow != newItem) {
+            index(newItem);
+            unindex(overflow);
+        }
+        return overflow;
+    }
+
+    @Override
+    public Task<Term> update(final Sentence<Term> key, final Consumer<BudgetValue> budgetFn) {
+        return bag.update(key, budgetFn); //the event stays the same
+    }
+
+    @Override
+    public int sample(final int k, final Consumer<Task<Term>> consumer) {
+        return bag.sample(k, consumer);
+    }
+
+    @Override
+    public Task<Term> take(final Sentence<Term> key) {
+        return unindex(bag.take(key));
+    }
+
+    @Override
+    public int size() {
+        return bag.size();
+    }
+
+    @Override
+    public float getAveragePriority() {
+        return bag.getAveragePriority();
+    }
+
+    @Override
+    public Iterator<Task<Term>> iterator() {
+        return bag.iterator();
+    }
+
+    private static Term key(final Term term) {
+        final Term key = CompoundTerm.replaceIntervals(term);
+        return key == null ? term : key;
+    }
+
+    private void index(final Task<Term> event) {
+        final List<Task<Term>> events = index.computeIfAbsent(key(event.getTerm()), k -> new ArrayList<>(2));
+        final long time = event.sentence.getOccurenceTime();
+        int i = events.size();
+        while (i > 0 && events.get(i - 1).sentence.getOccurenceTime() > time) {
+            i--;
+        }
+        events.add(i, event);
+    }
+
+    private Task<Term> unindex(final Task<Term> event) {
+        if (event == null) {
+            return null;
+        }
+        final Term key = key(event.getTerm());
+        final List<Task<Term>> events = index.get(key);
+        if (events != null) {
+            for (int i = 0; i < events.size(); i++) {
+                if (events.get(i) == event) {
+                    events.remove(i);
+                    break;
+                }
+            }
+            if (events.isEmpty()) {
+                index.remove(key);
+            }
+        }
+        return event;
+    }
+}
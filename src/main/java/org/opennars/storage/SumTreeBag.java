@@ -0,0 +1,296 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Item;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Bag which selects items with a probability proportional to their priority,
+ * as an alternative to the quantized levels of LevelBag
+ * <p>
+ * The priorities are kept in a sum tree (with the minimum of each subtree for eviction)
+ * over the slots of the items, so selection, insertion, removal and
+ * priority updates are O(log n), lookup by key is O(1).
+ */
+public class SumTreeBag<E extends Item<K>,K> extends Bag<E,K> implements Serializable {
+
+    /**
+     * defined in different bags
+     */
+    final int capacity;
+
+    /**
+     * number of leaves of the trees, power of two
+     */
+    private final int leaves;
+
+    /**
+     * sum of the priorities of the subtree, node i has the children 2i and 2i+1,
+     * the leaf of slot s is node leaves+s
+     */
+    private final float[] sum;
+
+    /**
+     * minimum priority of the subtree, infinity for empty slots
+     */
+    private final float[] min;
+
+    /**
+     * items by slot, the slots [0, size) are occupied
+     */
+    private final Object[] items;
+
+    /**
+     * mapping from key to slot
+     */
+    private final Map<K, Integer> slots;
+
+    private int size;
+
+    public SumTreeBag(final int capacity) {
+        this.capacity = capacity;
+        int l = 1;
+        while (l < capacity) {
+            l <<= 1;
+        }
+        this.leaves = l;
+        this.sum = new float[2 * leaves];
+        this.min = new float[2 * leaves];
+        this.items = new Object[capacity];
+        this.slots = new HashMap<>(capacity);
+        clear();
+    }
+
+    @Override
+    public final void clear() {
+        Arrays.fill(items, null);
+        Arrays.fill(sum, 0);
+        Arrays.fill(min, Float.POSITIVE_INFINITY);
+        slots.clear();
+        size = 0;
+    }
+
+    @Override
+    public E get(final K key) {
+        final Integer slot = slots.get(key);
+        return slot == null ? null : item(slot);
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public float getAveragePriority() {
+        if (size == 0) {
+            return 0.0f;
+        }
+        return Math.min(sum[1] / size, 1.0f);
+    }
+
+    /**
+     * Choose an item with a probability proportional to its priority,
+     * uniformly if all priorities are zero
+     */
+    @Override
+    public E takeNext() {
+        if (size == 0) {
+            return null;
+        }
+        final int slot;
+        if (sum[1] <= 0) {
+            slot = Memory.randomNumber.nextInt(size);
+        } else {
+            float r = Memory.randomNumber.nextFloat() * sum[1];
+            int i = 1;
+            while (i < leaves) {
+                final int left = 2 * i;
+                if (r < sum[left] || sum[left + 1] <= 0) {
+                    i = left;
+                } else {
+                    r -= sum[left];
+                    i = left + 1;
+                }
+            }
+            slot = Math.min(i - leaves, size - 1);
+        }
+        return removeSlot(slot);
+    }
+
+    @Override
+    public E take(final K key) {
+        final Integer slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+        return removeSlot(slot);
+    }
+
+    /**
+     * Merges an item with an existing one of the same key in place
+     */
+    @Override
+    public E putIn(final E newItem) {
+        final Integer slot = slots.get(newItem.name());
+        if (slot == null) {
+            return addItem(newItem);
+        }
+        final E merged = (E) item(slot).merge(newItem);
+        items[slot] = merged;
+        setPriority(slot, merged.getPriority());
+        return null;
+    }
+
+    /**
+     * Insert an item, displaces the item with the lowest priority if the bag is full
+     *
+     * @param newItem The Item to put in
+     * @return null if nothing overflowed, otherwise the displaced item,
+     * which is the input item if its priority is below the lowest one
+     */
+    @Override
+    protected E addItem(final E newItem) {
+        E oldItem = null;
+        if (size >= capacity) {
+            if (capacity == 0 || newItem.getPriority() < min[1]) {
+                return newItem;
+            }
+            oldItem = removeSlot(minSlot());
+        }
+        final int slot = size++;
+        items[slot] = newItem;
+        slots.put(newItem.name(), slot);
+        setPriority(slot, newItem.getPriority());
+        return oldItem;
+    }
+
+    /**
+     * Change the budget of an item in place
+     */
+    @Override
+    public E update(final K key, final Consumer<BudgetValue> budgetFn) {
+        final Integer slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+        final E item = item(slot);
+        budgetFn.accept(item.budget);
+        setPriority(slot, item.getPriority());
+        return item;
+    }
+
+    /**
+     * Updates the tree after the priority of the item with the given key was changed
+     *
+     * @return false if there is no item with the key
+     */
+    public boolean refresh(final K key) {
+        final Integer slot = slots.get(key);
+        if (slot == null) {
+            return false;
+        }
+        setPriority(slot, item(slot).getPriority());
+        return true;
+    }
+
+    private E item(final int slot) {
+        return (E) items[slot];
+    }
+
+    /** removes the item of the slot and moves the last item into it */
+    private E removeSlot(final int slot) {
+        final E removed = item(slot);
+        slots.remove(removed.name());
+        final int last = --size;
+        if (slot != last) {
+            final E moved = item(last);
+            items[slot] = moved;
+            slots.put(moved.name(), slot);
+            setPriority(slot, sum[leaves + last]);
+        }
+        items[last] = null;
+        clearSlot(last);
+        return removed;
+    }
+
+    private int minSlot() {
+        int i = 1;
+        while (i < leaves) {
+            final int left = 2 * i;
+            i = min[left] <= min[left + 1] ? left : left + 1;
+        }
+        return i - leaves;
+    }
+
+    private void setPriority(final int slot, final float priority) {
+        final int i = leaves + slot;
+        sum[i] = priority;
+        min[i] = priority;
+        update(i >> 1);
+    }
+
+    private void clearSlot(final int slot) {
+        final int i = leaves + slot;
+        sum[i] = 0;
+        min[i] = Float.POSITIVE_INFINITY;
+        update(i >> 1);
+    }
+
+    private void update(int i) {
+        while (i >= 1) {
+            sum[i] = sum[2 * i] + sum[2 * i + 1];
+            min[i] = Math.min(min[2 * i], min[2 * i + 1]);
+            i >>= 1;
+        }
+    }
+
+    /**
+     * @return iterator over a snapshot of the items in descending priority
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final List<E> l = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            l.add(item(i));
+        }
+        l.sort((a, b) -> Float.compare(b.getPriority(), a.getPriority()));
+        return l.iterator();
+    }
+}
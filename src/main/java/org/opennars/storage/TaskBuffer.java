@@ -0,0 +1,295 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Sentence;
+import org.opennars.entity.Task;
+import org.opennars.main.Parameters;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The new tasks which wait for the next cycle, in the order they were added
+ * <p>
+ * By default the buffer is unbounded. With a NEW_TASKS_CAPACITY above 0 it holds at most that many tasks,
+ * what happens to a task which doesn't fit depends on NEW_TASKS_POLICY:
+ * BLOCK lets the producer wait until the reasoner took tasks out, DROP_LOWEST drops the task with the lowest priority
+ * (which may be the new one), MERGE merges tasks with the same sentence into the waiting one and drops the lowest otherwise.
+ * Producers which can't wait for the reasoner, like the reasoner itself, drop instead.
+ * The waiting tasks are indexed by their priority when they were added, so the lowest one is found in logarithmic time.
+ */
+public class TaskBuffer implements Serializable {
+
+    public enum Policy {
+        BLOCK, DROP_LOWEST, MERGE
+    }
+
+    /**
+     * What happened to an added task
+     */
+    public static final class Result implements Serializable {
+        /** the task is waiting, nothing was dropped */
+        public static final Result QUEUED = new Result(false, null);
+        /** the task was merged into a waiting task of the same sentence */
+        public static final Result MERGED = new Result(true, null);
+
+        public final boolean merged;
+        /** the task which was dropped to respect the capacity, which may be the new task; or null */
+        public final Task dropped;
+
+        private Result(final boolean merged, final Task dropped) {
+            this.merged = merged;
+            this.dropped = dropped;
+        }
+    }
+
+    /** a waiting task with its priority in the index and its position in the order */
+    private static final class Entry implements Comparable<Entry>, Serializable {
+        final Task task;
+        final long seq;
+        float priority;
+
+        Entry(final Task task, final long seq) {
+            this.task = task;
+            this.seq = seq;
+            this.priority = task.getPriority();
+        }
+
+        @Override
+        public int compareTo(final Entry e) {
+            final int c = Float.compare(priority, e.priority);
+            return c != 0 ? c : Long.compare(seq, e.seq);
+        }
+    }
+
+    /** how long a blocked producer waits before it checks again whether it may still wait */
+    private static final long BLOCK_CHECK_MS = 100;
+
+    private final Parameters narParameters;
+
+    /** waiting tasks in the order they were added */
+    private final LinkedHashSet<Entry> tasks = new LinkedHashSet<>();
+    /** waiting tasks from the lowest to the highest priority, the oldest first when they are equal */
+    private final TreeSet<Entry> byPriority = new TreeSet<>();
+
+    /** waiting task of each sentence, only kept while the policy is MERGE */
+    private Map<Sentence, Entry> sentences = null;
+
+    private long seq = 0;
+    private int peak = 0;
+    private long dropped = 0;
+    private long merged = 0;
+    private long blocked = 0;
+
+    /** NEW_TASKS_POLICY parsed, parsed again only when the parameter changes */
+    private transient String policyName = null;
+    private transient Policy policy = Policy.DROP_LOWEST;
+
+    public TaskBuffer(final Parameters narParameters) {
+        this.narParameters = narParameters;
+    }
+
+    /**
+     * Add a task at the end of the buffer
+     *
+     * @param task The new task
+     * @param mayBlock whether the producer can wait for free space
+     * @return what happened to the task
+     */
+    public Result add(final Task task, final boolean mayBlock) {
+        return add(task, () -> mayBlock);
+    }
+
+    /**
+     * Add a task at the end of the buffer
+     *
+     * @param task The new task
+     * @param mayBlock whether the producer can wait for free space, checked again while it waits
+     * @return what happened to the task
+     */
+    public synchronized Result add(final Task task, final BooleanSupplier mayBlock) {
+        final Policy policy = policy();
+        if (policy == Policy.MERGE) {
+            if (sentences == null) {
+                sentences = new HashMap<>();
+                for (final Entry e : tasks) {
+                    sentences.putIfAbsent(e.task.sentence, e);
+                }
+            }
+            final Entry waiting = sentences.get(task.sentence);
+            if (waiting != null) {
+                byPriority.remove(waiting);
+                waiting.task.budget.merge(task.budget);
+                waiting.priority = waiting.task.getPriority();
+                byPriority.add(waiting);
+                merged++;
+                return Result.MERGED;
+            }
+        } else {
+            sentences = null;
+        }
+
+        Task drop = null;
+        final int capacity = narParameters.NEW_TASKS_CAPACITY;
+        if (capacity > 0 && tasks.size() >= capacity) {
+            if (policy == Policy.BLOCK && mayBlock.getAsBoolean()) {
+                blocked++;
+                try {
+                    while (tasks.size() >= narParameters.NEW_TASKS_CAPACITY && mayBlock.getAsBoolean()) {
+                        wait(BLOCK_CHECK_MS);
+                    }
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (tasks.size() >= narParameters.NEW_TASKS_CAPACITY) {
+                final Entry lowest = byPriority.isEmpty() ? null : byPriority.first();
+                dropped++;
+                if (lowest == null || lowest.priority >= task.getPriority()) {
+                    return new Result(false, task);
+                }
+                remove(lowest);
+                drop = lowest.task;
+            }
+        }
+        final Entry e = new Entry(task, seq++);
+        tasks.add(e);
+        byPriority.add(e);
+        if (sentences != null) {
+            sentences.putIfAbsent(task.sentence, e);
+        }
+        peak = Math.max(peak, tasks.size());
+        return drop == null ? Result.QUEUED : new Result(false, drop);
+    }
+
+    /**
+     * @return the oldest task, or null if the buffer is empty
+     */
+    public synchronized Task poll() {
+        if (tasks.isEmpty()) {
+            return null;
+        }
+        final Entry e = tasks.iterator().next();
+        remove(e);
+        notifyAll();
+        return e.task;
+    }
+
+    /**
+     * @return the number of tasks to process in this cycle, the tasks which are added meanwhile wait for the next one
+     */
+    public synchronized int batch() {
+        final int limit = narParameters.NEW_TASKS_BATCH;
+        return limit > 0 ? Math.min(limit, tasks.size()) : tasks.size();
+    }
+
+    public synchronized int size() {
+        return tasks.size();
+    }
+
+    public synchronized void clear() {
+        tasks.clear();
+        byPriority.clear();
+        sentences = null;
+        notifyAll();
+    }
+
+    /**
+     * Wakes the producers which wait for free space, so they check again whether they may wait
+     */
+    public synchronized void wakeUp() {
+        notifyAll();
+    }
+
+    /**
+     * @return the waiting tasks in order
+     */
+    public synchronized List<Task> toList() {
+        final List<Task> list = new ArrayList<>(tasks.size());
+        for (final Entry e : tasks) {
+            list.add(e.task);
+        }
+        return list;
+    }
+
+    /**
+     * @return the maximum number of tasks which were waiting at the same time
+     */
+    public synchronized int getPeakSize() {
+        return peak;
+    }
+
+    /**
+     * @return the number of tasks which were dropped because the buffer was full
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return the number of tasks which were merged into a waiting task of the same sentence
+     */
+    public synchronized long getMerged() {
+        return merged;
+    }
+
+    /**
+     * @return the number of times a producer had to wait for free space
+     */
+    public synchronized long getBlocked() {
+        return blocked;
+    }
+
+    private Policy policy() {
+        final String name = narParameters.NEW_TASKS_POLICY;
+        if (name != policyName) {
+            policyName = name;
+            try {
+                policy = Policy.valueOf(name);
+            } catch (final IllegalArgumentException | NullPointerException ex) {
+                policy = Policy.DROP_LOWEST;
+                Logger.getLogger(TaskBuffer.class.getName()).log(Level.WARNING,
+                    "Unknown NEW_TASKS_POLICY " + name + ", using DROP_LOWEST");
+            }
+        }
+        return policy;
+    }
+
+    private void remove(final Entry e) {
+        tasks.remove(e);
+        byPriority.remove(e);
+        if (sentences != null && sentences.get(e.task.sentence) == e) {
+            sentences.remove(e.task.sentence);
+        }
+    }
+}
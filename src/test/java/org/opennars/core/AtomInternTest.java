@@ -0,0 +1,110 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.language.Term;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the atom intern table of Term under concurrent use
+ */
+public class AtomInternTest {
+
+    final static int THREADS = 4;
+    final static int ATOMS_PER_THREAD = 500000;
+    final static int SHARED = 1000;
+
+    @Test
+    public void testIndexParsing() {
+        final Term pixel = Term.get("pixel[3,4]");
+        assertEquals("pixel[i,j,k,l]", pixel.toString());
+        assertEquals("pixel", pixel.index_variable);
+        assertArrayEquals(new int[] {1, 1, 3, 4}, pixel.term_indices);
+
+        final Term full = Term.get("pixel[2,2,10,11]");
+        assertArrayEquals(new int[] {2, 2, 10, 11}, full.term_indices);
+
+        final Term symbolic = Term.get("pixel[i1,j1,k,l]");
+        assertEquals("pixel[i1,j1,k,l]", symbolic.toString());
+        assertNull(symbolic.term_indices);
+
+        //index terms carry their own indices and are therefore never shared
+        assertTrue(Term.get("pixel[3,4]") != Term.get("pixel[3,4]"));
+        assertSame(Term.get("bird"), Term.get("bird"));
+    }
+
+    @Test
+    public void testConcurrentIntern() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        final List<Future<Term[]>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            results.add(pool.submit(() -> {
+                final Term[] shared = new Term[SHARED];
+                for (int i = 0; i < ATOMS_PER_THREAD; i++) {
+                    final Term unique = Term.get("stress_" + thread + "_" + i);
+                    assertEquals("stress_" + thread + "_" + i, unique.toString());
+                    if (i % 4 == 0) {
+                        final Term pixel = Term.get("stresspixel[" + (i % 64) + "," + thread + "]");
+                        assertEquals(i % 64, pixel.term_indices[2]);
+                    }
+                    final int k = i % SHARED;
+                    final Term s = Term.get("shared_" + k);
+                    if (shared[k] == null) {
+                        shared[k] = s;
+                    } else {
+                        assertSame(shared[k], s);
+                    }
+                }
+                return shared;
+            }));
+        }
+
+        final List<Term[]> all = new ArrayList<>();
+        for (final Future<Term[]> f : results) {
+            all.add(f.get());
+        }
+        pool.shutdown();
+
+        //every thread has to observe the same instance for the same name
+        for (int k = 0; k < SHARED; k++) {
+            for (final Term[] shared : all) {
+                assertSame(all.get(0)[k], shared[k]);
+            }
+        }
+
+        //the unique atoms are unreferenced, so the table is allowed to drop them
+        for (int i = 0; i < 5 && Term.internedAtoms() >= THREADS * ATOMS_PER_THREAD; i++) {
+            System.gc();
+            Thread.sleep(100);
+            for (int j = 0; j < SHARED; j++) { //writes drain the collected entries
+                Term.get("after_gc_" + i + "_" + j);
+            }
+        }
+        assertTrue(Term.internedAtoms() < THREADS * ATOMS_PER_THREAD);
+    }
+}
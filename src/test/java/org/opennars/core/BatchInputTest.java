@@ -0,0 +1,92 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Task;
+import org.opennars.io.events.OutputHandler;
+import org.opennars.main.Nar;
+import org.opennars.main.Shell;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the batched input of the shell
+ */
+public class BatchInputTest {
+
+    final static int LINES = 2000;
+
+    private static ByteArrayInputStream input() {
+        final StringBuilder text = new StringBuilder("//comment\n\n");
+        for (int i = 0; i < LINES; i++) {
+            text.append("<a").append(i).append(" --> b>.\n");
+        }
+        return new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void waitFor(final Nar nar, final int count) throws InterruptedException {
+        for (int i = 0; i < 1000 && nar.memory.newTaskCount() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testOrder() throws Exception {
+        final Nar nar = new Nar();
+        nar.narParameters.INPUT_PARSER_THREADS = 4;
+        nar.narParameters.INPUT_BATCH_SIZE = 64;
+        nar.narParameters.INPUT_MAX_NEW_TASKS = LINES * 2;
+        new Shell.BatchInputThread(input(), nar).start();
+        waitFor(nar, LINES);
+
+        final List<Task> tasks = nar.memory.newTasks.toList();
+        assertEquals(LINES, tasks.size());
+        for (int i = 0; i < LINES; i++) {
+            assertEquals("<a" + i + " --> b>", tasks.get(i).getTerm().toString());
+        }
+        //stamps are unique although the lines were parsed concurrently
+        for (int i = 1; i < LINES; i++) {
+            assertTrue(!tasks.get(i).sentence.stamp.evidentialBase[0].equals(tasks.get(i - 1).sentence.stamp.evidentialBase[0]));
+        }
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        final Nar nar = new Nar();
+        nar.narParameters.INPUT_PARSER_THREADS = 2;
+        nar.narParameters.INPUT_MAX_NEW_TASKS = 100;
+        final AtomicInteger inputs = new AtomicInteger();
+        nar.on(OutputHandler.IN.class, (event, args) -> inputs.incrementAndGet());
+        new Shell.BatchInputThread(input(), nar).start();
+        waitFor(nar, 101);
+        Thread.sleep(100);
+        assertEquals(101, nar.memory.newTaskCount());
+        assertEquals(101, inputs.get());
+
+        //the input continues while the tasks are processed
+        for (int i = 0; i < 10000 && inputs.get() < LINES; i++) {
+            nar.cycles(1);
+            Thread.sleep(1);
+        }
+        assertEquals(LINES, inputs.get());
+    }
+}
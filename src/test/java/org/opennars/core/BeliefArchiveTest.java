@@ -0,0 +1,131 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Concept;
+import org.opennars.entity.Task;
+import org.opennars.io.Narsese;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.plugin.mental.BeliefArchiving;
+import org.opennars.storage.BeliefArchive;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the beliefs of forgotten concepts are archived and recalled
+ */
+public class BeliefArchiveTest {
+
+    @Test
+    public void testRecallAfterForget() throws Exception {
+        final File dir = Files.createTempDirectory("beliefs").toFile();
+        final Nar nar = new Nar();
+        final BeliefArchiving plugin = new BeliefArchiving(dir.getPath(), 1 << 20, 3);
+        nar.addPlugin(plugin);
+
+        nar.addInput("<a --> b>. %0.8;0.7%");
+        nar.cycles(5);
+        final Term term = new Narsese(nar).parseTerm("<a --> b>");
+        final Concept concept = nar.memory.concept(term);
+        nar.memory.concepts.take(term);
+        nar.memory.conceptRemoved(concept);
+        assertEquals(1, plugin.getArchive().size());
+
+        final Concept recreated = nar.memory.conceptualize(concept.budget.clone(), term);
+        assertTrue(recreated != concept);
+        assertEquals(1, recreated.beliefs.size());
+        assertEquals(concept.beliefs.get(0).sentence, recreated.beliefs.get(0).sentence);
+        nar.cycles(5);
+
+        //the archive survives the reasoner
+        plugin.getArchive().close();
+        final BeliefArchive reopened = new BeliefArchive(dir, 1 << 20);
+        assertEquals(1, reopened.size());
+        assertEquals(concept.beliefs.get(0).sentence, reopened.recall(term, nar.memory).get(0).sentence);
+        reopened.close();
+        delete(dir);
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        final File dir = Files.createTempDirectory("beliefs").toFile();
+        final Nar nar = new Nar();
+        nar.addInput("<a --> b>.");
+        nar.addInput("<c --> d>.");
+        nar.cycles(5);
+        final Term ab = new Narsese(nar).parseTerm("<a --> b>");
+        final Term cd = new Narsese(nar).parseTerm("<c --> d>");
+        final List<Task> abBeliefs = nar.memory.concept(ab).beliefs;
+        final List<Task> cdBeliefs = nar.memory.concept(cd).beliefs;
+
+        final BeliefArchive archive = new BeliefArchive(dir, 16 * 1024);
+        archive.archive(cd, cdBeliefs, nar.memory);
+        for (int i = 0; i < 200; i++) { //only the latest record of a term stays live
+            archive.archive(ab, abBeliefs, nar.memory);
+        }
+        assertTrue(archive.getCompactions() > 0);
+        assertTrue(archive.segmentCount() <= 3);
+        assertEquals(archive.segmentCount() + archive.obsoleteCount(), dir.listFiles().length);
+        assertEquals(2, archive.size());
+        assertEquals(cdBeliefs.get(0).sentence, archive.recall(cd, nar.memory).get(0).sentence);
+        assertEquals(abBeliefs.get(0).sentence, archive.recall(ab, nar.memory).get(0).sentence);
+        assertSame(Collections.emptyList(), archive.recall(new Narsese(nar).parseTerm("<x --> y>"), nar.memory));
+        archive.close();
+
+        final BeliefArchive reopened = new BeliefArchive(dir, 16 * 1024);
+        assertEquals(2, reopened.size());
+        assertEquals(cdBeliefs.get(0).sentence, reopened.recall(cd, nar.memory).get(0).sentence);
+        reopened.close();
+        delete(dir);
+    }
+
+    @Test
+    public void testEnableAgain() throws Exception {
+        final File dir = Files.createTempDirectory("beliefs").toFile();
+        final Nar nar = new Nar();
+        final BeliefArchiving plugin = new BeliefArchiving(dir.getPath(), 1 << 20, 3);
+        nar.addPlugin(plugin);
+        final BeliefArchive first = plugin.getArchive();
+        plugin.setEnabled(nar, true); //the first archive is closed before the segment files are opened again
+        assertTrue(plugin.getArchive() != first);
+        assertSame(plugin.getArchive(), nar.memory.beliefArchive);
+        assertEquals(1, plugin.getArchive().segmentCount());
+
+        nar.addInput("<a --> b>.");
+        nar.cycles(5);
+        final Term term = new Narsese(nar).parseTerm("<a --> b>");
+        assertTrue(plugin.getArchive().archive(term, nar.memory.concept(term).beliefs, nar.memory));
+        assertEquals(1, plugin.getArchive().recall(term, nar.memory).size());
+        plugin.setEnabled(nar, false);
+        assertSame(null, nar.memory.beliefArchive);
+        delete(dir);
+    }
+
+    private static void delete(final File dir) {
+        for (final File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Concept;
+import org.opennars.io.Narsese;
+import org.opennars.language.Inheritance;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.storage.ConceptStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that concepts removed from memory are restored from the cold concept store
+ */
+public class ColdConceptStoreTest {
+
+    @Test
+    public void testFaultIn() throws Exception {
+        final Nar nar = new Nar();
+        assertNull(nar.memory.coldConcepts()); //disabled by default
+        nar.narParameters.COLD_CONCEPT_STORE_SIZE = 1;
+
+        nar.addInput("<a --> b>.");
+        nar.addInput("<(*,a,b) --> ^want>!");
+        nar.cycles(10);
+        final Term term = new Narsese(nar).parseTerm("<a --> b>");
+        final Concept concept = nar.memory.concept(term);
+        final int beliefs = concept.beliefs.size();
+        assertTrue(beliefs > 0);
+
+        nar.memory.concepts.take(term);
+        nar.memory.conceptRemoved(concept);
+        assertTrue(nar.memory.coldConcepts().contains(term));
+        assertNull(nar.memory.concepts.get(term));
+
+        //a lookup doesn't fault the concept in, only conceptualize does
+        assertNull(nar.memory.concept(term));
+        assertTrue(nar.memory.coldConcepts().contains(term));
+
+        final Concept restored = nar.memory.conceptualize(concept.budget.clone(), term);
+        assertNotSame(concept, restored);
+        assertSame(nar.memory, restored.memory);
+        assertSame(restored, nar.memory.concepts.get(term));
+        assertEquals(beliefs, restored.beliefs.size());
+        assertEquals(concept.beliefs.get(0).sentence, restored.beliefs.get(0).sentence);
+        assertFalse(nar.memory.coldConcepts().contains(term));
+
+        //operators are resolved to the registered instance
+        final Term op = new Narsese(nar).parseTerm("<(*,a,b) --> ^want>");
+        final Concept opConcept = nar.memory.concept(op);
+        assertNotNull(opConcept);
+        nar.memory.concepts.take(op);
+        nar.memory.conceptRemoved(opConcept);
+        final Concept opRestored = nar.memory.conceptualize(opConcept.budget.clone(), op);
+        assertSame(nar.memory.getOperator("^want"), ((Inheritance) opRestored.term).getPredicate());
+
+        nar.cycles(10);
+    }
+
+    @Test
+    public void testSegmentRecycling() throws Exception {
+        final Nar nar = new Nar();
+        final ConceptStore store = new ConceptStore(64 * 1024);
+        int i = 0;
+        while (store.getDropped() == 0) {
+            nar.addInput("<x" + i + " --> y" + i + ">.");
+            nar.cycles(1);
+            final Term term = new Narsese(nar).parseTerm("<x" + i + " --> y" + i + ">");
+            assertTrue(store.put(nar.memory.concept(term)));
+            i++;
+        }
+        assertTrue(store.size() < i);
+        assertFalse(store.contains(new Narsese(nar).parseTerm("<x0 --> y0>")));
+        final Term last = new Narsese(nar).parseTerm("<x" + (i - 1) + " --> y" + (i - 1) + ">");
+        assertNotNull(store.take(last, nar.memory));
+        assertEquals(i, store.getStored());
+    }
+}
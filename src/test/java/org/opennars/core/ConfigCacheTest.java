@@ -0,0 +1,85 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.io.ConfigReader;
+import org.opennars.main.Nar;
+import org.opennars.main.Parameters;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that compiled configs are shared between reasoners without sharing their state
+ */
+public class ConfigCacheTest {
+
+    private static void write(final File file, final int volume) throws Exception {
+        Files.write(file.toPath(), ("<config>\n<conf name=\"VOLUME\" value=\"" + volume + "\"/>\n" +
+            "<conf name=\"DECISION_THRESHOLD\" value=\"0.6\"/>\n</config>\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSharedConfig() throws Exception {
+        final Nar a = new Nar();
+        final Nar b = new Nar();
+        assertSame(ConfigReader.compile(Nar.DEFAULTCONFIG_FILEPATH), ConfigReader.compile(Nar.DEFAULTCONFIG_FILEPATH));
+
+        //equal settings in separate instances
+        assertNotSame(a.narParameters, b.narParameters);
+        assertEquals(a.narParameters.CONCEPT_BAG_SIZE, b.narParameters.CONCEPT_BAG_SIZE);
+        final int volume = b.narParameters.VOLUME;
+        a.narParameters.VOLUME = volume + 1;
+        assertEquals(volume, b.narParameters.VOLUME);
+        assertEquals(volume, new Nar().narParameters.VOLUME);
+
+        //every reasoner gets its own plugins
+        assertEquals(a.getPlugins().size(), b.getPlugins().size());
+        for (int i = 0; i < a.getPlugins().size(); i++) {
+            assertNotSame(a.getPlugins().get(i).plugin, b.getPlugins().get(i).plugin);
+            assertEquals(a.getPlugins().get(i).plugin.getClass(), b.getPlugins().get(i).plugin.getClass());
+        }
+    }
+
+    @Test
+    public void testModifiedFile() throws Exception {
+        final File file = File.createTempFile("config", ".xml");
+        try {
+            write(file, 10);
+            assertEquals(10, new Nar(file.getPath()).narParameters.VOLUME);
+            assertEquals(0.6f, new Nar(file.getPath()).narParameters.DECISION_THRESHOLD, 0.0f);
+
+            //a modified file is compiled again
+            write(file, 100);
+            file.setLastModified(file.lastModified() + 2000);
+            assertEquals(100, new Nar(file.getPath()).narParameters.VOLUME);
+
+            //the assignment into existing parameters only changes the configured ones
+            final Parameters parameters = new Parameters();
+            parameters.CONCEPT_BAG_SIZE = 7;
+            ConfigReader.loadParamsFromFileAndReturnPlugins(file.getPath(), null, parameters);
+            assertEquals(100, parameters.VOLUME);
+            assertEquals(7, parameters.CONCEPT_BAG_SIZE);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.control.DerivationContext;
+import org.opennars.entity.Task;
+import org.opennars.io.Narsese;
+import org.opennars.io.events.OutputHandler;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.storage.Memory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the reuse of the derivation contexts of a thread
+ */
+public class DerivationContextPoolTest {
+
+    final static int CYCLES = 1000;
+    /** bytes a measured inference cycle may allocate on average */
+    final static long ALLOCATION_BUDGET = 16 * 1024;
+
+    static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static long allocated() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        final Nar nar = new Nar();
+        final Task task = new Narsese(nar).parseTask("<a --> b>. :|:");
+
+        final DerivationContext nal = DerivationContext.acquire(nar.memory, nar.narParameters, nar);
+        nal.setCurrentTask(task);
+        nal.setCurrentTerm(task.getTerm());
+        nal.setTheNewStamp(task.sentence.stamp);
+        nal.evidentalOverlap = true;
+        nal.release();
+
+        final DerivationContext again = DerivationContext.acquire(nar.memory, nar.narParameters, nar);
+        assertSame(nal, again);
+        assertNull(again.getCurrentTask());
+        assertNull(again.getCurrentTerm());
+        assertTrue(!again.evidentalOverlap);
+        again.release();
+    }
+
+    @Test
+    public void testNesting() throws Exception {
+        final Nar nar = new Nar();
+        final DerivationContext outer = DerivationContext.acquire(nar.memory, nar.narParameters, nar);
+        final DerivationContext inner = DerivationContext.acquire(nar.memory, nar.narParameters, nar);
+        assertNotSame(outer, inner);
+        inner.release();
+        assertSame(inner, DerivationContext.acquire(nar.memory, nar.narParameters, nar));
+        inner.release();
+        outer.release();
+
+        //a released context doesn't refer to the memory anymore and can be reused for another one
+        assertNull(outer.memory);
+        final Nar other = new Nar();
+        final DerivationContext otherContext = DerivationContext.acquire(other.memory, other.narParameters, other);
+        assertSame(outer, otherContext);
+        assertSame(other.memory, otherContext.memory);
+        assertSame(other.narParameters, otherContext.narParameters);
+        otherContext.release();
+        assertNull(otherContext.memory);
+        assertNull(otherContext.narParameters);
+        assertNull(otherContext.time);
+    }
+
+    @Test
+    public void testUnifier() throws Exception {
+        final Nar nar = new Nar();
+        final DerivationContext nal = DerivationContext.acquire(nar.memory, nar.narParameters, nar);
+        final Term[] u = nal.unifier(Term.get("a"), Term.get("b"));
+        assertSame(u, nal.unifier(Term.get("c"), Term.get("d")));
+        assertEquals(Term.get("c"), u[0]);
+        assertEquals(Term.get("d"), u[1]);
+        nal.release();
+    }
+
+    @Test
+    public void testAllocationBudget() throws Exception {
+        Memory.resetStatic();
+        final Nar nar = new Nar();
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.addInput("<c --> d>.");
+        nar.addInput("<d --> e>.");
+        nar.cycles(CYCLES); //warm up
+
+        final DerivationContext pooled = DerivationContext.acquire(nar.memory, nar.narParameters, nar);
+        pooled.release();
+        final long before = allocated();
+        nar.cycles(CYCLES);
+        final long allocated = allocated() - before;
+        assertTrue("allocated " + allocated + " bytes in " + CYCLES + " cycles", allocated < ALLOCATION_BUDGET * CYCLES);
+
+        //the firings and the local inference of the cycles reused the context of the thread
+        final DerivationContext again = DerivationContext.acquire(nar.memory, nar.narParameters, nar);
+        assertSame(pooled, again);
+        again.release();
+    }
+
+    @Test
+    public void testAnticipationAfterRelease() throws Exception {
+        final Nar nar = new Nar();
+        final List<Object> errors = new ArrayList<>();
+        nar.memory.event.set((event, args) -> errors.add(args[0]), true, OutputHandler.ERR.class);
+
+        //the event which induces the anticipation comes with a pooled context, which is released before the cycle ends
+        nar.addInput("<a --> b>. :|:");
+        nar.addInput("(^anticipate,{SELF},<c --> d>)! :|:");
+        nar.cycles(100);
+        assertTrue(errors.size() + " errors, first: " + (errors.isEmpty() ? null : errors.get(0)), errors.isEmpty());
+    }
+}
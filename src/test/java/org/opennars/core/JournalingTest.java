@@ -0,0 +1,118 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Concept;
+import org.opennars.io.Narsese;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.plugin.mental.Journaling;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a reasoner recovers the journaled state of another one from checkpoints and the log
+ */
+public class JournalingTest {
+
+    @Test
+    public void testRecovery() throws Exception {
+        final File dir = Files.createTempDirectory("journal").toFile();
+        final Nar nar = new Nar();
+        final Journaling journaling = new Journaling(dir.getPath(), 20, 3);
+        nar.addPlugin(journaling);
+        assertFalse(journaling.getJournal().isRecoverable());
+
+        nar.addInput("<a --> b>. %0.8;0.7%");
+        nar.addInput("<b --> c>.");
+        nar.cycles(50); //a full and an incremental checkpoint
+        nar.addInput("<x --> y>.");
+        nar.cycles(5); //only in the log
+        journaling.getJournal().awaitCheckpoint();
+        assertEquals(2, journaling.getJournal().getCheckpoints());
+        assertEquals(3, journaling.getJournal().getLogged());
+
+        //a reasoner which starts after a crash
+        final Nar recovered = new Nar();
+        final Journaling recovering = new Journaling(dir.getPath(), 20, 3);
+        recovered.addPlugin(recovering);
+        assertTrue(recovering.getJournal().isRecoverable());
+        recovering.recover();
+        assertEquals(nar.time(), recovered.time());
+
+        final Narsese narsese = new Narsese(nar);
+        for (final String name : new String[] {"<a --> b>", "<b --> c>", "<x --> y>"}) {
+            final Term term = narsese.parseTerm(name);
+            final Concept original = nar.memory.concept(term);
+            final Concept restored = recovered.memory.concept(term);
+            assertNotNull(name, restored);
+            assertEquals(original.beliefs.get(0).sentence, restored.beliefs.get(0).sentence);
+        }
+        assertEquals(0.8f, recovered.memory.concept(narsese.parseTerm("<a --> b>")).beliefs.get(0).sentence.truth.getFrequency(), 0.001f);
+
+        //the recovery ends with a full checkpoint which replaces the older files
+        final String[] files = dir.list();
+        assertEquals(2, files.length);
+        recovered.cycles(10);
+        recovering.getJournal().close();
+        journaling.getJournal().close();
+        for (final File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testIndirectChanges() throws Exception {
+        final File dir = Files.createTempDirectory("journal").toFile();
+        final Nar nar = new Nar();
+        final Journaling journaling = new Journaling(dir.getPath(), 20, 100);
+        nar.addPlugin(journaling);
+        for (final String name : new String[] {"a", "b", "c", "d", "e", "f"}) {
+            nar.addInput("<" + name + " --> x>.");
+        }
+        nar.cycles(39); //the full checkpoint
+        nar.addInput("<(*,a,b,c,d,e,f) --> y>.");
+        nar.cycles(1); //an incremental checkpoint, most concepts of the components only got links
+        journaling.getJournal().awaitCheckpoint();
+        assertEquals(2, journaling.getJournal().getCheckpoints());
+
+        final Nar recovered = new Nar();
+        final Journaling recovering = new Journaling(dir.getPath(), 20, 100);
+        recovered.addPlugin(recovering);
+        recovering.recover();
+        for (final Concept original : nar.memory.concepts) {
+            final Concept restored = recovered.memory.concept(original.getTerm());
+            assertNotNull(original.toString(), restored);
+            assertEquals(original.toString(), original.taskLinks.size(), restored.taskLinks.size());
+            assertEquals(original.toString(), original.termLinks.size(), restored.termLinks.size());
+            assertEquals(original.toString(), original.beliefs.size(), restored.beliefs.size());
+        }
+
+        recovering.getJournal().close();
+        journaling.getJournal().close();
+        for (final File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Concept;
+import org.opennars.inference.BudgetFunctions;
+import org.opennars.io.Narsese;
+import org.opennars.main.Nar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the forgetting according to elapsed cycles
+ */
+public class LazyForgettingTest {
+
+    @Test
+    public void testDecayPerCycle() throws Exception {
+        final Nar nar = new Nar();
+        final BudgetValue budget = new BudgetValue(0.9f, 0.5f, 0.5f, nar.narParameters);
+        final float once = BudgetFunctions.applyForgetting(budget.clone(), 10, 0.1f);
+
+        //never forgotten before: forgotten like on access
+        assertEquals(once, BudgetFunctions.applyForgetting(budget, 10, 0.1f, 100), 0.0001f);
+        assertEquals(100, budget.getLastForgetTime());
+
+        //accesses within the same cycle don't forget again
+        assertEquals(once, BudgetFunctions.applyForgetting(budget, 10, 0.1f, 100), 0.0001f);
+
+        //after forgetCycles cycles the priority above the re-scaled quality is halved by the durability
+        final float expected = 0.05f + (once - 0.05f) * 0.5f;
+        assertEquals(expected, BudgetFunctions.forgottenPriority(budget, 10, 0.1f, 110), 0.0001f);
+        assertEquals(once, budget.getPriority(), 0.0001f);
+        assertEquals(expected, BudgetFunctions.applyForgetting(budget, 10, 0.1f, 110), 0.0001f);
+    }
+
+    @Test
+    public void testInference() throws Exception {
+        final Nar nar = new Nar();
+        nar.narParameters.LAZY_FORGETTING = true;
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.cycles(100);
+        assertEquals(100, nar.memory.cycleCount());
+        final Concept c = nar.memory.concept(new Narsese(nar).parseTerm("<a --> c>"));
+        assertNotNull(c);
+        assertTrue(c.budget.getLastForgetTime() > 0);
+    }
+}
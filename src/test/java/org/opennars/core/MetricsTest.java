@@ -0,0 +1,70 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.main.Metrics;
+import org.opennars.main.Nar;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the counters of the metrics and that they are readable from the platform MBean server
+ */
+public class MetricsTest {
+
+    @Test
+    public void testCounters() throws Exception {
+        final Nar nar = new Nar();
+        final Metrics metrics = new Metrics();
+        nar.addPlugin(metrics);
+
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.addInput("<a --> c>?");
+        nar.cycles(100);
+
+        assertEquals(100, metrics.getCycles());
+        assertTrue(metrics.getDerivations() > 0);
+        assertTrue(metrics.getAnswers() > 0);
+        assertTrue(metrics.getConceptsCreated() >= 3);
+        assertTrue(metrics.getConceptBagSize() >= 3);
+        assertTrue(metrics.getConceptBagMass() > 0);
+        assertTrue(metrics.getCycleLatencyP50() > 0);
+        assertTrue(metrics.getCycleLatencyP50() <= metrics.getCycleLatencyP99());
+        assertTrue(metrics.getCycleLatencyP99() <= metrics.getCycleLatencyMax());
+        boolean timed = false;
+        for (final String line : metrics.getEventDispatch()) {
+            timed |= line.startsWith(Metrics.class.getName() + " calls=");
+        }
+        assertTrue(timed);
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName("org.opennars:type=Metrics,nar=" + nar.memory.narId);
+        assertEquals(100L, server.getAttribute(name, "Cycles"));
+        assertEquals(metrics.getDerivations(), server.getAttribute(name, "Derivations"));
+        server.invoke(name, "resetTimings", null, null);
+        assertEquals(0.0, metrics.getCycleLatencyMax(), 0.0);
+
+        nar.removePlugin(nar.getPlugins().get(nar.getPlugins().size() - 1));
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.main.MiscFlags;
+import org.opennars.storage.Memory;
+import org.opennars.util.io.ExampleFileInput;
+import org.opennars.util.test.NalScriptRunner;
+import org.opennars.util.test.OutputCondition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the pooled script runner stops scripts early, keeps inverse conditions for the whole budget
+ * and gives the same cycles with any number of workers
+ */
+public class NalScriptRunnerTest {
+
+    static {
+        Memory.randomNumber.setSeed(1);
+        MiscFlags.DEBUG = false;
+        MiscFlags.TEST = true;
+    }
+
+    static final String[] SCRIPTS = {"nal1.0.nal", "nal1.1.nal", "nal2.13.nal", "nal5.1.nal", "nal7.2.nal", "notcontain.nal"};
+
+    @Test
+    public void testPooledRun() throws Exception {
+        final List<String> paths = scriptPaths();
+
+        //fewer workers than scripts, so reasoners get reset and reused
+        final List<NalScriptRunner.Result> results = new NalScriptRunner(2, NalScriptRunner.EXTRA_CYCLES).run(paths);
+        for (final NalScriptRunner.Result r : results) {
+            assertTrue(r.toString(), r.success);
+            assertTrue(r.toString(), r.cyclesToSuccess <= r.cycles);
+            boolean inverse = false;
+            for (final OutputCondition c : r.conditions) {
+                inverse |= c.isInverse();
+            }
+            if (inverse) {
+                assertTrue(r.toString(), r.cycles >= NalScriptRunner.EXTRA_CYCLES);
+            } else {
+                assertTrue(r.toString(), r.cycles < NalScriptRunner.EXTRA_CYCLES);
+                assertEquals(r.toString(), r.cyclesToSuccess, r.cycles);
+            }
+        }
+    }
+
+    @Test
+    public void testReproducible() throws Exception {
+        //enough scripts which draw random numbers to interleave on the workers
+        final List<String> paths = NalScriptRunner.scripts("/nal/single_step/");
+        final List<NalScriptRunner.Result> first = new NalScriptRunner(1, NalScriptRunner.EXTRA_CYCLES).run(paths);
+        //concurrent and differently reused reasoners must not change the cycles of a script
+        final List<NalScriptRunner.Result> second = new NalScriptRunner(3, NalScriptRunner.EXTRA_CYCLES).run(paths);
+        for (int i = 0; i < paths.size(); i++) {
+            assertEquals(first.get(i).toString(), first.get(i).cycles, second.get(i).cycles);
+            assertEquals(first.get(i).toString(), first.get(i).cyclesToSuccess, second.get(i).cyclesToSuccess);
+            assertEquals(first.get(i).toString(), first.get(i).derivations, second.get(i).derivations);
+        }
+    }
+
+    private static List<String> scriptPaths() throws Exception {
+        final List<String> paths = new ArrayList<>();
+        for (final Object o : ExampleFileInput.getUnitTests(new String[] {"/nal/single_step/"}).values()) {
+            final String path = (String) ((Object[]) o)[0];
+            for (final String script : SCRIPTS) {
+                if (path.endsWith("/" + script)) {
+                    paths.add(path);
+                }
+            }
+        }
+        assertEquals(SCRIPTS.length, paths.size());
+        return paths;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Concept;
+import org.opennars.io.Narsese;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.main.NarSnapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the copies restored from a snapshot start with its memory and don't affect each other
+ */
+public class NarSnapshotTest {
+
+    @Test
+    public void testRestore() throws Exception {
+        final Nar nar = new Nar();
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.cycles(100);
+        final Narsese narsese = new Narsese(nar);
+        final Term ac = narsese.parseTerm("<a --> c>");
+        final Concept original = nar.memory.concept(ac);
+        assertNotNull(original);
+
+        final NarSnapshot snapshot = nar.snapshot();
+        assertTrue(snapshot.size() > 0);
+        final Nar first = snapshot.restore();
+        final Nar second = snapshot.restore();
+
+        //the copies start with the memory and the time of the snapshot
+        assertEquals(nar.time(), first.time());
+        final Concept c1 = first.memory.concept(ac);
+        final Concept c2 = second.memory.concept(ac);
+        assertNotNull(c1);
+        assertEquals(original.beliefs.size(), c1.beliefs.size());
+        assertEquals(original.beliefs.get(0).sentence.truth, c1.beliefs.get(0).sentence.truth);
+
+        //nothing is shared, terms can be changed after their construction
+        assertNotSame(c1, c2);
+        assertNotSame(c1.beliefs, c2.beliefs);
+        assertNotSame(c1.getTerm(), c2.getTerm());
+        assertNotSame(original.getTerm(), c1.getTerm());
+        assertEquals(original.getTerm(), c1.getTerm());
+        assertNotSame(first.narParameters, second.narParameters);
+        assertFalse(first.getPlugins().isEmpty());
+        assertNotSame(first.getPlugins().get(0).plugin, second.getPlugins().get(0).plugin);
+
+        //input to one copy stays in it
+        final Term xy = narsese.parseTerm("<x --> y>");
+        first.addInput("<x --> y>.");
+        first.cycles(10);
+        assertNotNull(first.memory.concept(xy));
+        assertNull(second.memory.concept(xy));
+        assertNull(nar.memory.concept(xy));
+        second.cycles(10);
+        assertEquals(original.beliefs.size(), nar.memory.concept(ac).beliefs.size());
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.control.DerivationContext;
+import org.opennars.entity.Concept;
+import org.opennars.entity.Stamp;
+import org.opennars.entity.Task;
+import org.opennars.entity.TaskLink;
+import org.opennars.entity.TermLink;
+import org.opennars.inference.PremiseCache;
+import org.opennars.inference.RuleTables;
+import org.opennars.io.events.EventEmitter;
+import org.opennars.io.events.Events;
+import org.opennars.main.Nar;
+import org.opennars.storage.Memory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that repeatedly fired premise pairs are served from the premise cache
+ */
+public class PremiseCacheTest {
+
+    @Test
+    public void testRepeatedPremisesHit() throws Exception {
+        final Nar nar = new Nar();
+        assertNull(nar.memory.premiseCache()); //disabled by default
+
+        nar.narParameters.PREMISE_CACHE_SIZE = 100;
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.addInput("<c --> d>.");
+        nar.cycles(500);
+
+        final PremiseCache cache = nar.memory.premiseCache();
+        assertTrue(cache.getMisses() > 0);
+        assertTrue(cache.getHits() > 0);
+        assertTrue(cache.size() <= 100);
+
+        nar.reset();
+        assertEquals(0, nar.memory.premiseCache().size());
+    }
+
+    /**
+     * Fires every premise pair of a warmed up reasoner twice, once with the cache disabled
+     * and once with it enabled so that the second firing is replayed, the derived tasks have to be identical
+     */
+    @Test
+    public void testReplayMatchesDerivation() throws Exception {
+        final List<String> uncached = firePremisePairs(0);
+        final List<String> cached = firePremisePairs(100);
+        assertFalse(uncached.isEmpty());
+        assertEquals(uncached, cached);
+    }
+
+    /**
+     * @return the derived tasks with exact truth, budget and stamp, in the order they were derived
+     */
+    private static List<String> firePremisePairs(final int cacheSize) throws Exception {
+        Memory.resetStatic();
+        final Nar nar = new Nar();
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.addInput("<c --> d>.");
+        nar.addInput("<(*,a,d) --> r>.");
+        nar.cycles(50);
+        nar.narParameters.PREMISE_CACHE_SIZE = cacheSize;
+
+        final List<String> derived = new ArrayList<>();
+        nar.event(new EventEmitter.EventObserver() {
+            @Override
+            public void event(final Class event, final Object[] args) {
+                final Task t = (Task) args[0];
+                derived.add(t.sentence.term + " " + t.sentence.punctuation +
+                    " " + (t.sentence.truth == null ? "-" : t.sentence.truth.getFrequency() + ";" + t.sentence.truth.getConfidence()) +
+                    " " + t.getPriority() + ";" + t.getDurability() + ";" + t.getQuality() +
+                    " " + stamp(t.sentence.stamp));
+            }
+        }, true, Events.TaskDerive.class);
+
+        final List<Concept> concepts = new ArrayList<>();
+        for (final Concept c : nar.memory.concepts) {
+            concepts.add(c);
+        }
+        for (final Concept c : concepts) {
+            final List<TaskLink> taskLinks = new ArrayList<>();
+            for (final TaskLink tLink : c.taskLinks) {
+                taskLinks.add(tLink);
+            }
+            final List<TermLink> termLinks = new ArrayList<>();
+            for (final TermLink bLink : c.termLinks) {
+                termLinks.add(bLink);
+            }
+            for (final TaskLink tLink : taskLinks) {
+                if (tLink.type == TermLink.TRANSFORM) {
+                    continue;
+                }
+                for (final TermLink bLink : termLinks) {
+                    for (int i = 0; i < 2; i++) {
+                        Memory.resetStatic(); //the replay skips the random choices of the unification
+                        final DerivationContext nal = new DerivationContext(nar.memory, nar.narParameters, nar);
+                        nal.setCurrentConcept(c);
+                        nal.setCurrentTerm(c.getTerm());
+                        nal.setCurrentTaskLink(tLink);
+                        nal.setCurrentBeliefLink(bLink);
+                        nal.setCurrentTask(tLink.getTarget());
+                        RuleTables.reason(tLink, bLink, nal);
+                    }
+                }
+            }
+        }
+        if (cacheSize > 0) {
+            assertTrue(nar.memory.premiseCache().getHits() > 0);
+        }
+        return derived;
+    }
+
+    /* the evidential base without the id of the reasoner, which differs between the runs */
+    private static String stamp(final Stamp stamp) {
+        final StringBuilder s = new StringBuilder();
+        s.append(stamp.getCreationTime()).append(' ').append(stamp.getOccurrenceTime());
+        for (int i = 0; i < stamp.baseLength; i++) {
+            s.append(' ').append(stamp.evidentialBase[i].getInputId());
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.inference.RuleTables;
+import org.opennars.inference.RuleTables.PremiseRule;
+import org.opennars.main.Nar;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that premise pairs are dispatched through the rule table
+ */
+public class RuleDispatchTest {
+
+    @Test
+    public void testSyllogismHits() throws Exception {
+        final Nar nar = new Nar();
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.cycles(100);
+
+        long syllogistic = 0;
+        for (final PremiseRule rule : RuleTables.getPremiseRules()) {
+            if (rule.name.startsWith("asymmetricAsymmetric/")) {
+                syllogistic += rule.getHits();
+            }
+        }
+        assertTrue(syllogistic > 0);
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.inference.RuleStatistics;
+import org.opennars.main.Nar;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the recording of the per rule statistics
+ */
+public class RuleStatisticsTest {
+
+    @Test
+    public void testDeductionIsRecorded() throws Exception {
+        RuleStatistics.enable(true);
+        try {
+            RuleStatistics.clear();
+            final Nar nar = new Nar();
+            nar.addInput("<a --> b>.");
+            nar.addInput("<b --> c>.");
+            nar.cycles(100);
+
+            final RuleStatistics.Rule dedExe = RuleStatistics.rule("SyllogisticRules.dedExe");
+            assertTrue(dedExe.getInvocations() > 0);
+            assertTrue(dedExe.getDerived() > 0);
+            assertTrue(dedExe.getLatencyPercentile(0.99) >= dedExe.getLatencyPercentile(0.5));
+            assertTrue(RuleStatistics.report().contains("SyllogisticRules.dedExe"));
+        } finally {
+            RuleStatistics.enable(false);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Task;
+import org.opennars.io.Narsese;
+import org.opennars.io.events.Events;
+import org.opennars.main.Nar;
+import org.opennars.storage.TaskBuffer;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the policies and the batches of the new task buffer, which is only bounded on request
+ */
+public class TaskBufferTest {
+
+    private static Task task(final Narsese narsese, final String sentence, final float priority) throws Exception {
+        final Task task = narsese.parseTask(sentence);
+        task.budget.setPriority(priority);
+        return task;
+    }
+
+    @Test
+    public void testDropLowest() throws Exception {
+        final Nar nar = new Nar();
+        final Narsese narsese = new Narsese(nar);
+        nar.narParameters.NEW_TASKS_CAPACITY = 2;
+        nar.narParameters.NEW_TASKS_POLICY = "DROP_LOWEST";
+        final TaskBuffer buffer = new TaskBuffer(nar.narParameters);
+
+        final Task a = task(narsese, "<a --> b>.", 0.5f);
+        final Task b = task(narsese, "<b --> c>.", 0.2f);
+        final Task c = task(narsese, "<c --> d>.", 0.8f);
+        final Task d = task(narsese, "<d --> e>.", 0.1f);
+        assertSame(TaskBuffer.Result.QUEUED, buffer.add(a, true));
+        assertSame(TaskBuffer.Result.QUEUED, buffer.add(b, true));
+        assertSame(b, buffer.add(c, true).dropped); //displaces the lowest
+        assertSame(d, buffer.add(d, true).dropped); //lower than all waiting tasks
+        assertEquals(Arrays.asList(a, c), buffer.toList());
+        assertEquals(2, buffer.getDropped());
+        assertEquals(2, buffer.getPeakSize());
+    }
+
+    @Test
+    public void testUnboundedByDefault() throws Exception {
+        final Nar nar = new Nar();
+        final Narsese narsese = new Narsese(nar);
+        final TaskBuffer buffer = new TaskBuffer(nar.narParameters);
+
+        final Task a = task(narsese, "<a --> b>.", 0.5f);
+        for (int i = 0; i < 20000; i++) {
+            assertSame(TaskBuffer.Result.QUEUED, buffer.add(a, true));
+        }
+        assertEquals(20000, buffer.size());
+        assertEquals(0, buffer.getDropped());
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        final Nar nar = new Nar();
+        final Narsese narsese = new Narsese(nar);
+        nar.narParameters.NEW_TASKS_POLICY = "MERGE";
+        final TaskBuffer buffer = new TaskBuffer(nar.narParameters);
+
+        final Task a = task(narsese, "<a --> b>.", 0.3f);
+        final Task same = new Task(a.sentence, new BudgetValue(0.9f, 0.9f, 0.5f, nar.narParameters), Task.EnumType.INPUT);
+        assertSame(TaskBuffer.Result.QUEUED, buffer.add(a, true));
+        assertTrue(buffer.add(same, true).merged);
+        assertEquals(1, buffer.size());
+        assertEquals(1, buffer.getMerged());
+        assertEquals(0.9f, a.getPriority(), 0.001f);
+
+        //once taken, the sentence is new again
+        assertSame(a, buffer.poll());
+        assertSame(TaskBuffer.Result.QUEUED, buffer.add(same, true));
+        assertEquals(Arrays.asList(same), buffer.toList());
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        final Nar nar = new Nar();
+        final Narsese narsese = new Narsese(nar);
+        nar.narParameters.NEW_TASKS_CAPACITY = 1;
+        nar.narParameters.NEW_TASKS_POLICY = "BLOCK";
+        final TaskBuffer buffer = new TaskBuffer(nar.narParameters);
+
+        final Task a = task(narsese, "<a --> b>.", 0.5f);
+        final Task b = task(narsese, "<b --> c>.", 0.5f);
+        buffer.add(a, true);
+        final Thread producer = new Thread(() -> buffer.add(b, true));
+        producer.start();
+        while (buffer.getBlocked() == 0) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, buffer.size());
+        assertTrue(producer.isAlive());
+        assertSame(a, buffer.poll());
+        producer.join(10000);
+        assertEquals(Arrays.asList(b), buffer.toList());
+
+        //a producer which can't wait drops instead
+        final Task c = task(narsese, "<c --> d>.", 0.1f);
+        assertSame(c, buffer.add(c, false).dropped);
+        assertEquals(1, buffer.getDropped());
+    }
+
+    @Test
+    public void testBlockOnlyWhileRunning() throws Exception {
+        final Nar nar = new Nar();
+        nar.narParameters.NEW_TASKS_CAPACITY = 1;
+        nar.narParameters.NEW_TASKS_POLICY = "BLOCK";
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>."); //the reasoner doesn't run, so the input is dropped instead of waiting forever
+        assertEquals(1, nar.memory.newTaskCount());
+        assertEquals(1, nar.memory.newTasks.getDropped());
+        assertEquals(0, nar.memory.newTasks.getBlocked());
+
+        //tasks derived in a cycle are dropped too, the reasoner can't wait for itself
+        nar.cycles(10);
+        assertEquals(0, nar.memory.newTasks.getBlocked());
+    }
+
+    @Test
+    public void testMergedIsNotOutput() throws Exception {
+        final Nar nar = new Nar();
+        nar.narParameters.NEW_TASKS_POLICY = "MERGE";
+        final int[] added = {0};
+        final int[] removed = {0};
+        nar.on(Events.TaskAdd.class, (event, args) -> added[0]++);
+        nar.on(Events.TaskRemove.class, (event, args) -> {
+            if ("Merged".equals(args[1])) {
+                removed[0]++;
+            }
+        });
+        final Task a = task(new Narsese(nar), "<a --> b>.", 0.3f);
+        final Task same = new Task(a.sentence, new BudgetValue(0.9f, 0.9f, 0.5f, nar.narParameters), Task.EnumType.INPUT);
+        nar.memory.addNewTask(a, "Perceived");
+        nar.memory.addNewTask(same, "Perceived");
+        assertEquals(1, nar.memory.newTaskCount());
+        assertEquals(1, added[0]);
+        assertEquals(1, removed[0]);
+    }
+
+    @Test
+    public void testUnknownPolicy() throws Exception {
+        final Nar nar = new Nar();
+        final Narsese narsese = new Narsese(nar);
+        nar.narParameters.NEW_TASKS_CAPACITY = 1;
+        nar.narParameters.NEW_TASKS_POLICY = "DROP_LOWEST_TYPO";
+        final TaskBuffer buffer = new TaskBuffer(nar.narParameters);
+        buffer.add(task(narsese, "<a --> b>.", 0.5f), false);
+        final Task low = task(narsese, "<b --> c>.", 0.1f);
+        assertSame(low, buffer.add(low, false).dropped);
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        final Nar nar = new Nar();
+        nar.narParameters.NEW_TASKS_BATCH = 3;
+        for (int i = 0; i < 10; i++) {
+            nar.addInput("<a" + i + " --> b>.");
+        }
+        assertEquals(10, nar.memory.newTaskCount());
+        nar.memory.processNewTasks(nar.narParameters, nar);
+        assertEquals(7, nar.memory.newTaskCount());
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Task;
+import org.opennars.io.Narsese;
+import org.opennars.io.events.OutputHandler;
+import org.opennars.io.events.TextOutputHandler;
+import org.opennars.main.Nar;
+import org.opennars.storage.Memory;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the asynchronous and the JSON output of TextOutputHandler
+ */
+public class TextOutputHandlerTest {
+
+    private static String run(final boolean asynchronous, final TextOutputHandler.Format format) throws Exception {
+        final Nar nar = new Nar();
+        final StringWriter out = new StringWriter();
+        final TextOutputHandler output = new TextOutputHandler(nar, new PrintWriter(out)).setFormat(format);
+        if (asynchronous) {
+            output.setAsynchronous(1);
+        }
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>. :|:");
+        nar.addInput("<a --> c>?");
+        nar.cycles(50);
+        if (asynchronous) {
+            output.close();
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void testAsynchronous() throws Exception {
+        Memory.resetStatic();
+        final String synchronous = run(false, TextOutputHandler.Format.TEXT);
+        Memory.resetStatic();
+        final String asynchronous = run(true, TextOutputHandler.Format.TEXT);
+        assertTrue(synchronous.contains("Answer: <a --> c>."));
+        //the stamps contain the id of the reasoner
+        assertEquals(synchronous.replaceAll("\\{[^}]*\\}", ""), asynchronous.replaceAll("\\{[^}]*\\}", ""));
+    }
+
+    @Test
+    public void testJson() throws Exception {
+        final String json = run(true, TextOutputHandler.Format.JSON);
+        final String[] lines = json.split(System.lineSeparator());
+        assertTrue(lines.length > 3);
+        for (final String line : lines) {
+            assertTrue(line, line.startsWith("{\"channel\":\"") && line.endsWith("}"));
+        }
+        assertTrue(json.contains("{\"channel\":\"IN\",\"time\":0,\"term\":\"<a --> b>\",\"punctuation\":\".\",\"frequency\":1.0,\"confidence\":0.9,"));
+        assertTrue(json.contains("\"term\":\"<b --> c>\",\"punctuation\":\".\",\"occurrence\":"));
+        assertTrue(json.contains("{\"channel\":\"Answer\""));
+    }
+
+    @Test
+    public void testMinPriority() throws Exception {
+        final Nar nar = new Nar();
+        final Narsese narsese = new Narsese(nar);
+        final StringWriter out = new StringWriter();
+        final TextOutputHandler output = new TextOutputHandler(nar, new PrintWriter(out), 0.5f).setFormat(TextOutputHandler.Format.JSON);
+        final Task low = narsese.parseTask("<a --> b>.");
+        low.budget.setPriority(0.1f);
+        output.event(OutputHandler.OUT.class, low);
+        assertEquals("", out.toString());
+
+        //the priority is checked when the event happens, a later decay doesn't hide it
+        output.setFormat(TextOutputHandler.Format.TEXT).setAsynchronous(60000);
+        final Task high = narsese.parseTask("<b --> c>.");
+        high.budget.setPriority(0.9f);
+        output.event(OutputHandler.OUT.class, high);
+        high.budget.setPriority(0.1f);
+        output.close();
+        assertTrue(out.toString().startsWith("OUT: <b --> c>."));
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.control.DerivationContext;
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Task;
+import org.opennars.entity.TaskLink;
+import org.opennars.entity.TermLink;
+import org.opennars.entity.TruthValue;
+import org.opennars.inference.BudgetFunctions;
+import org.opennars.inference.TruthFunctions;
+import org.opennars.inference.TruthFunctions.EnumType;
+import org.opennars.io.Narsese;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.main.Parameters;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the truth and budget functions writing into a destination compute the same as the allocating ones
+ */
+public class TruthDestinationTest {
+
+    @Test
+    public void testSameResults() {
+        final Parameters p = new Parameters();
+        final Random rnd = new Random(1);
+        final TruthValue result = new TruthValue(p);
+        for (int i = 0; i < 10000; i++) {
+            final TruthValue a = new TruthValue(rnd.nextFloat(), rnd.nextFloat() * 0.99f, rnd.nextInt(10) == 0, p);
+            final TruthValue b = new TruthValue(rnd.nextFloat(), rnd.nextFloat() * 0.99f, rnd.nextInt(10) == 0, p);
+            for (final EnumType type : EnumType.values()) {
+                final TruthValue expected = TruthFunctions.lookupTruthFunctionAndCompute(type, a, b, p);
+                assertSame(expected, TruthFunctions.lookupTruthFunctionAndCompute(type, a, b, result, p));
+
+                //the destination may be a premise
+                final TruthValue aliased = a.clone();
+                assertSame(expected, TruthFunctions.lookupTruthFunctionAndCompute(type, aliased, b, aliased, p));
+            }
+            assertSame(TruthFunctions.revision(a, b, p), TruthFunctions.revision(a, b, result, p));
+            assertSame(TruthFunctions.negation(a, p), TruthFunctions.negation(a, result, p));
+            assertSame(a, new TruthValue(p).unpack(a.pack()));
+        }
+    }
+
+    @Test
+    public void testSameBudgets() throws Exception {
+        final Nar nar = new Nar();
+        final Parameters p = nar.narParameters;
+        final Task task = new Narsese(nar).parseTask("<(*,a,b) --> c>.");
+        final Term content = task.getTerm();
+        final TermLink template = new TermLink(TermLink.COMPOUND_STATEMENT, Term.get("c"), 1);
+        final Random rnd = new Random(1);
+        final BudgetValue result = new BudgetValue(0f, 0f, 0f, p);
+        for (int i = 0; i < 1000; i++) {
+            final TruthValue truth = new TruthValue(rnd.nextFloat(), rnd.nextFloat() * 0.99f, p);
+            final BudgetValue taskLinkBudget = new BudgetValue(rnd.nextFloat(), rnd.nextFloat(), rnd.nextFloat(), p);
+            final BudgetValue beliefLinkBudget = new BudgetValue(rnd.nextFloat(), rnd.nextFloat(), rnd.nextFloat(), p);
+            for (int function = 0; function < 6; function++) {
+                //the budget functions feed back to the belief link, so each variant gets its own links
+                final DerivationContext allocating = context(nar, task, template, taskLinkBudget, beliefLinkBudget);
+                final DerivationContext into = context(nar, task, template, taskLinkBudget, beliefLinkBudget);
+                final BudgetValue expected;
+                final BudgetValue actual;
+                switch (function) {
+                    case 0:
+                        expected = BudgetFunctions.forward(truth, allocating);
+                        actual = BudgetFunctions.forward(truth, result, into);
+                        break;
+                    case 1:
+                        expected = BudgetFunctions.backward(truth, allocating);
+                        actual = BudgetFunctions.backward(truth, result, into);
+                        break;
+                    case 2:
+                        expected = BudgetFunctions.backwardWeak(truth, allocating);
+                        actual = BudgetFunctions.backwardWeak(truth, result, into);
+                        break;
+                    case 3:
+                        expected = BudgetFunctions.compoundForward(truth, content, allocating);
+                        actual = BudgetFunctions.compoundForward(truth, content, result, into);
+                        break;
+                    case 4:
+                        expected = BudgetFunctions.compoundBackward(content, allocating);
+                        actual = BudgetFunctions.compoundBackward(content, result, into);
+                        break;
+                    default:
+                        expected = BudgetFunctions.compoundBackwardWeak(content, allocating);
+                        actual = BudgetFunctions.compoundBackwardWeak(content, result, into);
+                }
+                assertSame(expected, actual);
+                assertSame(allocating.getCurrentBeliefLink().budget, into.getCurrentBeliefLink().budget);
+            }
+        }
+    }
+
+    private static DerivationContext context(final Nar nar, final Task task, final TermLink template,
+                                             final BudgetValue taskLinkBudget, final BudgetValue beliefLinkBudget) {
+        final DerivationContext nal = new DerivationContext(nar.memory, nar.narParameters, nar);
+        nal.setCurrentTask(task);
+        nal.setCurrentTaskLink(new TaskLink(task, null, taskLinkBudget.clone(), nar.narParameters.TERM_LINK_RECORD_LENGTH));
+        nal.setCurrentBeliefLink(new TermLink(Term.get("c"), template, beliefLinkBudget.clone()));
+        return nal;
+    }
+
+    private static void assertSame(final BudgetValue expected, final BudgetValue actual) {
+        assertEquals(expected.getPriority(), actual.getPriority(), 0);
+        assertEquals(expected.getDurability(), actual.getDurability(), 0);
+        assertEquals(expected.getQuality(), actual.getQuality(), 0);
+    }
+
+    private static void assertSame(final TruthValue expected, final TruthValue actual) {
+        assertEquals(expected.getFrequency(), actual.getFrequency(), 0);
+        assertEquals(expected.getConfidence(), actual.getConfidence(), 0);
+        assertEquals(expected.getAnalytic(), actual.getAnalytic());
+    }
+}
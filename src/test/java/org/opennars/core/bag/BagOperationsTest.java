@@ -26,6 +26,7 @@ import org.opennars.language.Term;
 import org.opennars.main.Nar;
 import org.opennars.storage.Bag;
 import org.opennars.storage.LevelBag;
+import org.opennars.storage.SumTreeBag;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -81,6 +82,7 @@ public class BagOperationsTest {
         Nar nar = new Nar();
         this.narParameters = nar.narParameters;
         testBagSequence(new LevelBag(2, 2, nar.narParameters));    
+        testBagSequence(new SumTreeBag(2));
     }
 
     public static float getMinPriority(Bag<Concept,Term> bag) {
@@ -0,0 +1,112 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core.bag;
+
+import org.junit.Test;
+import org.opennars.main.Nar;
+import org.opennars.perf.BagPerf.NullItem;
+import org.opennars.storage.Bag;
+import org.opennars.storage.LevelBag;
+import org.opennars.storage.SumTreeBag;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that Bag.sample selects distinct items without taking them out of the bag
+ */
+public class BagSampleTest {
+
+    @Test
+    public void testLevelBag() throws Exception {
+        final LevelBag<NullItem,CharSequence> bag = new LevelBag<>(10, 10, 0);
+        final LevelBag<NullItem,CharSequence> twin = new LevelBag<>(10, 10, 0);
+        for (final LevelBag<NullItem,CharSequence> b : new LevelBag[] {bag, twin}) {
+            b.putIn(new NullItem(0.95f));
+            for (int i = 0; i < 5; i++) {
+                b.putIn(new NullItem(0.15f));
+            }
+        }
+
+        //the items are selected in the order takeNext would take them out
+        final List<NullItem> selected = new ArrayList<>();
+        bag.sample(6, selected::add);
+        for (final NullItem item : selected) {
+            assertEquals(twin.takeNext().getPriority(), item.getPriority(), 0.0001f);
+        }
+        testCommon(bag);
+    }
+
+    @Test
+    public void testSumTreeBag() throws Exception {
+        final SumTreeBag<NullItem,CharSequence> bag = new SumTreeBag<>(10);
+        final NullItem high = new NullItem(0.95f);
+        bag.putIn(high);
+        for (int i = 0; i < 5; i++) {
+            bag.putIn(new NullItem(0.01f));
+        }
+        testCommon(bag);
+
+        //weighted by priority
+        int first = 0;
+        for (int i = 0; i < 100; i++) {
+            final List<NullItem> one = new ArrayList<>();
+            bag.sample(1, one::add);
+            if (one.get(0) == high) {
+                first++;
+            }
+        }
+        assertTrue(first > 80);
+    }
+
+    private static void testCommon(final Bag<NullItem,CharSequence> bag) throws Exception {
+        final List<NullItem> selected = new ArrayList<>();
+        assertEquals(4, bag.sample(4, selected::add));
+        assertEquals(4, new HashSet<>(selected).size());
+        assertEquals(6, bag.size());
+        for (final NullItem item : selected) {
+            assertSame(item, bag.get(item.name()));
+        }
+
+        //no more items than the bag holds
+        final List<NullItem> all = new ArrayList<>();
+        assertEquals(6, bag.sample(10, all::add));
+        assertEquals(6, new HashSet<>(all).size());
+        assertEquals(0, bag.sample(0, all::add));
+
+        //forgetting is applied once to each selected item, after it was consumed
+        final Nar nar = new Nar();
+        final float before = selected.get(0).getPriority();
+        final List<Float> consumed = new ArrayList<>();
+        bag.sample(6, 10, nar.memory, item -> consumed.add(item.getPriority()));
+        assertEquals(6, consumed.size());
+        assertEquals(6, bag.size());
+        float sum = 0;
+        for (final NullItem item : all) {
+            sum += item.getPriority();
+        }
+        float consumedSum = 0;
+        for (final float p : consumed) {
+            consumedSum += p;
+        }
+        assertTrue(sum < consumedSum);
+        assertTrue(selected.get(0).getPriority() < before);
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core.bag;
+
+import org.junit.Test;
+import org.opennars.perf.BagPerf.NullItem;
+import org.opennars.storage.Bag;
+import org.opennars.storage.LevelBag;
+import org.opennars.storage.SumTreeBag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that Bag.update changes the budget of an item without taking it out of the bag
+ */
+public class BagUpdateTest {
+
+    @Test
+    public void testLevelBag() {
+        final LevelBag<NullItem,CharSequence> bag = new LevelBag<>(10, 4, 0);
+        final NullItem a = new NullItem(0.15f);
+        final NullItem b = new NullItem(0.15f);
+        final NullItem c = new NullItem(0.55f);
+        bag.putIn(a);
+        bag.putIn(b);
+        bag.putIn(c);
+
+        //level changes
+        assertSame(a, bag.update(a.name(), budget -> budget.setPriority(0.95f)));
+        assertEquals(0.95f, a.getPriority(), 0.0001f);
+        assertFalse(bag.levelEmpty(9));
+        assertTrue(bag.level[9].contains(a));
+        assertFalse(bag.level[1].contains(a));
+        assertEquals(3, bag.size());
+        assertEquals((0.95f + 0.15f + 0.55f) / 3, bag.getAveragePriority(), 0.01f);
+
+        //level stays, the item moves behind the others of its level
+        assertSame(c, bag.update(c.name(), budget -> budget.setPriority(0.56f)));
+        assertTrue(bag.level[5].contains(c));
+
+        //the last item leaves its level
+        assertSame(b, bag.update(b.name(), budget -> budget.setPriority(0.55f)));
+        assertTrue(bag.levelEmpty(1));
+        assertEquals(2, bag.level[5].size());
+        assertSame(c, bag.level[5].iterator().next());
+
+        testCommon(bag);
+    }
+
+    @Test
+    public void testSumTreeBag() {
+        final SumTreeBag<NullItem,CharSequence> bag = new SumTreeBag<>(4);
+        final NullItem a = new NullItem(0.2f);
+        final NullItem b = new NullItem(0.4f);
+        bag.putIn(a);
+        bag.putIn(b);
+        assertSame(a, bag.update(a.name(), budget -> budget.setPriority(0.8f)));
+        assertEquals(0.6f, bag.getAveragePriority(), 0.0001f);
+        bag.update(b.name(), budget -> budget.setPriority(0.0f));
+        for (int i = 0; i < 100; i++) {
+            final NullItem next = bag.takeNext();
+            assertSame(a, next);
+            bag.putIn(next);
+        }
+        testCommon(bag);
+    }
+
+    private static void testCommon(final Bag<NullItem,CharSequence> bag) {
+        final int size = bag.size();
+        assertNull(bag.update("missing", budget -> { throw new IllegalStateException("applied to a missing item"); }));
+        assertEquals(size, bag.size());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core.bag;
+
+import org.junit.Test;
+import org.opennars.perf.BagPerf.NullItem;
+import org.opennars.storage.Distributor;
+import org.opennars.storage.LevelBag;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the level occupancy bookkeeping of LevelBag on sparse bags with many levels
+ */
+public class LevelBagOccupancyTest {
+
+    @Test
+    public void testDistributorDistance() {
+        final Distributor d = Distributor.get(100);
+        final Random rnd = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            final int number = rnd.nextInt(100);
+            final int index = rnd.nextInt(d.capacity);
+            int expected = 0;
+            while (d.pick((index + expected) % d.capacity) != number) {
+                expected++;
+            }
+            assertEquals(expected, d.distance(number, index));
+        }
+    }
+
+    @Test
+    public void testSparseBag() {
+        final LevelBag<NullItem,CharSequence> bag = new LevelBag<>(1000, 3, 0);
+        final NullItem low = new NullItem(0.05f);
+        final NullItem mid = new NullItem(0.5f);
+        final NullItem high = new NullItem(0.95f);
+        assertNull(bag.putIn(mid));
+        assertNull(bag.putIn(low));
+        assertNull(bag.putIn(high));
+
+        //overflow removes the item of the lowest non-empty level
+        assertEquals(low, bag.putIn(new NullItem(0.7f)));
+        //an item below the lowest non-empty level is rejected
+        final NullItem lower = new NullItem(0.01f);
+        assertEquals(lower, bag.putIn(lower));
+        assertTrue(bag.levelEmpty(49));
+        assertTrue(!bag.levelEmpty(499));
+
+        final Set<NullItem> taken = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            final NullItem item = bag.takeNext();
+            assertNotNull(item);
+            taken.add(item);
+        }
+        assertEquals(3, taken.size());
+        assertEquals(0, bag.size());
+        assertNull(bag.takeNext());
+        for (int l = 0; l < bag.levels; l++) {
+            assertTrue(bag.levelEmpty(l));
+        }
+
+        //refill after draining
+        assertNull(bag.putIn(mid));
+        assertEquals(mid, bag.takeNext());
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core.bag;
+
+import org.junit.Test;
+import org.opennars.entity.Task;
+import org.opennars.io.Narsese;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.storage.LevelBag;
+import org.opennars.storage.SequenceBag;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the index of the sequence bag follows the events in the bag
+ */
+public class SequenceBagTest {
+
+    private static Task<Term> event(final Narsese narsese, final String term, final long time) throws Exception {
+        final Task<Term> task = narsese.parseTask(term + ". :|:");
+        task.sentence.stamp.setOccurrenceTime(time);
+        return task;
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        final Nar nar = new Nar();
+        final Narsese narsese = new Narsese(nar);
+        final SequenceBag bag = new SequenceBag(new LevelBag<>(10, 3, nar.narParameters));
+
+        final Task<Term> late = event(narsese, "(&/,a,+3,b)", 20);
+        final Task<Term> early = event(narsese, "(&/,a,+5,b)", 10);
+        final Task<Term> other = event(narsese, "c", 15);
+        bag.putIn(late);
+        bag.putIn(early);
+        bag.putIn(other);
+
+        //ordered by occurrence time, intervals are ignored
+        final Term ab = narsese.parseTerm("(&/,a,+7,b)");
+        assertEquals(Arrays.asList(early, late), bag.events(ab));
+        assertEquals(Arrays.asList(other), bag.events(Term.get("c")));
+
+        //newest event of exactly the term
+        assertSame(late, bag.newestEvent(late.getTerm(), 30));
+        assertNull(bag.newestEvent(late.getTerm(), 19));
+        assertSame(early, bag.newestEvent(early.getTerm(), 30));
+        assertNull(bag.newestEvent(ab, 30));
+
+        //removal by key and by selection
+        assertSame(early, bag.take(early));
+        assertEquals(Arrays.asList(late), bag.events(ab));
+        final Task<Term> selected = bag.takeNext();
+        assertTrue(bag.events(selected.getTerm()).isEmpty());
+        bag.putIn(selected);
+
+        //displaced events leave the index
+        bag.putIn(event(narsese, "d", 1));
+        bag.putIn(event(narsese, "e", 2));
+        int indexed = 0;
+        for (final String name : new String[] {"(&/,a,+1,b)", "c", "d", "e"}) {
+            indexed += bag.events(narsese.parseTerm(name)).size();
+        }
+        assertEquals(bag.size(), indexed);
+        for (final Task<Term> t : bag) {
+            assertTrue(bag.events(t.getTerm()).contains(t));
+        }
+
+        bag.clear();
+        assertTrue(bag.events(ab).isEmpty());
+        assertTrue(bag.events(Term.get("c")).isEmpty());
+    }
+}
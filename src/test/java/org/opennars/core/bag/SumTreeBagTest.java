@@ -0,0 +1,106 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.core.bag;
+
+import org.junit.Test;
+import org.opennars.perf.BagPerf.NullItem;
+import org.opennars.storage.SumTreeBag;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SumTreeBagTest {
+
+    @Test
+    public void testProportionalSelection() {
+        final SumTreeBag<NullItem,CharSequence> bag = new SumTreeBag<>(10);
+        final NullItem[] items = { new NullItem(0.1f), new NullItem(0.3f), new NullItem(0.6f) };
+        for (final NullItem item : items) {
+            bag.putIn(item);
+        }
+        final Map<NullItem, Integer> counts = new HashMap<>();
+        final int samples = 30000;
+        for (int i = 0; i < samples; i++) {
+            final NullItem item = bag.takeNext();
+            counts.merge(item, 1, Integer::sum);
+            assertNull(bag.putIn(item));
+        }
+        for (final NullItem item : items) {
+            assertEquals(item.getPriority(), counts.get(item) / (float) samples, 0.02f);
+        }
+        assertEquals(1.0f / 3, bag.getAveragePriority(), 0.001f);
+    }
+
+    @Test
+    public void testEviction() {
+        final SumTreeBag<NullItem,CharSequence> bag = new SumTreeBag<>(3);
+        final NullItem low = new NullItem(0.2f);
+        bag.putIn(new NullItem(0.5f));
+        bag.putIn(low);
+        bag.putIn(new NullItem(0.9f));
+        final NullItem lower = new NullItem(0.1f);
+        assertSame(lower, bag.putIn(lower));
+        assertSame(low, bag.putIn(new NullItem(0.3f)));
+        assertEquals(3, bag.size());
+        assertNull(bag.get(low.name()));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        final SumTreeBag<NullItem,CharSequence> bag = new SumTreeBag<>(50);
+        final Map<CharSequence, NullItem> model = new HashMap<>();
+        final Random rnd = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            final int op = rnd.nextInt(3);
+            if (op == 0) {
+                final NullItem item = new NullItem(rnd.nextFloat());
+                final NullItem removed = bag.putIn(item);
+                model.put(item.name(), item);
+                if (removed != null) {
+                    model.remove(removed.name());
+                }
+            } else if (op == 1) {
+                final NullItem taken = bag.takeNext();
+                if (taken != null) {
+                    assertSame(taken, model.remove(taken.name()));
+                }
+            } else if (!model.isEmpty()) {
+                final CharSequence key = model.keySet().iterator().next();
+                assertSame(model.remove(key), bag.take(key));
+            }
+            assertEquals(model.size(), bag.size());
+        }
+        float sum = 0;
+        int count = 0;
+        float last = 1.0f;
+        for (final NullItem item : bag) {
+            assertSame(model.get(item.name()), item);
+            assertTrue(item.getPriority() <= last);
+            last = item.getPriority();
+            sum += item.getPriority();
+            count++;
+        }
+        assertEquals(model.size(), count);
+        if (count > 0) {
+            assertEquals(sum / count, bag.getAveragePriority(), 0.001f);
+        }
+    }
+}
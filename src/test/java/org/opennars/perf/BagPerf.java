@@ -21,6 +21,7 @@ import org.opennars.main.Nar;
 import org.opennars.storage.Bag;
 import org.opennars.storage.LevelBag;
 import org.opennars.storage.Memory;
+import org.opennars.storage.SumTreeBag;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -301,8 +302,9 @@ public class BagPerf {
                 final int iterations = iterationsPerItem * items;
                 final int randomAccesses = accessesPerItem * items;
                         
-                final Bag[] bags = new LevelBag[1];
+                final Bag[] bags = new Bag[2];
                 bags[0] = new LevelBag(levels, items, narParameters);                       
+                bags[1] = new SumTreeBag(items);
     
                 
                 final Map<Bag, Double> t = BagPerf.compare(
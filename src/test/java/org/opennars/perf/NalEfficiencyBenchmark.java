@@ -0,0 +1,159 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.perf;
+
+import org.opennars.io.events.TextOutputHandler;
+import org.opennars.main.MiscFlags;
+import org.opennars.main.Nar;
+import org.opennars.storage.Memory;
+import org.opennars.util.test.NalScriptRunner;
+import org.opennars.util.test.NalScriptRunner.Result;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Measures how efficiently the NAL scripts are solved: cycles and time until the expected outputs appear,
+ * derivations per second and created concepts, per script and per NAL level.
+ * <p>
+ * The report is written as JSON with one script per line in the order of the names, so that the reports
+ * of two builds can be compared with diff. Arguments: report file (nal-efficiency.json), threads (1).
+ */
+public class NalEfficiencyBenchmark {
+
+    static class Totals {
+        int scripts, passed;
+        long cyclesToFirstAnswer, cyclesToSuccess, cycles, millis, derivations, conceptsCreated;
+
+        void add(final Result r) {
+            scripts++;
+            cycles += r.cycles;
+            millis += r.millis;
+            derivations += r.derivations;
+            conceptsCreated += r.conceptsCreated;
+            if (r.success) {
+                passed++;
+                cyclesToSuccess += r.cyclesToSuccess;
+            }
+            if (r.cyclesToFirstAnswer != -1) {
+                cyclesToFirstAnswer += r.cyclesToFirstAnswer;
+            }
+        }
+
+        void append(final StringBuilder json) {
+            json.append("{\"scripts\":").append(scripts)
+                .append(",\"passed\":").append(passed)
+                .append(",\"cycles_to_first_answer\":").append(cyclesToFirstAnswer)
+                .append(",\"cycles_to_success\":").append(cyclesToSuccess)
+                .append(",\"cycles\":").append(cycles)
+                .append(",\"millis\":").append(millis)
+                .append(",\"derivations\":").append(derivations)
+                .append(",\"derivations_per_second\":").append(perSecond(derivations, millis))
+                .append(",\"concepts_created\":").append(conceptsCreated)
+                .append('}');
+        }
+    }
+
+    static long perSecond(final long count, final long millis) {
+        return millis > 0 ? count * 1000 / millis : 0;
+    }
+
+    /**
+     * @return the name of the script without directory and extension
+     */
+    static String name(final Result r) {
+        final String file = r.path.substring(r.path.lastIndexOf(File.separatorChar) + 1);
+        return file.endsWith(".nal") ? file.substring(0, file.length() - 4) : file;
+    }
+
+    /**
+     * @return the NAL level of a script named like nal5.18, 0 for the other scripts
+     */
+    static int level(final String name) {
+        if (name.startsWith("nal") && name.length() > 3 && Character.isDigit(name.charAt(3))) {
+            return name.charAt(3) - '0';
+        }
+        return 0;
+    }
+
+    static String report(final List<Result> results) {
+        final Map<String, Result> byName = new TreeMap<>();
+        for (final Result r : results) {
+            byName.put(name(r), r);
+        }
+        final Map<Integer, Totals> levels = new TreeMap<>();
+        final Totals total = new Totals();
+        final StringBuilder json = new StringBuilder(1 << 16);
+        json.append("{\n\"version\":");
+        TextOutputHandler.appendJson(json, Nar.VERSION);
+        json.append(",\n\"scripts\":{\n");
+        boolean first = true;
+        for (final Map.Entry<String, Result> e : byName.entrySet()) {
+            final Result r = e.getValue();
+            levels.computeIfAbsent(level(e.getKey()), l -> new Totals()).add(r);
+            total.add(r);
+            if (!first) {
+                json.append(",\n");
+            }
+            first = false;
+            TextOutputHandler.appendJson(json, e.getKey());
+            json.append(":{\"success\":").append(r.success)
+                .append(",\"cycles_to_first_answer\":").append(r.cyclesToFirstAnswer)
+                .append(",\"cycles_to_success\":").append(r.cyclesToSuccess)
+                .append(",\"cycles\":").append(r.cycles)
+                .append(",\"millis\":").append(r.millis)
+                .append(",\"derivations\":").append(r.derivations)
+                .append(",\"derivations_per_second\":").append(perSecond(r.derivations, r.millis))
+                .append(",\"concepts_created\":").append(r.conceptsCreated)
+                .append('}');
+        }
+        json.append("\n},\n\"levels\":{\n");
+        first = true;
+        for (final Map.Entry<Integer, Totals> e : levels.entrySet()) {
+            if (!first) {
+                json.append(",\n");
+            }
+            first = false;
+            json.append('"').append(e.getKey() > 0 ? "NAL" + e.getKey() : "Other").append("\":");
+            e.getValue().append(json);
+        }
+        json.append("\n},\n\"total\":");
+        total.append(json);
+        return json.append("\n}\n").toString();
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        MiscFlags.DEBUG = false;
+        MiscFlags.TEST = true;
+        Memory.resetStatic();
+        final File file = new File(args.length > 0 ? args[0] : "nal-efficiency.json");
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        final List<Result> results = new NalScriptRunner(threads, NalScriptRunner.EXTRA_CYCLES).run(NalScriptRunner.scripts(NalScriptRunner.DIRECTORIES));
+        final String report = report(results);
+        try (final Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write(report);
+        }
+        final int end = report.indexOf("\"levels\"");
+        System.out.print(report.substring(end));
+        System.out.println("report written to " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.perf;
+
+import org.opennars.io.events.OutputHandler;
+import org.opennars.main.MiscFlags;
+import org.opennars.main.Nar;
+import org.opennars.storage.Bag;
+import org.opennars.storage.Memory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Soak test: runs a reasoner for a long time on synthetic input streams and samples its throughput and resources
+ * <p>
+ * Streams: "events" are random events and questions over a fixed vocabulary, "operations" is a goal which is reached
+ * by executing an operation, the execution is fed back as event, "vision" are frames of a moving bright pixel.
+ * Every sample is a CSV line with cycles per second, used heap and heap after the last collection, concepts,
+ * fill of the bags, waiting and dropped new tasks, executed operations and the collections and their time since the last sample.
+ * At the end the samples after the warmup are checked for throughput decay and growth of the heap after collections.
+ * <p>
+ * Arguments: minutes (60), seconds per sample (10), streams (events,operations,vision), CSV file (soak.csv).
+ * Exits with 1 if decay or growth was detected.
+ */
+public class SoakHarness {
+
+    static final int CYCLES_PER_STEP = 100;
+    static final int VOCABULARY = 200;
+    static final int FRAME_SIZE = 5;
+    /** share of the samples which are skipped before the trends are checked */
+    static final double WARMUP = 0.2;
+    /** relative change between the first and the last third of the samples which is reported */
+    static final double MAX_THROUGHPUT_DECAY = 0.25;
+    static final double MAX_HEAP_GROWTH = 0.5;
+
+    static final String HEADER = "seconds,cycles,cycles_per_second,heap_used_mb,heap_after_gc_mb,concepts,concept_fill,"
+        + "novel_task_fill,sequence_fill,operation_fill,new_tasks,new_tasks_dropped,executions,gc_count,gc_millis";
+
+    final Nar nar;
+    final Set<String> streams;
+    final Random rng = new Random(1);
+    /** executions which are fed back at the next step */
+    final ConcurrentLinkedQueue<String> feedback = new ConcurrentLinkedQueue<>();
+    final AtomicLong executions = new AtomicLong();
+    long step = 0;
+
+    final List<double[]> samples = new ArrayList<>();
+    long lastCycles = 0, lastNanos = 0, lastGcCount = 0, lastGcMillis = 0;
+
+    SoakHarness(final Nar nar, final Set<String> streams) {
+        this.nar = nar;
+        this.streams = streams;
+        if (streams.contains("operations")) {
+            nar.addInput("<(&/,<{light} --> [on]>,+3,(^left,{SELF}))=/><{door} --> [open]>>.");
+            nar.on(OutputHandler.EXE.class, (event, args) -> {
+                executions.incrementAndGet();
+                feedback.add("<{door} --> [open]>. :|:");
+            });
+        }
+    }
+
+    void feed() {
+        if (streams.contains("events")) {
+            for (int i = 0; i < 3; i++) {
+                nar.addInput("<{e" + rng.nextInt(VOCABULARY) + "} --> [s" + rng.nextInt(VOCABULARY / 10) + "]>. :|:");
+            }
+            if (rng.nextInt(4) == 0) {
+                nar.addInput("<{e" + rng.nextInt(VOCABULARY) + "} --> [s" + rng.nextInt(VOCABULARY / 10) + "]>?");
+            }
+        }
+        if (streams.contains("operations")) {
+            String s;
+            while ((s = feedback.poll()) != null) {
+                nar.addInput(s);
+            }
+            if (step % 5 == 0) {
+                nar.addInput("<{light} --> [on]>. :|:");
+                nar.addInput("<{door} --> [open]>! :|:");
+            }
+        }
+        if (streams.contains("vision")) {
+            //a bright pixel which moves over the frame, in the coordinates of the vision channel
+            final int position = (int) (step % (FRAME_SIZE * FRAME_SIZE));
+            final double h = 2.0 * (position / FRAME_SIZE) / (FRAME_SIZE - 1) - 1.0;
+            final double w = 2.0 * (position % FRAME_SIZE) / (FRAME_SIZE - 1) - 1.0;
+            nar.addInput("<{M1[" + h + "," + w + "]} --> [BRIGHT]>. :|:");
+        }
+        step++;
+    }
+
+    static double fill(final Bag<?, ?> bag) {
+        synchronized (bag) {
+            return bag.getCapacity() > 0 ? (double) bag.size() / bag.getCapacity() : 0;
+        }
+    }
+
+    /**
+     * @return the sample as values of the CSV columns
+     */
+    double[] sample(final double seconds) {
+        final long nanos = System.nanoTime();
+        final long cycles = nar.time();
+        long gcCount = 0, gcMillis = 0;
+        for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        long afterGc = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            final MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                afterGc += usage.getUsed();
+            }
+        }
+        final Memory memory = nar.memory;
+        final double[] s = {
+            seconds,
+            cycles,
+            lastNanos == 0 ? 0 : (cycles - lastCycles) * 1e9 / (nanos - lastNanos),
+            ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1048576.0,
+            afterGc / 1048576.0,
+            memory.concepts.size(),
+            fill(memory.concepts),
+            fill(memory.novelTasks),
+            fill(memory.seq_current),
+            fill(memory.recent_operations),
+            memory.newTaskCount(),
+            memory.newTasks.getDropped(),
+            executions.get(),
+            gcCount - lastGcCount,
+            gcMillis - lastGcMillis
+        };
+        lastNanos = nanos;
+        lastCycles = cycles;
+        lastGcCount = gcCount;
+        lastGcMillis = gcMillis;
+        return s;
+    }
+
+    static String csv(final double[] s) {
+        final StringBuilder line = new StringBuilder();
+        for (int i = 0; i < s.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            if (s[i] == Math.rint(s[i])) {
+                line.append((long) s[i]);
+            } else {
+                line.append(String.format("%.4f", s[i]));
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * @return the mean of a column over the samples from..to
+     */
+    static double mean(final List<double[]> samples, final int column, final int from, final int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += samples.get(i)[column];
+        }
+        return to > from ? sum / (to - from) : 0;
+    }
+
+    /**
+     * Compares the first and the last third of the samples after the warmup
+     *
+     * @return the findings, empty if the reasoner was stable
+     */
+    static List<String> trends(final List<double[]> samples) {
+        final List<String> findings = new ArrayList<>();
+        final int start = (int) (samples.size() * WARMUP) + 1; //the first sample has no rate
+        final int third = (samples.size() - start) / 3;
+        if (third < 1) {
+            findings.add("too few samples to check the trends");
+            return findings;
+        }
+        final double firstRate = mean(samples, 2, start, start + third);
+        final double lastRate = mean(samples, 2, samples.size() - third, samples.size());
+        if (lastRate < firstRate * (1.0 - MAX_THROUGHPUT_DECAY)) {
+            findings.add(String.format("throughput decayed from %.1f to %.1f cycles/s", firstRate, lastRate));
+        }
+        final double firstHeap = mean(samples, 4, start, start + third);
+        final double lastHeap = mean(samples, 4, samples.size() - third, samples.size());
+        if (firstHeap > 0 && lastHeap > firstHeap * (1.0 + MAX_HEAP_GROWTH)) {
+            findings.add(String.format("heap after collections grew from %.1f to %.1f MB", firstHeap, lastHeap));
+        }
+        return findings;
+    }
+
+    void run(final long millis, final long sampleMillis, final BufferedWriter out) throws Exception {
+        out.write(HEADER);
+        out.newLine();
+        final long start = System.currentTimeMillis();
+        long nextSample = start;
+        while (true) {
+            final long now = System.currentTimeMillis();
+            if (now >= nextSample) {
+                final double[] s = sample((now - start) / 1000.0);
+                samples.add(s);
+                out.write(csv(s));
+                out.newLine();
+                out.flush();
+                nextSample += sampleMillis;
+            }
+            if (now - start >= millis) {
+                break;
+            }
+            feed();
+            nar.cycles(CYCLES_PER_STEP);
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        MiscFlags.DEBUG = false;
+        final double minutes = args.length > 0 ? Double.parseDouble(args[0]) : 60;
+        final double sampleSeconds = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+        final Set<String> streams = new HashSet<>(Arrays.asList((args.length > 2 ? args[2] : "events,operations,vision").split(",")));
+        final File file = new File(args.length > 3 ? args[3] : "soak.csv");
+
+        final Nar nar = new Nar();
+        nar.addInput("*volume=0");
+        final SoakHarness harness = new SoakHarness(nar, streams);
+        try (final BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            harness.run((long) (minutes * 60000), (long) (sampleSeconds * 1000), out);
+        }
+
+        final List<String> findings = trends(harness.samples);
+        System.out.println(harness.samples.size() + " samples written to " + file.getAbsolutePath());
+        for (final String finding : findings) {
+            System.out.println(finding);
+        }
+        System.exit(findings.isEmpty() ? 0 : 1);
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.perf;
+
+import org.opennars.io.ConfigReader;
+import org.opennars.main.Nar;
+
+/**
+ * Measures the construction time of reasoners with the default config, once parsing the config for every
+ * reasoner and once copying the compiled config.
+ */
+public class StartupPerf {
+
+    static final int WARMUPS = 50;
+    static final int ROUNDS = 500;
+
+    /** keeps the reasoners alive */
+    static volatile Nar sink;
+
+    /**
+     * @return microseconds per construction
+     */
+    static double measure(final String name, final boolean cached) throws Exception {
+        for (int i = 0; i < WARMUPS; i++) {
+            if (!cached) {
+                ConfigReader.clearCache();
+            }
+            sink = new Nar();
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            if (!cached) {
+                ConfigReader.clearCache();
+            }
+            sink = new Nar();
+        }
+        final double us = (System.nanoTime() - start) / 1000.0 / ROUNDS;
+        System.out.printf("%-32s %10.1f us/nar%n", name, us);
+        return us;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final double parsed = measure("parse config", false);
+        final double cached = measure("compiled config", true);
+        System.out.printf("speedup %.1fx%n", parsed / cached);
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.perf;
+
+import org.opennars.entity.TruthValue;
+import org.opennars.inference.TruthFunctions;
+import org.opennars.inference.TruthFunctions.EnumType;
+import org.opennars.inference.UtilityFunctions;
+import org.opennars.main.Nar;
+import org.opennars.main.Parameters;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the allocation of the truth functions returning new truth values with the variants
+ * writing into a destination, and measures the allocation of a reasoner per cycle.
+ * <p>
+ * Measured like a JMH benchmark with the gc profiler: warmup rounds first, then the bytes allocated
+ * by the measuring thread are divided by the number of operations.
+ */
+public class TruthAllocationPerf {
+
+    static final int WARMUPS = 5;
+    static final int ROUNDS = 10;
+    static final int OPS = 1000000;
+
+    /** keeps the results alive */
+    static volatile float sink;
+
+    static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static long allocated() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    interface Op {
+        float run(int i);
+    }
+
+    /**
+     * @return bytes allocated per operation, printed with the time per operation
+     */
+    static double measure(final String name, final Op op) {
+        float sum = 0;
+        for (int w = 0; w < WARMUPS; w++) {
+            for (int i = 0; i < OPS; i++) {
+                sum += op.run(i);
+            }
+        }
+        final long bytes = allocated();
+        final long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int i = 0; i < OPS; i++) {
+                sum += op.run(i);
+            }
+        }
+        final double ns = (System.nanoTime() - start) / (double) ROUNDS / OPS;
+        final double perOp = (allocated() - bytes) / (double) ROUNDS / OPS;
+        sink = sum;
+        System.out.printf("%-32s %8.2f ns/op %8.2f B/op%n", name, ns, perOp);
+        return perOp;
+    }
+
+    /**
+     * @return bytes allocated per cycle by a reasoner working on the input
+     */
+    static double measureCycles(final String name, final String input, final int cycles) throws Exception {
+        final Nar nar = new Nar();
+        nar.addInput(input);
+        nar.cycles(cycles); //warmup
+        final long bytes = allocated();
+        nar.cycles(cycles);
+        final double perCycle = (allocated() - bytes) / (double) cycles;
+        System.out.printf("%-32s %8.0f B/cycle%n", name, perCycle);
+        return perCycle;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Parameters p = new Parameters();
+        final TruthValue[] premises = new TruthValue[1024];
+        for (int i = 0; i < premises.length; i++) {
+            premises[i] = new TruthValue((i % 100) / 100.0f, 0.1f + (i % 80) / 100.0f, p);
+        }
+        final int mask = premises.length - 1;
+        final TruthValue result = new TruthValue(p);
+
+        for (final EnumType type : new EnumType[] {EnumType.DEDUCTION, EnumType.ABDUCTION, EnumType.REDUCECONJUNCTION}) {
+            measure(type + " new", i -> TruthFunctions.lookupTruthFunctionAndCompute(type, premises[i & mask], premises[(i + 7) & mask], p).getConfidence());
+            measure(type + " into result", i -> TruthFunctions.lookupTruthFunctionAndCompute(type, premises[i & mask], premises[(i + 7) & mask], result, p).getConfidence());
+        }
+        measure("and varargs", i -> UtilityFunctions.and(new float[] {premises[i & mask].getFrequency(), premises[(i + 7) & mask].getConfidence(), 0.9f}));
+        measure("and fixed arity", i -> UtilityFunctions.and(premises[i & mask].getFrequency(), premises[(i + 7) & mask].getConfidence(), 0.9f));
+        measure("truth packed", i -> TruthValue.packedConfidence(premises[i & mask].pack()));
+
+        measureCycles("reasoner", "<a --> b>.\n<b --> c>.\n<c --> d>.\n<d --> e>.\n<a --> e>?\n", 1000);
+    }
+}
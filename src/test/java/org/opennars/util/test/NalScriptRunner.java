@@ -0,0 +1,270 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.opennars.util.test;
+
+import org.apache.commons.lang3.StringUtils;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.Events;
+import org.opennars.main.MiscFlags;
+import org.opennars.main.Nar;
+import org.opennars.storage.Memory;
+import org.opennars.util.io.ExampleFileInput;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs NAL scripts on a pool of workers, each with its own reasoner which is reset between the scripts
+ * <p>
+ * A script is read line by line twice: once for its output conditions and once for its input.
+ * The cycles of the script are run one by one, after them the reasoner gets up to extraCycles more cycles.
+ * A script stops as soon as all of its conditions are satisfied, unless it has an inverse condition
+ * (output must not contain, output empty) which has to hold for the whole budget.
+ * The cycles until the last condition was satisfied are recorded per script.
+ * <p>
+ * The random number generator of Memory is per thread, each worker seeds its own before a script and
+ * restarts the clock, so the cycles of a script only depend on the script, whatever the number of threads.
+ */
+public class NalScriptRunner {
+
+    /** cycles after the cycles of the script, like NALTest.minCycles */
+    public static final int EXTRA_CYCLES = 1550;
+
+    public static final String[] DIRECTORIES = { "/nal/single_step/", "/nal/multi_step/", "/nal/application/" };
+
+    private final int threads;
+    private final int extraCycles;
+
+    /**
+     * Outcome of a script
+     */
+    public static class Result {
+        public final String path;
+        public final boolean success;
+        /** cycles from the start of the script until all conditions were satisfied, -1 if they weren't */
+        public final long cyclesToSuccess;
+        /** cycles from the start of the script until the first condition was satisfied by an output, -1 if none was */
+        public final long cyclesToFirstAnswer;
+        /** cycles which were run */
+        public final long cycles;
+        public final long millis;
+        /** derived tasks and created concepts while the script ran */
+        public final long derivations;
+        public final long conceptsCreated;
+        public final List<OutputCondition> conditions;
+
+        Result(final String path, final boolean success, final long cyclesToSuccess, final long cyclesToFirstAnswer, final long cycles,
+               final long millis, final long derivations, final long conceptsCreated, final List<OutputCondition> conditions) {
+            this.path = path;
+            this.success = success;
+            this.cyclesToSuccess = cyclesToSuccess;
+            this.cyclesToFirstAnswer = cyclesToFirstAnswer;
+            this.cycles = cycles;
+            this.millis = millis;
+            this.derivations = derivations;
+            this.conceptsCreated = conceptsCreated;
+            this.conditions = conditions;
+        }
+
+        @Override
+        public String toString() {
+            return path + (success ? " OK after " + cyclesToSuccess : " FAILED") + " (" + cycles + " cycles, " + millis + " ms)";
+        }
+    }
+
+    /**
+     * @param threads The number of workers
+     * @param extraCycles The cycles after the cycles of a script
+     */
+    public NalScriptRunner(final int threads, final int extraCycles) {
+        this.threads = threads;
+        this.extraCycles = extraCycles;
+    }
+
+    /**
+     * @param paths The paths of the scripts
+     * @return the results in the order of the paths
+     */
+    public List<Result> run(final Collection<String> paths) throws InterruptedException {
+        final BlockingQueue<Nar> workers = new ArrayBlockingQueue<>(threads);
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Result>> futures = new ArrayList<>();
+            for (final String path : paths) {
+                futures.add(pool.submit(() -> {
+                    Nar nar = workers.poll();
+                    if (nar == null) {
+                        nar = new Nar();
+                        Memory.resetStatic(); //seeded like a reset reasoner
+                    } else {
+                        nar.reset();
+                        nar.setTime(0); //scripts expect absolute occurrence times
+                    }
+                    try {
+                        return run(nar, path);
+                    } finally {
+                        workers.offer(nar);
+                    }
+                }));
+            }
+            final List<Result> results = new ArrayList<>();
+            for (final Future<Result> f : futures) {
+                try {
+                    results.add(f.get());
+                } catch (final ExecutionException ex) {
+                    throw new IllegalStateException("script failed with an exception", ex.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs a script on a reasoner with an empty memory
+     */
+    public Result run(final Nar nar, final String path) throws IOException {
+        final long start = System.currentTimeMillis();
+        final long startTime = nar.time();
+        final StringBuilder expectations = new StringBuilder();
+        try (final BufferedReader br = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.trim().startsWith("''")) {
+                    expectations.append(line).append('\n');
+                }
+            }
+        }
+        final List<OutputCondition> conditions = OutputCondition.getConditions(nar, expectations.toString(), 5);
+        boolean inverse = false;
+        for (final OutputCondition c : conditions) {
+            inverse |= c.isInverse();
+        }
+        final boolean stopEarly = !inverse && !conditions.isEmpty();
+        final long[] counts = new long[2];
+        final EventObserver counter = (event, args) -> counts[event == Events.TaskDerive.class ? 0 : 1]++;
+        nar.memory.event.set(counter, true, Events.TaskDerive.class, Events.ConceptNew.class);
+
+        try {
+            boolean done = false;
+            try (final BufferedReader br = new BufferedReader(new FileReader(path))) {
+                String line;
+                while (!done && (line = br.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    if (StringUtils.isNumeric(line)) {
+                        for (int i = Integer.parseInt(line); i > 0 && !done; i--) {
+                            nar.cycles(1);
+                            done = stopEarly && satisfied(conditions);
+                        }
+                    } else {
+                        nar.addInput(line);
+                    }
+                }
+            }
+            for (int i = 0; i < extraCycles && !done; i++) {
+                nar.cycles(1);
+                done = stopEarly && satisfied(conditions);
+            }
+        } finally {
+            nar.memory.event.set(counter, false, Events.TaskDerive.class, Events.ConceptNew.class);
+            for (final OutputCondition c : conditions) {
+                c.setActive(false);
+            }
+        }
+
+        final boolean success = !conditions.isEmpty() && satisfied(conditions);
+        long cyclesToSuccess = -1, cyclesToFirstAnswer = -1;
+        for (final OutputCondition c : conditions) {
+            if (!c.isInverse() && c.getTrueTime() != -1) {
+                final long cycles = c.getTrueTime() - startTime + 1;
+                cyclesToFirstAnswer = cyclesToFirstAnswer == -1 ? cycles : Math.min(cyclesToFirstAnswer, cycles);
+            }
+        }
+        if (success) {
+            cyclesToSuccess = 0;
+            for (final OutputCondition c : conditions) {
+                if (c.getTrueTime() != -1) { //satisfied in the cycle which started at that time
+                    cyclesToSuccess = Math.max(cyclesToSuccess, c.getTrueTime() - startTime + 1);
+                }
+            }
+        }
+        return new Result(path, success, cyclesToSuccess, cyclesToFirstAnswer, nar.time() - startTime,
+            System.currentTimeMillis() - start, counts[0], counts[1], conditions);
+    }
+
+    /**
+     * @param directories The resource directories of the scripts
+     * @return the paths of the scripts, sorted by name
+     */
+    public static List<String> scripts(final String... directories) {
+        final List<String> paths = new ArrayList<>();
+        for (final Object o : ExampleFileInput.getUnitTests(directories).values()) {
+            paths.add((String) ((Object[]) o)[0]);
+        }
+        return paths;
+    }
+
+    private static boolean satisfied(final List<OutputCondition> conditions) {
+        for (final OutputCondition c : conditions) {
+            if (!c.succeeded) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs the NAL test scripts and prints the cycles to success of each, arguments: threads, extra cycles.
+     */
+    public static void main(final String[] args) throws Exception {
+        MiscFlags.DEBUG = false;
+        MiscFlags.TEST = true;
+        Memory.resetStatic();
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final int extra = args.length > 1 ? Integer.parseInt(args[1]) : EXTRA_CYCLES;
+        final List<String> paths = scripts(DIRECTORIES);
+
+        final long start = System.currentTimeMillis();
+        final List<Result> results = new NalScriptRunner(threads, extra).run(paths);
+        int passed = 0;
+        long cycles = 0, toSuccess = 0;
+        for (final Result r : results) {
+            System.out.printf("%-48s %-6s %8d %8d %8d ms%n", r.path.substring(r.path.lastIndexOf('/') + 1),
+                r.success ? "OK" : "FAILED", r.cyclesToSuccess, r.cycles, r.millis);
+            cycles += r.cycles;
+            if (r.success) {
+                passed++;
+                toSuccess += r.cyclesToSuccess;
+            }
+        }
+        System.out.println(passed + " / " + results.size() + " passed, " + toSuccess + " cycles to success, " + cycles
+            + " cycles run, " + (System.currentTimeMillis() - start) + " ms");
+        System.exit(passed == results.size() ? 0 : 1);
+    }
+}